@@ -0,0 +1,188 @@
+package org.deliverr.inventory.benchmarks;
+
+import org.deliverr.inventory.AllocationTrace;
+import org.deliverr.inventory.AllocationTracer;
+import org.deliverr.inventory.InventoryAllocator;
+import org.deliverr.inventory.OffHeapInventoryTable;
+import org.deliverr.inventory.Order;
+import org.deliverr.inventory.Shipment;
+import org.deliverr.inventory.Warehouse;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * AllocationReplay class which drives InventoryAllocator end to end with a generated workload (see WorkloadGenerator)
+ * and reports the throughput, the latency percentiles, the fill rate and the memory footprint.
+ *
+ * The orders are generated before the replay, so only the allocation is measured. A warm up replays the same stream
+ * against a separate set of warehouses first. Two runs with the same options replay the same workload, so their
+ * reports can be compared.
+ *
+ * Usage:
+ *     java -cp target/benchmarks.jar org.deliverr.inventory.benchmarks.AllocationReplay --seed=42 --orders=200000
+ * Options (defaults): seed (42), warehouses (100), skus (10000), orders (100000), zipf (1.0), stockout (0.02),
+ * items (3), stock (100), warmup (1), storage (heap), budget (1024, in MB, for the offheap storage), trace (0, one
+ * order in trace is traced, see AllocationTracer).
+ * */
+public class AllocationReplay {
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<String, String>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Please pass valid input : " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        long seed = Long.parseLong(option(options, "seed", "42"));
+        int warehouseCount = Integer.parseInt(option(options, "warehouses", "100"));
+        int skuCount = Integer.parseInt(option(options, "skus", "10000"));
+        int orderCount = Integer.parseInt(option(options, "orders", "100000"));
+        double zipfExponent = Double.parseDouble(option(options, "zipf", "1.0"));
+        double stockoutRate = Double.parseDouble(option(options, "stockout", "0.02"));
+        double meanItemsPerOrder = Double.parseDouble(option(options, "items", "3"));
+        int meanStockPerSku = Integer.parseInt(option(options, "stock", "100"));
+        int warmupRuns = Integer.parseInt(option(options, "warmup", "1"));
+        String storage = option(options, "storage", "heap");
+        long memoryBudget = Long.parseLong(option(options, "budget", "1024")) << 20;
+        if (!storage.equals("heap") && !storage.equals("offheap")) {
+            throw new IllegalArgumentException("Please pass valid input : " + storage);
+        }
+        int traceEvery = Integer.parseInt(option(options, "trace", "0"));
+        AllocationTracer tracer = new AllocationTracer(4096, traceEvery);
+        InventoryAllocator.getInventoryAllocatorInstance().setTracer(traceEvery == 0 ? AllocationTracer.DISABLED : tracer);
+
+        for (int run = 0; run < warmupRuns; run++) {
+            replay(new WorkloadGenerator(seed, warehouseCount, skuCount, zipfExponent, stockoutRate, meanItemsPerOrder, meanStockPerSku), orderCount,
+                    storage.equals("offheap") ? new OffHeapInventoryTable(memoryBudget) : null);
+        }
+        Report report = replay(new WorkloadGenerator(seed, warehouseCount, skuCount, zipfExponent, stockoutRate, meanItemsPerOrder, meanStockPerSku), orderCount,
+                storage.equals("offheap") ? new OffHeapInventoryTable(memoryBudget) : null);
+        System.out.println("workload   : seed=" + seed + " warehouses=" + warehouseCount + " skus=" + skuCount
+                + " orders=" + orderCount + " zipf=" + zipfExponent + " stockout=" + stockoutRate
+                + " items=" + meanItemsPerOrder + " stock=" + meanStockPerSku + " storage=" + storage
+                + " trace=" + traceEvery);
+        System.out.println(report);
+        if (traceEvery > 0) {
+            List<AllocationTrace> traces = tracer.getTraces();
+            System.out.println("traces     : " + tracer.getRecordedCount() + " recorded"
+                    + (traces.isEmpty() ? ", no order sampled" : ", last " + traces.get(traces.size() - 1)));
+        }
+    }
+
+    private static String option(Map<String, String> options, String name, String defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Replays the order stream of the generator against a new set of it's warehouses
+     *
+     * @param workloadGenerator
+     * @param orderCount
+     * @param offHeapInventoryTable (table storing the quantities, null to store them on the heap)
+     * @return report of the replay
+     */
+    static Report replay(WorkloadGenerator workloadGenerator, int orderCount, OffHeapInventoryTable offHeapInventoryTable) {
+        Report report = new Report();
+        long heapBefore = usedHeapAfterGc();
+        List<Warehouse> warehouses = workloadGenerator.createWarehouses(offHeapInventoryTable);
+        report.inventoryBytes = usedHeapAfterGc() - heapBefore;
+        report.offHeapBytes = offHeapInventoryTable == null ? 0 : offHeapInventoryTable.getAllocatedBytes();
+        List<Order> orders = workloadGenerator.nextOrders(orderCount);
+
+        InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+        long[] latencies = new long[orderCount];
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int o = 0; o < orderCount; o++) {
+            long orderStart = System.nanoTime();
+            List<Shipment> shipments = inventoryAllocator.allocateShipment(orders.get(o), warehouses);
+            latencies[o] = System.nanoTime() - orderStart;
+            if (!shipments.isEmpty()) {
+                report.filledOrders++;
+                report.shipments += shipments.size();
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        report.allocatedBytes = allocatedBytes() - allocatedBefore;
+        report.orders = orderCount;
+
+        Arrays.sort(latencies);
+        report.latencies = latencies;
+        return report;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, or -1 when the JVM does not report it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Report of one replay
+     * */
+    static class Report {
+        private int orders = 0;
+        private int filledOrders = 0;
+        private long shipments = 0;
+        private long elapsedNanos = 0;
+        private long allocatedBytes = 0;
+        private long inventoryBytes = 0; // heap
+        private long offHeapBytes = 0;
+        private long[] latencies = new long[0]; // sorted
+
+        double getOrdersPerSecond() {
+            return elapsedNanos == 0 ? 0 : orders * 1e9 / elapsedNanos;
+        }
+
+        double getFillRate() {
+            return orders == 0 ? 0 : (double) filledOrders / orders;
+        }
+
+        /**
+         * @param percentile (0 to 100)
+         * @return latency in nanoseconds
+         */
+        long getLatencyNanos(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(latencies.length * percentile / 100) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "throughput : %.0f orders/s (%d orders in %.1f ms)%n"
+                    + "latency    : p50=%.2f us p90=%.2f us p99=%.2f us p99.9=%.2f us max=%.2f us%n"
+                    + "fill rate  : %.2f%% (%d filled, %.2f shipments per filled order)%n"
+                    + "memory     : inventory=%.1f MB heap + %.1f MB off-heap, allocated=%s per order",
+                    getOrdersPerSecond(), orders, elapsedNanos / 1e6,
+                    getLatencyNanos(50) / 1e3, getLatencyNanos(90) / 1e3, getLatencyNanos(99) / 1e3,
+                    getLatencyNanos(99.9) / 1e3, getLatencyNanos(100) / 1e3,
+                    getFillRate() * 100, filledOrders, filledOrders == 0 ? 0 : (double) shipments / filledOrders,
+                    inventoryBytes / 1e6, offHeapBytes / 1e6, allocatedBytes < 0 ? "n/a" : (orders == 0 ? 0 : allocatedBytes / orders) + " B");
+        }
+    }
+}
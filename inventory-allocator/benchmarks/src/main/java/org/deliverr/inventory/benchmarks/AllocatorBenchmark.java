@@ -0,0 +1,120 @@
+package org.deliverr.inventory.benchmarks;
+
+import org.deliverr.inventory.AllocationPlan;
+import org.deliverr.inventory.InventoryAllocator;
+import org.deliverr.inventory.InventoryIndex;
+import org.deliverr.inventory.Order;
+import org.deliverr.inventory.ShardedAllocationStrategy;
+import org.deliverr.inventory.Shipment;
+import org.deliverr.inventory.ShipmentBuffer;
+import org.deliverr.inventory.Warehouse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the allocation hot path: InventoryAllocator.allocateShipment (into lists and into a reused buffer),
+ * the sequential and the sharded planning, Warehouse.processOrder and the construction of orders and shipments.
+ *
+ * Throughput is reported in ops/s. Run with "-prof gc" for the allocation rate, and with "-bm sample -tu us" for the
+ * average and the percentiles of the latency (see README).
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllocatorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int warehouseCount;
+
+    @Param({"100", "1000"})
+    private int skuCount;
+
+    @Param({"1", "5", "20"})
+    private int itemsPerOrder;
+
+    @Param({"0.1", "0.9"})
+    private double fillRatio;
+
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+    private InventoryFixture fixture = null;
+    private InventoryIndex inventoryIndex = null;
+    private Warehouse firstWarehouse = null;
+    private ShardedAllocationStrategy shardedAllocationStrategy = new ShardedAllocationStrategy(64);
+    private Order reusedOrder = new Order();
+    private ShipmentBuffer shipmentBuffer = new ShipmentBuffer();
+
+    @Setup
+    public void setUp() {
+        fixture = new InventoryFixture(warehouseCount, skuCount, itemsPerOrder, fillRatio);
+        inventoryIndex = new InventoryIndex(fixture.getWarehouses());
+        firstWarehouse = fixture.getWarehouses().get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        inventoryIndex.detach();
+    }
+
+    @Benchmark
+    public List<Shipment> allocateShipment() {
+        return inventoryAllocator.allocateShipment(fixture.nextOrder(), fixture.getWarehouses());
+    }
+
+    @Benchmark
+    public List<Shipment> allocateShipmentIndexed() {
+        return inventoryAllocator.allocateShipment(fixture.nextOrder(), inventoryIndex);
+    }
+
+    /**
+     * Reuses the order and the buffer, "-prof gc" should report a gc.alloc.rate.norm of 0 B/op
+     * */
+    @Benchmark
+    public boolean allocateShipmentIntoBuffer() {
+        return inventoryAllocator.allocateShipment(fixture.nextOrder(reusedOrder), fixture.getWarehouses(), shipmentBuffer);
+    }
+
+    @Benchmark
+    public AllocationPlan planShipment() {
+        return inventoryAllocator.planShipment(fixture.nextOrder(), fixture.getWarehouses());
+    }
+
+    @Benchmark
+    public AllocationPlan planShipmentSharded() {
+        return shardedAllocationStrategy.plan(fixture.nextOrder(), fixture.getWarehouses());
+    }
+
+    @Benchmark
+    public Shipment processOrder() {
+        return firstWarehouse.processOrder(fixture.nextOrder());
+    }
+
+    @Benchmark
+    public Order orderConstruction() {
+        return fixture.nextOrder();
+    }
+
+    @Benchmark
+    public Shipment shipmentConstruction() {
+        Shipment shipment = new Shipment(firstWarehouse.getWarehouseName());
+        for (String orderItemName : fixture.nextOrderItemNames()) {
+            shipment.addOrders(orderItemName, 1);
+        }
+        return shipment;
+    }
+}
@@ -0,0 +1,111 @@
+package org.deliverr.inventory.benchmarks;
+
+import org.deliverr.inventory.BulkFillKernel;
+import org.deliverr.inventory.InventoryAllocator;
+import org.deliverr.inventory.Order;
+import org.deliverr.inventory.ShipmentBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the bulk fill (see BulkFillKernel) against the item by item fill, for wide orders and waves.
+ *
+ * fillKernel and fillItemByItem fill dense arrays of ordered and available quantities, the kernel branch free and
+ * the item by item loop the way Warehouse.processOrder does. allocateShipmentIntoBuffer allocates whole orders with
+ * the bulk fill switched on (bulk=true) or off (bulk=false).
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkFillBenchmark {
+
+    @Param({"8", "32", "128", "512"})
+    private int itemsPerOrder;
+
+    @Param({"true", "false"})
+    private boolean bulk;
+
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+    private int previousBulkFillMinItems = 0;
+    private InventoryFixture fixture = null;
+    private Order reusedOrder = new Order();
+    private ShipmentBuffer shipmentBuffer = new ShipmentBuffer();
+    private int[] initialOrdered = null;
+    private int[] initialAvailable = null;
+    private int[] ordered = null;
+    private int[] available = null;
+    private int[] shipped = null;
+
+    @Setup
+    public void setUp() {
+        previousBulkFillMinItems = inventoryAllocator.getBulkFillMinItems();
+        inventoryAllocator.setBulkFillMinItems(bulk ? 1 : Integer.MAX_VALUE);
+        fixture = new InventoryFixture(10, 4096, itemsPerOrder, 0.5);
+
+        Random random = new Random(42);
+        initialOrdered = new int[itemsPerOrder];
+        initialAvailable = new int[itemsPerOrder];
+        for (int i = 0; i < itemsPerOrder; i++) {
+            initialOrdered[i] = 1 + random.nextInt(10);
+            initialAvailable[i] = random.nextBoolean() ? 0 : random.nextInt(20);
+        }
+        ordered = new int[itemsPerOrder];
+        available = new int[itemsPerOrder];
+        shipped = new int[itemsPerOrder];
+    }
+
+    @TearDown
+    public void tearDown() {
+        inventoryAllocator.setBulkFillMinItems(previousBulkFillMinItems);
+    }
+
+    @Benchmark
+    public int[] fillKernel() {
+        System.arraycopy(initialOrdered, 0, ordered, 0, itemsPerOrder);
+        System.arraycopy(initialAvailable, 0, available, 0, itemsPerOrder);
+        BulkFillKernel.fill(ordered, available, shipped, itemsPerOrder);
+        return shipped;
+    }
+
+    @Benchmark
+    public int[] fillItemByItem() {
+        System.arraycopy(initialOrdered, 0, ordered, 0, itemsPerOrder);
+        System.arraycopy(initialAvailable, 0, available, 0, itemsPerOrder);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            if (available[i] == 0) {
+                shipped[i] = 0;
+                continue;
+            }
+            int quantity = Math.min(ordered[i], available[i]);
+            shipped[i] = quantity;
+            if (quantity >= ordered[i]) {
+                ordered[i] = 0;
+            } else {
+                ordered[i] -= quantity;
+            }
+            available[i] -= quantity;
+        }
+        return shipped;
+    }
+
+    @Benchmark
+    public boolean allocateShipmentIntoBuffer() {
+        return inventoryAllocator.allocateShipment(fixture.nextOrder(reusedOrder), fixture.getWarehouses(), shipmentBuffer);
+    }
+}
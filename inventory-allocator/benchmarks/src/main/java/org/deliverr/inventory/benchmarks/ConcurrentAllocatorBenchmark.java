@@ -0,0 +1,96 @@
+package org.deliverr.inventory.benchmarks;
+
+import org.deliverr.inventory.AsyncInventoryAllocator;
+import org.deliverr.inventory.BatchOrderingPolicy;
+import org.deliverr.inventory.ConcurrentInventoryAllocator;
+import org.deliverr.inventory.Order;
+import org.deliverr.inventory.Shipment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of many threads allocating against the same warehouses: the striped locks of ConcurrentInventoryAllocator
+ * against the single writer micro-batches of AsyncInventoryAllocator (every thread waits for it's own order).
+ *
+ * Run with "-bm sample -tu us" for the percentiles of the latency, and with e.g. "-t 16" for more threads. The single
+ * writer only has a chance on a machine with several cores, on a single core the handoff to the writer dominates.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ConcurrentAllocatorBenchmark {
+
+    @Param({"100"})
+    private int warehouseCount;
+
+    @Param({"1000"})
+    private int skuCount;
+
+    @Param({"5"})
+    private int itemsPerOrder;
+
+    @Param({"0.1"})
+    private double fillRatio;
+
+    private InventoryFixture sharedFixture = null;
+    private ConcurrentInventoryAllocator concurrentInventoryAllocator = null;
+    private AsyncInventoryAllocator asyncInventoryAllocator = null;
+
+    /**
+     * Orders of one benchmark thread, the warehouses of it's fixture are not used
+     * */
+    @State(Scope.Thread)
+    public static class ThreadOrders {
+        private InventoryFixture fixture = null;
+
+        @Setup
+        public void setUp(ConcurrentAllocatorBenchmark benchmark) {
+            fixture = benchmark.createFixture();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        sharedFixture = createFixture();
+        concurrentInventoryAllocator = new ConcurrentInventoryAllocator(sharedFixture.getWarehouses());
+        asyncInventoryAllocator = new AsyncInventoryAllocator(sharedFixture.getWarehouses(), 1 << 16, 256, BatchOrderingPolicy.FIFO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        asyncInventoryAllocator.close();
+    }
+
+    private InventoryFixture createFixture() {
+        return new InventoryFixture(warehouseCount, skuCount, itemsPerOrder, fillRatio);
+    }
+
+    @Benchmark
+    public List<Shipment> stripedLocks(ThreadOrders threadOrders) {
+        return concurrentInventoryAllocator.allocateShipment(threadOrders.fixture.nextOrder());
+    }
+
+    @Benchmark
+    public List<Shipment> singleWriter(ThreadOrders threadOrders) {
+        Order order = threadOrders.fixture.nextOrder();
+        return asyncInventoryAllocator.allocateShipment(order).join();
+    }
+}
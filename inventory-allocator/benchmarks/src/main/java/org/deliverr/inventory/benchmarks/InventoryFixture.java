@@ -0,0 +1,110 @@
+package org.deliverr.inventory.benchmarks;
+
+import org.deliverr.inventory.Order;
+import org.deliverr.inventory.Warehouse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * InventoryFixture class which builds the warehouses and the orders used by the benchmarks.
+ *
+ * Everything is generated from a fixed seed, so two runs of the same parameters benchmark the same inventory.
+ * Warehouses hold so much stock that the orders of a benchmark run never deplete it.
+ * */
+public class InventoryFixture {
+
+    private static final long SEED = 42L;
+    private static final int STOCK_QUANTITY = 1000000000;
+    private static final int ORDER_COUNT = 1024; // power of two, orders are picked round robin
+    private List<Warehouse> warehouses = new ArrayList<Warehouse>();
+    private String[] itemNames = null;
+    private String[][] orderItemNames = null;
+    private int[][] orderItemQuantities = null;
+    private int nextOrder = 0;
+
+    /**
+     * @param warehouseCount
+     * @param skuCount
+     * @param itemsPerOrder
+     * @param fillRatio (share of the warehouse and item pairs holding stock)
+     */
+    public InventoryFixture(int warehouseCount, int skuCount, int itemsPerOrder, double fillRatio) {
+        Random random = new Random(SEED);
+        itemNames = new String[skuCount];
+        for (int sku = 0; sku < skuCount; sku++) {
+            itemNames[sku] = "sku-" + sku;
+        }
+        for (int w = 0; w < warehouseCount; w++) {
+            Warehouse warehouse = new Warehouse("warehouse-" + w);
+            for (int sku = 0; sku < skuCount; sku++) {
+                if (random.nextDouble() < fillRatio) {
+                    warehouse.addOrders(itemNames[sku], STOCK_QUANTITY);
+                }
+            }
+            warehouses.add(warehouse);
+        }
+
+        orderItemNames = new String[ORDER_COUNT][];
+        orderItemQuantities = new int[ORDER_COUNT][];
+        for (int o = 0; o < ORDER_COUNT; o++) {
+            orderItemNames[o] = new String[itemsPerOrder];
+            orderItemQuantities[o] = new int[itemsPerOrder];
+            for (int i = 0; i < itemsPerOrder; i++) {
+                orderItemNames[o][i] = itemNames[random.nextInt(skuCount)];
+                orderItemQuantities[o][i] = 1 + random.nextInt(10);
+            }
+        }
+    }
+
+    /**
+     * @return warehouses in the cheapest first order
+     */
+    public List<Warehouse> getWarehouses() {
+        return warehouses;
+    }
+
+    /**
+     * @return names of all the items of the catalog
+     */
+    public String[] getItemNames() {
+        return itemNames;
+    }
+
+    /**
+     * Builds the next order, round robin over the generated orders
+     *
+     * @return new order
+     */
+    public Order nextOrder() {
+        int o = nextOrder++ & (ORDER_COUNT - 1);
+        Order order = new Order();
+        for (int i = 0; i < orderItemNames[o].length; i++) {
+            order.addOrders(orderItemNames[o][i], orderItemQuantities[o][i]);
+        }
+        return order;
+    }
+
+    /**
+     * Refills the given order with the next order, round robin over the generated orders, without allocating
+     *
+     * @param order (reused)
+     * @return the same order
+     */
+    public Order nextOrder(Order order) {
+        int o = nextOrder++ & (ORDER_COUNT - 1);
+        order.clear();
+        for (int i = 0; i < orderItemNames[o].length; i++) {
+            order.addOrders(orderItemNames[o][i], orderItemQuantities[o][i]);
+        }
+        return order;
+    }
+
+    /**
+     * @return item names of the next order, round robin over the generated orders
+     */
+    public String[] nextOrderItemNames() {
+        return orderItemNames[nextOrder++ & (ORDER_COUNT - 1)];
+    }
+}
@@ -0,0 +1,184 @@
+package org.deliverr.inventory.benchmarks;
+
+import org.deliverr.inventory.OffHeapInventoryTable;
+import org.deliverr.inventory.Order;
+import org.deliverr.inventory.Warehouse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * WorkloadGenerator class which generates production like warehouse sets and order streams.
+ *
+ * SKU popularity follows a Zipf distribution (sku-0 being the most popular), and every order picks it's SKUs by
+ * popularity. A share of the SKUs (the stockout rate) is out of stock in every warehouse, every other SKU is carried
+ * by about half of the warehouses. The stock of a SKU in a warehouse is proportional to the popularity of the SKU and
+ * to the size of the warehouse, with a random log normal spread. Everything is generated from the seed: the warehouses and the orders come from two separate random
+ * streams, so createWarehouses always returns the same stock and the order stream is the same whatever the number of
+ * warehouse sets created.
+ * */
+public class WorkloadGenerator {
+
+    private long seed = 0;
+    private int warehouseCount = 0;
+    private int skuCount = 0;
+    private double zipfExponent = 0;
+    private double stockoutRate = 0;
+    private double meanItemsPerOrder = 0;
+    private int meanStockPerSku = 0;
+    private String[] skuNames = null;
+    private double[] popularityCdf = null; // cumulative popularity share by SKU
+    private Random orderRandom = null;
+
+    /**
+     * @param seed
+     * @param warehouseCount
+     * @param skuCount
+     * @param zipfExponent skew of the SKU popularity (0 uniform, around 1 for retail)
+     * @param stockoutRate share of the SKUs out of stock in all the warehouses (0 to 1)
+     * @param meanItemsPerOrder mean number of distinct SKUs per order (at least 1)
+     * @param meanStockPerSku mean quantity of a SKU across all the warehouses holding it
+     */
+    public WorkloadGenerator(long seed, int warehouseCount, int skuCount, double zipfExponent, double stockoutRate,
+                             double meanItemsPerOrder, int meanStockPerSku) {
+        if (warehouseCount <= 0 || skuCount <= 0 || zipfExponent < 0 || stockoutRate < 0 || stockoutRate > 1
+                || meanItemsPerOrder < 1 || meanStockPerSku <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.seed = seed;
+        this.warehouseCount = warehouseCount;
+        this.skuCount = skuCount;
+        this.zipfExponent = zipfExponent;
+        this.stockoutRate = stockoutRate;
+        this.meanItemsPerOrder = meanItemsPerOrder;
+        this.meanStockPerSku = meanStockPerSku;
+        this.orderRandom = new Random(seed ^ 0x5DEECE66DL);
+
+        skuNames = new String[skuCount];
+        popularityCdf = new double[skuCount];
+        double total = 0;
+        for (int sku = 0; sku < skuCount; sku++) {
+            skuNames[sku] = "sku-" + sku;
+            total += 1 / Math.pow(sku + 1, zipfExponent);
+            popularityCdf[sku] = total;
+        }
+        for (int sku = 0; sku < skuCount; sku++) {
+            popularityCdf[sku] /= total;
+        }
+    }
+
+    /**
+     * @param sku
+     * @return share of the demand going to the SKU
+     */
+    public double getPopularity(int sku) {
+        return sku == 0 ? popularityCdf[0] : popularityCdf[sku] - popularityCdf[sku - 1];
+    }
+
+    /**
+     * @return names of the SKUs, most popular first
+     */
+    public String[] getSkuNames() {
+        return skuNames;
+    }
+
+    /**
+     * Creates a new set of warehouses, the same stock every time
+     *
+     * @return warehouses in the cheapest first order
+     */
+    public List<Warehouse> createWarehouses() {
+        return createWarehouses(null);
+    }
+
+    /**
+     * Creates a new set of warehouses, the same stock every time
+     *
+     * @param offHeapInventoryTable (table storing the quantities, null to store them on the heap)
+     * @return warehouses in the cheapest first order
+     */
+    public List<Warehouse> createWarehouses(OffHeapInventoryTable offHeapInventoryTable) {
+        Random random = new Random(seed);
+
+        /* warehouse sizes are skewed as well, a few large warehouses holding most of the stock */
+        double[] sizes = new double[warehouseCount];
+        double totalSize = 0;
+        for (int w = 0; w < warehouseCount; w++) {
+            sizes[w] = Math.exp(random.nextGaussian());
+            totalSize += sizes[w];
+        }
+
+        List<Warehouse> warehouses = new ArrayList<Warehouse>(warehouseCount);
+        for (int w = 0; w < warehouseCount; w++) {
+            String warehouseName = "warehouse-" + w;
+            warehouses.add(offHeapInventoryTable == null ? new Warehouse(warehouseName) : offHeapInventoryTable.newWarehouse(warehouseName));
+        }
+        for (int sku = 0; sku < skuCount; sku++) {
+            if (random.nextDouble() < stockoutRate) {
+                continue;
+            }
+            double skuStock = meanStockPerSku * getPopularity(sku) * skuCount;
+            for (int w = 0; w < warehouseCount; w++) {
+                if (random.nextBoolean()) {
+                    continue;
+                }
+                double spread = Math.exp(0.5 * random.nextGaussian() - 0.125);
+                int quantity = (int) Math.round(2 * skuStock * sizes[w] / totalSize * spread);
+                if (quantity > 0) {
+                    warehouses.get(w).addOrders(skuNames[sku], quantity);
+                }
+            }
+        }
+        return warehouses;
+    }
+
+    /**
+     * @return next order of the stream
+     */
+    public Order nextOrder() {
+        Order order = new Order();
+        int itemCount = 1;
+        while (itemCount < skuCount && orderRandom.nextDouble() > 1 / meanItemsPerOrder) {
+            itemCount++;
+        }
+        for (int i = 0; i < itemCount; i++) {
+            int sku = nextSku();
+            order.addOrders(skuNames[sku], order.getOrderItemsQuantity(skuNames[sku]) > 0
+                    ? order.getOrderItemsQuantity(skuNames[sku]) + 1 : 1 + geometric(0.6));
+        }
+        return order;
+    }
+
+    /**
+     * @param orderCount
+     * @return next orders of the stream
+     */
+    public List<Order> nextOrders(int orderCount) {
+        List<Order> orders = new ArrayList<Order>(orderCount);
+        for (int o = 0; o < orderCount; o++) {
+            orders.add(nextOrder());
+        }
+        return orders;
+    }
+
+    /**
+     * @return SKU picked by popularity
+     */
+    private int nextSku() {
+        int index = Arrays.binarySearch(popularityCdf, orderRandom.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, skuCount - 1);
+    }
+
+    /**
+     * @return number of failures before the first success of probability p
+     */
+    private int geometric(double p) {
+        int failures = 0;
+        while (orderRandom.nextDouble() > p) {
+            failures++;
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,162 @@
+package org.deliverr.inventory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * AllocationJournal class which appends the stock changes of every transaction to a file, one record per transaction.
+ *
+ * A record is [payload length int][CRC32 of the payload int][payload], the payload holding the quantity of every
+ * changed item after the transaction (not the difference), so replaying a record more than once is harmless. A warehouse
+ * listed without any item records that the warehouse was added, so warehouses without stock are recovered as well.
+ * A record which was being written when the process died fails the length or the CRC check, and it is dropped along
+ * with everything after it when the journal is replayed.
+ * */
+class AllocationJournal {
+
+    private static final Logger logger = Logger.getLogger(AllocationJournal.class.getName());
+    private static final int RECORD_HEADER_SIZE = 8;
+    private FileChannel channel = null;
+    private boolean syncOnCommit = true;
+    private long size = 0;
+
+    /**
+     * @param path
+     * @param syncOnCommit (true to force every record to the disk before returning)
+     * @return journal appending to the end of the file
+     * @throws IOException
+     */
+    static AllocationJournal open(Path path, boolean syncOnCommit) throws IOException {
+        AllocationJournal allocationJournal = new AllocationJournal();
+        allocationJournal.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        allocationJournal.syncOnCommit = syncOnCommit;
+        allocationJournal.size = allocationJournal.channel.size();
+        return allocationJournal;
+    }
+
+    /**
+     * Appends the changes of one transaction
+     *
+     * @param changes quantity after the transaction by warehouse name and item name (no items for an added warehouse)
+     * @throws IOException
+     */
+    void append(Map<String, Map<String, Integer>> changes) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream dataOutput = new DataOutputStream(payload);
+        dataOutput.writeInt(changes.size());
+        for (Map.Entry<String, Map<String, Integer>> warehouseChanges : changes.entrySet()) {
+            dataOutput.writeUTF(warehouseChanges.getKey());
+            dataOutput.writeInt(warehouseChanges.getValue().size());
+            for (Map.Entry<String, Integer> itemChange : warehouseChanges.getValue().entrySet()) {
+                dataOutput.writeUTF(itemChange.getKey());
+                dataOutput.writeInt(itemChange.getValue());
+            }
+        }
+        dataOutput.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.toByteArray());
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.size());
+        record.putInt(payload.size());
+        record.putInt((int) crc.getValue());
+        record.put(payload.toByteArray());
+        record.flip();
+        while (record.hasRemaining()) {
+            size += channel.write(record, size);
+        }
+        if (syncOnCommit) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Applies every complete record to the table in the order they were written, and cuts off the incomplete tail
+     *
+     * @param stockTable
+     * @return number of transactions replayed
+     * @throws IOException
+     */
+    int replay(StockTable stockTable) throws IOException {
+        /* reading the whole journal at once, it never grows much beyond the checkpoint size */
+        ByteBuffer journal = ByteBuffer.allocate((int) channel.size());
+        while (journal.hasRemaining()) {
+            if (channel.read(journal, journal.position()) < 0) {
+                break;
+            }
+        }
+        journal.flip();
+
+        int transactions = 0;
+        int validEnd = 0;
+        while (journal.remaining() >= RECORD_HEADER_SIZE) {
+            int length = journal.getInt();
+            int expectedCrc = journal.getInt();
+            if (length < 0 || length > journal.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            journal.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(payload));
+            int warehouseCount = dataInput.readInt();
+            for (int w = 0; w < warehouseCount; w++) {
+                String warehouseName = dataInput.readUTF();
+                stockTable.addWarehouse(warehouseName);
+                int itemCount = dataInput.readInt();
+                for (int i = 0; i < itemCount; i++) {
+                    stockTable.put(warehouseName, dataInput.readUTF(), dataInput.readInt());
+                }
+            }
+            transactions++;
+            validEnd = journal.position();
+        }
+
+        if (validEnd < channel.size()) {
+            logger.warning("Dropping " + (channel.size() - validEnd) + " bytes of incomplete journal records");
+            channel.truncate(validEnd);
+            channel.force(false);
+        }
+        size = validEnd;
+        return transactions;
+    }
+
+    /**
+     * Empties the journal, once the table holds all it's changes
+     *
+     * @throws IOException
+     */
+    void reset() throws IOException {
+        channel.truncate(0);
+        channel.force(false);
+        size = 0;
+    }
+
+    /**
+     * @return size of the journal in bytes
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * @throws IOException
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+}
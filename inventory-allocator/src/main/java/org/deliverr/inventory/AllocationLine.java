@@ -0,0 +1,63 @@
+package org.deliverr.inventory;
+
+import java.util.logging.Logger;
+
+/**
+ * AllocationLine class which stores the quantity of an item to be taken from a warehouse. The item is stored by it's
+ * id (see SkuDictionary), so committing a line takes the stock without looking the name up again.
+ * */
+public class AllocationLine {
+    private static final Logger logger = Logger.getLogger(AllocationLine.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private Warehouse warehouse = null;
+    private int itemId = 0;
+    private int quantity = 0;
+
+    /**
+     * @param warehouse
+     * @param itemName
+     * @param quantity
+     */
+    public AllocationLine(Warehouse warehouse, String itemName, int quantity) {
+        this(warehouse, skuDictionary.idOf(itemName), quantity);
+    }
+
+    /**
+     * @param warehouse
+     * @param itemId (see SkuDictionary)
+     * @param quantity
+     */
+    AllocationLine(Warehouse warehouse, int itemId, int quantity) {
+        this.warehouse = warehouse;
+        this.itemId = itemId;
+        this.quantity = quantity;
+    }
+
+    /**
+     * @return warehouse the item is taken from
+     */
+    public Warehouse getWarehouse() {
+        return warehouse;
+    }
+
+    /**
+     * @return name of the item
+     */
+    public String getItemName() {
+        return skuDictionary.nameOf(itemId);
+    }
+
+    /**
+     * @return id of the item (see SkuDictionary)
+     */
+    int getItemId() {
+        return itemId;
+    }
+
+    /**
+     * @return quantity of the item
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+}
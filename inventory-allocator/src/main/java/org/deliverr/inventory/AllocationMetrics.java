@@ -0,0 +1,35 @@
+package org.deliverr.inventory;
+
+/**
+ * AllocationMetrics interface which the InventoryAllocator reports every allocation to.
+ *
+ * It is called on the hot path, so implementations must be cheap and thread safe. NOOP, the default, does nothing
+ * and allocates nothing, not even reading the clock.
+ * */
+public interface AllocationMetrics {
+
+    /* metrics which are disabled */
+    AllocationMetrics NOOP = new AllocationMetrics() {
+        @Override
+        public long startTime() {
+            return 0;
+        }
+
+        @Override
+        public void recordAllocation(long startTime, int warehousesScanned, int shipments, boolean filled) {
+        }
+    };
+
+    /**
+     * @return start time of an allocation, to be passed to recordAllocation
+     */
+    long startTime();
+
+    /**
+     * @param startTime (returned by startTime)
+     * @param warehousesScanned number of warehouses visited for the order
+     * @param shipments number of shipments of the order, 0 when it was rejected
+     * @param filled true when the order was completely shipped, false when it was rejected
+     */
+    void recordAllocation(long startTime, int warehousesScanned, int shipments, boolean filled);
+}
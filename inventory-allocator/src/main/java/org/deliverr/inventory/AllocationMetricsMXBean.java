@@ -0,0 +1,37 @@
+package org.deliverr.inventory;
+
+/**
+ * AllocationMetricsMXBean interface exposing the allocation metrics through JMX (see RecordingAllocationMetrics)
+ * */
+public interface AllocationMetricsMXBean {
+
+    long getAllocationCount();
+
+    long getFillCount();
+
+    long getRejectionCount();
+
+    long getWarehousesScannedCount();
+
+    long getShipmentCount();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    long getLatencyMaxNanos();
+
+    double getLatencyMeanNanos();
+
+    double getWarehousesScannedPerOrderMean();
+
+    long getWarehousesScannedPerOrderP99();
+
+    double getShipmentsPerOrderMean();
+
+    long getShipmentsPerOrderP99();
+
+    void reset();
+}
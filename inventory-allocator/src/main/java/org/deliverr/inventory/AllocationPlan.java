@@ -0,0 +1,109 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * AllocationPlan class which stores the shipments planned for an order without touching the warehouses.
+ *
+ * A plan is computed first (see InventoryAllocator.planShipment) and then either committed, which takes the planned
+ * stock out of the warehouses all or nothing, or simply dropped, which costs nothing as no stock was reserved.
+ * */
+public class AllocationPlan {
+
+    private static final Logger logger = Logger.getLogger(AllocationPlan.class.getName());
+    private List<AllocationLine> lines = null; // lines grouped by warehouse, cheapest warehouse first
+    private boolean fulfillable = false;
+    private boolean committed = false;
+
+    /**
+     * Constructor which sets the planned lines
+     *
+     * @param lines (grouped by warehouse, cheapest warehouse first)
+     * @param fulfillable (true when the lines ship the complete order)
+     * */
+    public AllocationPlan(List<AllocationLine> lines, boolean fulfillable) {
+        this.lines = Collections.unmodifiableList(new ArrayList<AllocationLine>(lines));
+        this.fulfillable = fulfillable;
+    }
+
+    /**
+     * @return true/false based on whether the planned lines ship the complete order
+     */
+    public boolean isFulfillable() {
+        return fulfillable;
+    }
+
+    /**
+     * @return true/false based on whether the plan was committed
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * @return planned lines, cheapest warehouse first
+     */
+    public List<AllocationLine> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return shipments of the plan, one for each warehouse in the cheapest first order, or empty list when the
+     * order can not be completely shipped
+     */
+    public List<Shipment> getShipments() {
+        List<Shipment> shipments = new ArrayList<Shipment>();
+        if (!fulfillable) {
+            return shipments;
+        }
+        Shipment shipment = null;
+        Warehouse shipmentWarehouse = null;
+        for (AllocationLine line : lines) {
+            if (line.getWarehouse() != shipmentWarehouse) {
+                shipmentWarehouse = line.getWarehouse();
+                shipment = new Shipment(shipmentWarehouse.getWarehouseName());
+                shipments.add(shipment);
+            }
+            shipment.addOrders(line.getItemId(), line.getQuantity());
+        }
+        return shipments;
+    }
+
+    /**
+     * Takes the planned stock out of the warehouses. Either every line is applied, or, when a warehouse no longer
+     * holds the planned stock because it changed after planning, the lines already applied are rolled back and
+     * nothing is taken. Concurrent callers should commit while holding the item locks of the order
+     * (see ConcurrentInventoryAllocator) so that a plan does not go stale.
+     *
+     * @return true/false based on whether the plan was applied
+     */
+    public synchronized boolean commit() {
+        if (!fulfillable || committed) {
+            throw new IllegalStateException("Only a fulfillable plan can be committed, and only once");
+        }
+        for (int applied = 0; applied < lines.size(); applied++) {
+            AllocationLine line = lines.get(applied);
+            if (!line.getWarehouse().takeStock(line.getItemId(), line.getQuantity())) {
+                rollback(applied);
+                return false;
+            }
+        }
+        committed = true;
+        return true;
+    }
+
+    /**
+     * Puts back the stock of the lines already applied
+     *
+     * @param applied (number of lines applied)
+     */
+    private void rollback(int applied) {
+        for (int i = applied - 1; i >= 0; i--) {
+            AllocationLine line = lines.get(i);
+            line.getWarehouse().returnStock(line.getItemId(), line.getQuantity());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.deliverr.inventory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * AllocationPlanCache class which reuses the plans of orders with the same contents, e.g. subscription boxes and
+ * bundles, instead of planning every one of them again.
+ *
+ * Plans are cached by the normalized contents of the order (item ids and quantities, whatever the order they were
+ * added in) and the warehouses of the list they were planned against, in the order of the list, and only when they
+ * ship the complete order. So any list of the same warehouses in the same order reuses the plan, and a list which was
+ * reordered or changed since does not. A cached
+ * plan is reused while every warehouse it takes stock from still holds the planned quantity, and dropped as soon as
+ * one does not. Stock added to a cheaper warehouse after a plan was cached does not invalidate it. The cache holds at
+ * most maximumSize plans and evicts the least recently used one.
+ *
+ * Usage:
+ *     AllocationPlanCache allocationPlanCache = new AllocationPlanCache(new GreedyAllocationStrategy(), 10000);
+ *     inventoryAllocator.allocateShipment(order, warehouses, allocationPlanCache);
+ * */
+public class AllocationPlanCache implements AllocationStrategy {
+
+    private static final Logger logger = Logger.getLogger(AllocationPlanCache.class.getName());
+    private AllocationStrategy allocationStrategy = null;
+    private LinkedHashMap<PlanKey, List<AllocationLine>> plans = null; // lines of the cached plans
+    private LongAdder hits = new LongAdder();
+    private LongAdder misses = new LongAdder();
+
+    /**
+     * @param allocationStrategy strategy planning the orders which are not cached
+     * @param maximumSize maximum number of cached plans
+     * */
+    public AllocationPlanCache(AllocationStrategy allocationStrategy, final int maximumSize) {
+        if (allocationStrategy == null || maximumSize <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.allocationStrategy = allocationStrategy;
+        this.plans = new LinkedHashMap<PlanKey, List<AllocationLine>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PlanKey, List<AllocationLine>> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Override
+    public AllocationPlan plan(Order order, List<Warehouse> warehouses) {
+        PlanKey planKey = new PlanKey(order.getOrderItems(), warehouses);
+        List<AllocationLine> cachedLines;
+        synchronized (this) {
+            cachedLines = plans.get(planKey);
+        }
+        if (cachedLines != null && isAvailable(cachedLines)) {
+            hits.increment();
+            return new AllocationPlan(cachedLines, true);
+        }
+
+        misses.increment();
+        AllocationPlan allocationPlan = allocationStrategy.plan(order, warehouses);
+        synchronized (this) {
+            if (allocationPlan.isFulfillable()) {
+                plans.put(planKey, allocationPlan.getLines());
+            } else if (cachedLines != null) {
+                plans.remove(planKey);
+            }
+        }
+        return allocationPlan;
+    }
+
+    /**
+     * @param lines
+     * @return true when every warehouse still holds the quantity of it's lines
+     */
+    private boolean isAvailable(List<AllocationLine> lines) {
+        for (AllocationLine line : lines) {
+            if (line.getWarehouse().getItemQuantity(line.getItemId()) < line.getQuantity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of cached plans
+     */
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    /**
+     * Drops all the cached plans
+     */
+    public synchronized void clear() {
+        plans.clear();
+    }
+
+    /**
+     * @return number of orders planned from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of orders planned by the allocation strategy
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return share of the orders planned from the cache, or 0 when no order was planned
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long requestCount = hitCount + misses.sum();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Normalized contents of an order, the item ids and quantities sorted by item id, and the warehouses the order is
+     * planned against, in the order of their list
+     * */
+    private static class PlanKey {
+        private long[] items = null; // item id in the high and quantity in the low 32 bits
+        private Warehouse[] warehouses = null;
+        private int hash = 0;
+
+        PlanKey(IntIntMap orderQuantities, List<Warehouse> warehouses) {
+            long[] items = new long[orderQuantities.size()];
+            int count = 0;
+            for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+                if (orderQuantities.isUsed(slot) && orderQuantities.valueAt(slot) > 0) {
+                    items[count++] = ((long) orderQuantities.keyAt(slot) << 32) | orderQuantities.valueAt(slot);
+                }
+            }
+            this.items = Arrays.copyOf(items, count);
+            Arrays.sort(this.items);
+            this.warehouses = warehouses.toArray(new Warehouse[warehouses.size()]);
+            /* a warehouse has the identity equals and hashCode of Object, two warehouses of the same name are different */
+            this.hash = 31 * Arrays.hashCode(this.items) + Arrays.hashCode(this.warehouses);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PlanKey && hash == ((PlanKey) o).hash && Arrays.equals(items, ((PlanKey) o).items)
+                    && Arrays.equals(warehouses, ((PlanKey) o).warehouses);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
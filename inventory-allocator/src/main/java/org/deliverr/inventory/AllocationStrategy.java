@@ -0,0 +1,18 @@
+package org.deliverr.inventory;
+
+import java.util.List;
+
+/**
+ * AllocationStrategy interface which decides how an order is split across the warehouses.
+ *
+ * A strategy only plans (see AllocationPlan), it must neither change the order nor the warehouses.
+ * */
+public interface AllocationStrategy {
+
+    /**
+     * @param order
+     * @param warehouses (cheapest first)
+     * @return allocation plan, not fulfillable when the order can not be completely shipped
+     */
+    AllocationPlan plan(Order order, List<Warehouse> warehouses);
+}
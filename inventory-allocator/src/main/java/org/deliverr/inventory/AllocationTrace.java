@@ -0,0 +1,203 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * AllocationTrace class which records how one order was allocated (see AllocationTracer): the items ordered, the
+ * warehouses visited, the quantities taken from each of them and, for a rejected order, the reason.
+ *
+ * A trace is built by the allocating thread and never changes once it is recorded.
+ * */
+public class AllocationTrace {
+
+    private static final Logger logger = Logger.getLogger(AllocationTrace.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private long sequence = -1;
+    private long timestampMillis = 0;
+    private long startNanos = 0;
+    private long durationNanos = 0;
+    private Map<String, Integer> orderedItems = null; // item name and it's ordered quantity
+    private List<Visit> visits = new ArrayList<Visit>(); // visits which took stock, in the order of the visits
+    private int warehousesVisited = 0;
+    private boolean filled = false;
+    private String rejectionReason = null;
+
+    /**
+     * Starts the trace, copying the items of the order before it is allocated
+     *
+     * @param order
+     */
+    AllocationTrace(Order order) {
+        this.timestampMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.orderedItems = Collections.unmodifiableMap(toItems(order.getOrderItems()));
+    }
+
+    /**
+     * @param warehouseName
+     * @param takenItems (item name and quantity taken from the warehouse, nothing recorded when empty)
+     */
+    void addVisit(String warehouseName, Map<String, Integer> takenItems) {
+        warehousesVisited++;
+        if (!takenItems.isEmpty()) {
+            visits.add(new Visit(warehouseName, takenItems));
+        }
+    }
+
+    /**
+     * @param warehouseName
+     * @param shipment (null when nothing was taken from the warehouse)
+     */
+    void addVisit(String warehouseName, Shipment shipment) {
+        addVisit(warehouseName, shipment == null ? Collections.<String, Integer>emptyMap() : toItems(shipment.getOrderItems()));
+    }
+
+    /**
+     * @param warehousesVisited (number of warehouses visited, including the ones which shipped nothing)
+     */
+    void setWarehousesVisited(int warehousesVisited) {
+        this.warehousesVisited = warehousesVisited;
+    }
+
+    /**
+     * Ends the trace
+     *
+     * @param filled
+     * @param rejectionReason (null when filled)
+     */
+    void finish(boolean filled, String rejectionReason) {
+        this.durationNanos = System.nanoTime() - startNanos;
+        this.filled = filled;
+        this.rejectionReason = rejectionReason;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * @param remainingItems (quantities not shipped by item id)
+     * @return reason of a rejection naming the items short
+     */
+    static String describeShortage(IntIntMap remainingItems) {
+        if (remainingItems.size() == 0) {
+            return "no warehouse to ship from";
+        }
+        return "short of " + toItems(remainingItems);
+    }
+
+    private static Map<String, Integer> toItems(IntIntMap quantities) {
+        Map<String, Integer> items = new LinkedHashMap<String, Integer>();
+        for (int slot = 0; slot < quantities.capacity(); slot++) {
+            if (quantities.isUsed(slot)) {
+                items.put(skuDictionary.nameOf(quantities.keyAt(slot)), quantities.valueAt(slot));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * @return sequence number of the trace in it's tracer
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return time in milliseconds at which the allocation started
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return duration of the allocation in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return item name and it's ordered quantity
+     */
+    public Map<String, Integer> getOrderedItems() {
+        return orderedItems;
+    }
+
+    /**
+     * @return visits which took stock, in the order of the visits
+     */
+    public List<Visit> getVisits() {
+        return Collections.unmodifiableList(visits);
+    }
+
+    /**
+     * @return number of warehouses visited, including the ones which shipped nothing
+     */
+    public int getWarehousesVisited() {
+        return warehousesVisited;
+    }
+
+    /**
+     * @return true/false based on whether the order was completely shipped
+     */
+    public boolean isFilled() {
+        return filled;
+    }
+
+    /**
+     * @return reason of the rejection, null when the order was filled
+     */
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append('#').append(sequence).append(filled ? " FILLED" : " REJECTED (" + rejectionReason + ")")
+                .append(" in ").append(durationNanos / 1000).append(" us, ordered ").append(orderedItems)
+                .append(", visited ").append(warehousesVisited).append(" warehouses");
+        for (Visit visit : visits) {
+            builder.append(", ").append(visit);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Visit class which stores the quantities taken from a warehouse
+     * */
+    public static class Visit {
+        private String warehouseName = null;
+        private Map<String, Integer> takenItems = null;
+
+        Visit(String warehouseName, Map<String, Integer> takenItems) {
+            this.warehouseName = warehouseName;
+            this.takenItems = Collections.unmodifiableMap(takenItems);
+        }
+
+        /**
+         * @return name of the warehouse
+         */
+        public String getWarehouseName() {
+            return warehouseName;
+        }
+
+        /**
+         * @return item name and quantity taken from the warehouse
+         */
+        public Map<String, Integer> getTakenItems() {
+            return takenItems;
+        }
+
+        @Override
+        public String toString() {
+            return warehouseName + " took " + takenItems;
+        }
+    }
+}
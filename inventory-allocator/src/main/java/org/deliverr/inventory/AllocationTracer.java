@@ -0,0 +1,140 @@
+package org.deliverr.inventory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * AllocationTracer class which keeps the traces (see AllocationTrace) of a sample of the allocations, to explain why
+ * an order was rejected or split.
+ *
+ * Traces go into a fixed size ring buffer: recording is a single atomic increment and a single atomic store, without
+ * locks, and the newest traces overwrite the oldest. Only one allocation in sampleEvery is traced, the others only pay
+ * for a read of the sampling rate and a thread local random number, so tracing can stay on in production and be
+ * dumped on demand. DISABLED, the default of InventoryAllocator, traces nothing.
+ * */
+public class AllocationTracer {
+
+    private static final Logger logger = Logger.getLogger(AllocationTracer.class.getName());
+
+    /* tracer which traces nothing */
+    public static final AllocationTracer DISABLED = new AllocationTracer(1, 0);
+
+    private AtomicReferenceArray<AllocationTrace> traces = null; // ring buffer, trace of sequence s at s & mask
+    private int mask = 0;
+    private AtomicLong sequence = new AtomicLong();
+    private volatile int sampleEvery = 0;
+
+    /**
+     * @param capacity (number of traces kept, rounded up to a power of two)
+     * @param sampleEvery (one allocation in sampleEvery is traced, 1 to trace all of them and 0 to trace none)
+     * */
+    public AllocationTracer(int capacity, int sampleEvery) {
+        if (capacity < 1 || capacity > (1 << 30) || sampleEvery < 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size < capacity ? size << 1 : size;
+        this.traces = new AtomicReferenceArray<AllocationTrace>(size);
+        this.mask = size - 1;
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * @return one allocation in sampleEvery is traced, 0 when none is
+     */
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    /**
+     * @param sampleEvery (one allocation in sampleEvery is traced, 1 to trace all of them and 0 to trace none)
+     */
+    public void setSampleEvery(int sampleEvery) {
+        if (sampleEvery < 0 || this == DISABLED) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * @return number of traces kept
+     */
+    public int getCapacity() {
+        return traces.length();
+    }
+
+    /**
+     * @return number of traces recorded so far, including the ones overwritten
+     */
+    public long getRecordedCount() {
+        return sequence.get();
+    }
+
+    /**
+     * @return true/false based on whether the next allocation should be traced
+     */
+    boolean isSampled() {
+        int every = sampleEvery;
+        return every != 0 && (every == 1 || ThreadLocalRandom.current().nextInt(every) == 0);
+    }
+
+    /**
+     * @param trace (finished, never changed afterwards)
+     */
+    void record(AllocationTrace trace) {
+        if (sampleEvery == 0) {
+            return;
+        }
+        long next = sequence.getAndIncrement();
+        trace.setSequence(next);
+        traces.set((int) next & mask, trace);
+    }
+
+    /**
+     * @return traces kept, oldest first
+     */
+    public List<AllocationTrace> getTraces() {
+        List<AllocationTrace> kept = new ArrayList<AllocationTrace>();
+        for (int i = 0; i < traces.length(); i++) {
+            AllocationTrace trace = traces.get(i);
+            if (trace != null) {
+                kept.add(trace);
+            }
+        }
+        Collections.sort(kept, new Comparator<AllocationTrace>() {
+            @Override
+            public int compare(AllocationTrace first, AllocationTrace second) {
+                return Long.compare(first.getSequence(), second.getSequence());
+            }
+        });
+        return kept;
+    }
+
+    /**
+     * Writes the traces kept, oldest first, one line each
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void dump(Appendable out) throws IOException {
+        for (AllocationTrace trace : getTraces()) {
+            out.append(trace.toString()).append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Drops the traces kept
+     */
+    public void clear() {
+        for (int i = 0; i < traces.length(); i++) {
+            traces.set(i, null);
+        }
+    }
+}
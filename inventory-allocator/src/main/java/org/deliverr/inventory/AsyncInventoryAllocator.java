@@ -0,0 +1,201 @@
+package org.deliverr.inventory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * AsyncInventoryAllocator class for allocating shipments from many threads without locking the warehouses.
+ *
+ * Callers put their orders into a bounded queue and get a CompletableFuture back. A single writer thread, the only
+ * one changing the warehouses, takes all the orders queued at a time (up to maxBatchSize) and allocates them as one
+ * micro-batch (see BatchInventoryAllocator), so the stock is read and written once per batch instead of once per
+ * order. When the queue is full the order is rejected right away instead of blocking the caller.
+ *
+ * Every order pays a handoff to the writer thread and back, so this is not faster than the striped locks of
+ * ConcurrentInventoryAllocator by itself: on a single core it is several times slower. Whether batching wins back the
+ * handoff depends on the number of cores and the contention on the items, measure it with
+ * ConcurrentAllocatorBenchmark (benchmarks module) on the target hardware before picking it.
+ *
+ * Usage:
+ *     AsyncInventoryAllocator asyncInventoryAllocator = new AsyncInventoryAllocator(warehouses);
+ *     asyncInventoryAllocator.allocateShipment(order).thenAccept(shipments -> ...);
+ *
+ * The warehouses must not be changed by any other thread while the allocator is running.
+ * */
+public class AsyncInventoryAllocator implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(AsyncInventoryAllocator.class.getName());
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    private BatchInventoryAllocator batchInventoryAllocator = null;
+    private BatchOrderingPolicy orderingPolicy = null;
+    private BlockingQueue<PendingOrder> queue = null;
+    private int maxBatchSize = 0;
+    private Thread writer = null;
+    private volatile boolean running = true;
+    private LongAdder batches = new LongAdder();
+    private LongAdder rejections = new LongAdder();
+
+    /**
+     * Constructor which uses the default queue capacity and batch size and allocates first in first out
+     *
+     * @param warehouses (cheapest first)
+     * */
+    public AsyncInventoryAllocator(List<Warehouse> warehouses) {
+        this(warehouses, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH_SIZE, BatchOrderingPolicy.FIFO);
+    }
+
+    /**
+     * @param warehouses (cheapest first)
+     * @param queueCapacity number of orders waiting, beyond which orders are rejected
+     * @param maxBatchSize maximum number of orders allocated in one batch
+     * @param orderingPolicy ordering of the orders within a batch
+     * */
+    public AsyncInventoryAllocator(List<Warehouse> warehouses, int queueCapacity, int maxBatchSize, BatchOrderingPolicy orderingPolicy) {
+        if (queueCapacity <= 0 || maxBatchSize <= 0 || orderingPolicy == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.batchInventoryAllocator = new BatchInventoryAllocator(warehouses);
+        this.orderingPolicy = orderingPolicy;
+        this.queue = new ArrayBlockingQueue<PendingOrder>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drainQueue();
+            }
+        }, "inventory-allocator-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the order. The order must not be changed until the future is completed.
+     *
+     * @param order
+     * @return future of the list of shipments, empty when the order can not be completely shipped, completed
+     * exceptionally with RejectedExecutionException when the queue is full or the allocator is closed
+     */
+    public CompletableFuture<List<Shipment>> allocateShipment(Order order) {
+        CompletableFuture<List<Shipment>> shipments = new CompletableFuture<List<Shipment>>();
+        if (!running) {
+            shipments.completeExceptionally(new RejectedExecutionException("Allocator is closed"));
+            return shipments;
+        }
+        PendingOrder pendingOrder = new PendingOrder(order, shipments);
+        if (!queue.offer(pendingOrder)) {
+            rejections.increment();
+            shipments.completeExceptionally(new RejectedExecutionException("Allocation queue is full"));
+        } else if (!running && queue.remove(pendingOrder)) {
+            /* closed while the order was queued, after the writer took it's last batch */
+            shipments.completeExceptionally(new RejectedExecutionException("Allocator is closed"));
+        }
+        return shipments;
+    }
+
+    /**
+     * Writer loop, allocating the queued orders batch after batch until the allocator is closed and the queue is empty
+     * */
+    private void drainQueue() {
+        List<PendingOrder> batch = new ArrayList<PendingOrder>(maxBatchSize);
+        List<Order> orders = new ArrayList<Order>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingOrder first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatchSize - 1);
+            for (PendingOrder pendingOrder : batch) {
+                orders.add(pendingOrder.order);
+            }
+            allocateBatch(batch, orders);
+            batch.clear();
+            orders.clear();
+        }
+    }
+
+    private void allocateBatch(List<PendingOrder> batch, List<Order> orders) {
+        List<List<Shipment>> results;
+        try {
+            results = batchInventoryAllocator.allocateShipments(orders, orderingPolicy);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to allocate a batch of " + batch.size() + " orders", e);
+            for (PendingOrder pendingOrder : batch) {
+                pendingOrder.shipments.completeExceptionally(e);
+            }
+            return;
+        }
+        batches.increment();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).shipments.complete(results.get(i));
+        }
+    }
+
+    /**
+     * @return number of orders waiting to be allocated
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of batches allocated
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return number of orders rejected because the queue was full
+     */
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * Stops accepting orders, allocates the orders already queued and stops the writer thread
+     * */
+    @Override
+    public void close() {
+        running = false;
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Order waiting in the queue with the future of it's shipments
+     * */
+    private static class PendingOrder {
+        private Order order = null;
+        private CompletableFuture<List<Shipment>> shipments = null;
+
+        PendingOrder(Order order, CompletableFuture<List<Shipment>> shipments) {
+            this.order = order;
+            this.shipments = shipments;
+        }
+    }
+}
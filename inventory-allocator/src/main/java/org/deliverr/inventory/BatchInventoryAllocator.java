@@ -0,0 +1,204 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * BatchInventoryAllocator class for allocating a batch of orders against one set of warehouses in a single pass.
+ *
+ * The stock of an item is read from the warehouses once for the whole batch into an array indexed by the rank of the
+ * warehouse, items being keyed by their id (see SkuDictionary), every order is allocated cheapest first against these
+ * arrays, and the net stock taken is written back to the warehouses at the end of the batch. Each order is allocated all or nothing, like AllocationPlan.
+ * The warehouses must not be changed by anybody else while a batch is running; when they are, the write back fails
+ * with IllegalStateException and takes nothing out of the warehouses.
+ * */
+public class BatchInventoryAllocator {
+
+    private static final Logger logger = Logger.getLogger(BatchInventoryAllocator.class.getName());
+    private List<Warehouse> warehouses = null;
+
+    /**
+     * @param warehouses (cheapest first, a warehouse listed more than once keeps it's first rank)
+     * */
+    public BatchInventoryAllocator(List<Warehouse> warehouses) {
+        Set<Warehouse> seen = Collections.newSetFromMap(new IdentityHashMap<Warehouse, Boolean>());
+        this.warehouses = new ArrayList<Warehouse>();
+        for (Warehouse warehouse : warehouses) {
+            if (seen.add(warehouse)) {
+                this.warehouses.add(warehouse);
+            }
+        }
+    }
+
+    /**
+     * @param orders
+     * @param orderingPolicy
+     * @return list of shipments for every order in the order they were passed in, empty list for the orders which
+     * can not be completely shipped
+     */
+    public List<List<Shipment>> allocateShipments(Collection<Order> orders, BatchOrderingPolicy orderingPolicy) {
+        final List<Order> batch = new ArrayList<Order>(orders);
+        Integer[] allocationOrder = new Integer[batch.size()];
+        for (int i = 0; i < allocationOrder.length; i++) {
+            allocationOrder[i] = i;
+        }
+        if (orderingPolicy == BatchOrderingPolicy.PRIORITY) {
+            /* stable sort, so orders with the same priority stay first in first out */
+            Arrays.sort(allocationOrder, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer first, Integer second) {
+                    return Integer.compare(batch.get(second).getPriority(), batch.get(first).getPriority());
+                }
+            });
+        }
+
+        BatchStock batchStock = new BatchStock(warehouses);
+        Shipment[] shipmentByRank = new Shipment[warehouses.size()]; // shipments of the current order by warehouse rank
+        int[] shippingRanks = new int[warehouses.size()]; // ranks of the shipments of the current order
+        List<List<Shipment>> results = new ArrayList<List<Shipment>>(Collections.<List<Shipment>>nCopies(batch.size(), null));
+
+        for (Integer position : allocationOrder) {
+            IntIntMap orderItems = batch.get(position).getOrderItems();
+            List<Shipment> shipments = new ArrayList<Shipment>();
+            if (batchStock.isAvailable(orderItems)) {
+                int shippingCount = 0;
+                for (int slot = 0; slot < orderItems.capacity(); slot++) {
+                    if (!orderItems.isUsed(slot)) {
+                        continue;
+                    }
+                    int orderItemId = orderItems.keyAt(slot);
+                    int remaining = orderItems.valueAt(slot);
+                    int[] available = batchStock.availableOf(orderItemId);
+                    for (int rank = 0; rank < available.length && remaining > 0; rank++) {
+                        int quantity = Math.min(remaining, available[rank]);
+                        if (quantity <= 0) {
+                            continue;
+                        }
+                        if (shipmentByRank[rank] == null) {
+                            shipmentByRank[rank] = new Shipment(warehouses.get(rank).getWarehouseName());
+                            shippingRanks[shippingCount++] = rank;
+                        }
+                        shipmentByRank[rank].addOrders(orderItemId, quantity);
+                        available[rank] -= quantity;
+                        remaining -= quantity;
+                    }
+                }
+
+                /* shipments are listed cheapest warehouse first, like InventoryAllocator.allocateShipment */
+                Arrays.sort(shippingRanks, 0, shippingCount);
+                for (int i = 0; i < shippingCount; i++) {
+                    shipments.add(shipmentByRank[shippingRanks[i]]);
+                    shipmentByRank[shippingRanks[i]] = null;
+                }
+            }
+            results.set(position, shipments);
+        }
+
+        batchStock.takeAllocatedStock();
+        return results;
+    }
+
+    /**
+     * BatchStock class which stores the stock of the items of the batch by warehouse rank, indexed by item id (see
+     * SkuDictionary). The stock of an item is read from the warehouses the first time an order of the batch needs it.
+     * */
+    private static class BatchStock {
+        private List<Warehouse> warehouses = null;
+        private IntIntMap itemIndexes = new IntIntMap(); // item id and it's index in the arrays below
+        private int[] itemIds = new int[16];
+        private int[][] initialByItem = new int[16][]; // stock by warehouse rank before the batch
+        private int[][] availableByItem = new int[16][]; // stock by warehouse rank left in the batch
+        private int itemCount = 0;
+
+        BatchStock(List<Warehouse> warehouses) {
+            this.warehouses = warehouses;
+        }
+
+        /**
+         * @param itemId
+         * @return stock of the item left in the batch by warehouse rank, updated in place by the caller
+         */
+        int[] availableOf(int itemId) {
+            int index = itemIndexes.get(itemId, -1);
+            if (index >= 0) {
+                return availableByItem[index];
+            }
+            if (itemCount == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, itemCount * 2);
+                initialByItem = Arrays.copyOf(initialByItem, itemCount * 2);
+                availableByItem = Arrays.copyOf(availableByItem, itemCount * 2);
+            }
+            int[] available = new int[warehouses.size()];
+            for (int rank = 0; rank < available.length; rank++) {
+                available[rank] = warehouses.get(rank).getItemQuantity(itemId);
+            }
+            itemIds[itemCount] = itemId;
+            initialByItem[itemCount] = available.clone();
+            availableByItem[itemCount] = available;
+            itemIndexes.put(itemId, itemCount++);
+            return available;
+        }
+
+        /**
+         * Checks whether the batch stock left is enough for the complete order
+         *
+         * @param orderItems (quantities of the order by item id)
+         * @return true/false based on availability
+         */
+        boolean isAvailable(IntIntMap orderItems) {
+            for (int slot = 0; slot < orderItems.capacity(); slot++) {
+                if (!orderItems.isUsed(slot)) {
+                    continue;
+                }
+                int[] available = availableOf(orderItems.keyAt(slot));
+                long remaining = orderItems.valueAt(slot);
+                for (int rank = 0; rank < available.length && remaining > 0; rank++) {
+                    remaining -= available[rank];
+                }
+                if (remaining > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Takes the stock allocated by the batch out of the warehouses, all or nothing: when a warehouse no longer
+         * holds the stock read for the batch, the stock already taken is put back before throwing (see
+         * AllocationPlan.rollback)
+         */
+        void takeAllocatedStock() {
+            for (int index = 0; index < itemCount; index++) {
+                for (int rank = 0; rank < warehouses.size(); rank++) {
+                    int taken = initialByItem[index][rank] - availableByItem[index][rank];
+                    if (taken > 0 && !warehouses.get(rank).takeStock(itemIds[index], taken)) {
+                        returnAllocatedStock(index, rank);
+                        throw new IllegalStateException("Stock of " + SkuDictionary.getSkuDictionaryInstance().nameOf(itemIds[index])
+                                + " changed during the batch");
+                    }
+                }
+            }
+        }
+
+        /**
+         * Puts back the stock taken before the given item index and warehouse rank
+         */
+        private void returnAllocatedStock(int failedIndex, int failedRank) {
+            for (int index = failedIndex; index >= 0; index--) {
+                for (int rank = index == failedIndex ? failedRank - 1 : warehouses.size() - 1; rank >= 0; rank--) {
+                    int taken = initialByItem[index][rank] - availableByItem[index][rank];
+                    if (taken > 0) {
+                        warehouses.get(rank).returnStock(itemIds[index], taken);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.deliverr.inventory;
+
+/**
+ * BatchOrderingPolicy enum which decides the order in which the orders of a batch get the stock
+ * */
+public enum BatchOrderingPolicy {
+    /* orders are allocated in the order they were passed in */
+    FIFO,
+    /* orders with a higher priority are allocated first, orders with the same priority in the order they were passed in */
+    PRIORITY
+}
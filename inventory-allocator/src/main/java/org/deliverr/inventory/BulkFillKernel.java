@@ -0,0 +1,39 @@
+package org.deliverr.inventory;
+
+/**
+ * BulkFillKernel class which fills many items of an order from one warehouse at a time, over dense int arrays of the
+ * ordered and available quantities (one position per item).
+ *
+ * The loops are branch free and only use int min and subtract over arrays, the shape the HotSpot compiler turns
+ * into SIMD instructions (superword vectorization), so a wide order or a wave is filled several items per
+ * instruction on any JDK, without the incubating Vector API. Quantities must be non negative.
+ * */
+public final class BulkFillKernel {
+
+    private BulkFillKernel() {
+    }
+
+    /**
+     * For every position: shipped = min(ordered, available), then both ordered and available are reduced by shipped
+     *
+     * @param ordered (quantities still to ship, reduced in place)
+     * @param available (quantities available, reduced in place)
+     * @param shipped (quantities shipped, overwritten)
+     * @param length (number of positions filled)
+     */
+    public static void fill(int[] ordered, int[] available, int[] shipped, int length) {
+        if (length < 0 || length > ordered.length || length > available.length || length > shipped.length) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        /* one store per loop, so that the compiler does not have to prove the arrays distinct to vectorize */
+        for (int i = 0; i < length; i++) {
+            shipped[i] = Math.min(ordered[i], available[i]);
+        }
+        for (int i = 0; i < length; i++) {
+            ordered[i] -= shipped[i];
+        }
+        for (int i = 0; i < length; i++) {
+            available[i] -= shipped[i];
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.deliverr.inventory;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * ByteNameTable class which maps names given as raw bytes (a slice of a read buffer) to int values, so that a
+ * loader can resolve the names it reads without creating a String for every row.
+ * */
+class ByteNameTable {
+
+    private static final Logger logger = Logger.getLogger(ByteNameTable.class.getName());
+    private byte[][] names = new byte[64][];
+    private int[] hashes = new int[64];
+    private int[] values = new int[64];
+    private int size = 0;
+
+    /**
+     * @param buffer
+     * @param offset
+     * @param length
+     * @return value of the name or -1 when the name is absent
+     */
+    int find(byte[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        int mask = names.length - 1;
+        for (int slot = hash & mask; names[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && equals(names[slot], buffer, offset, length)) {
+                return values[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param buffer
+     * @param offset
+     * @param length
+     * @param value (non negative)
+     */
+    void put(byte[] buffer, int offset, int length, int value) {
+        if ((size + 1) * 4 > names.length * 3) {
+            resize();
+        }
+        int hash = hash(buffer, offset, length);
+        int mask = names.length - 1;
+        int slot = hash & mask;
+        while (names[slot] != null) {
+            if (hashes[slot] == hash && equals(names[slot], buffer, offset, length)) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = Arrays.copyOfRange(buffer, offset, offset + length);
+        hashes[slot] = hash;
+        values[slot] = value;
+        size++;
+    }
+
+    private void resize() {
+        byte[][] oldNames = names;
+        int[] oldHashes = hashes;
+        int[] oldValues = values;
+        names = new byte[oldNames.length * 2][];
+        hashes = new int[names.length];
+        values = new int[names.length];
+        int mask = names.length - 1;
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (names[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                names[slot] = oldNames[i];
+                hashes[slot] = oldHashes[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * FNV-1a hash of the bytes, spread over the table
+     * */
+    private static int hash(byte[] buffer, int offset, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ buffer[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(byte[] name, byte[] buffer, int offset, int length) {
+        if (name.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name[i] != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
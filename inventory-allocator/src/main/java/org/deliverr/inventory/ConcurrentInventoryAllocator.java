@@ -0,0 +1,89 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * ConcurrentInventoryAllocator class for allocating shipments from many threads against the same warehouses.
+ *
+ * Every order locks the stripes of it's items (see StripedItemLocks), so orders for different items run in
+ * parallel while orders sharing an item are serialized. Under the locks the order is planned first and the plan is
+ * committed only when it ships the complete order (see AllocationPlan), so an order which can not be completely
+ * shipped never touches the stock and the stock is never oversold.
+ * */
+public class ConcurrentInventoryAllocator {
+
+    private static final Logger logger = Logger.getLogger(ConcurrentInventoryAllocator.class.getName());
+    private static final int DEFAULT_STRIPE_COUNT = 64;
+    private List<Warehouse> warehouses = null;
+    private StripedItemLocks itemLocks = null;
+
+    /**
+     * Constructor which uses the default number of stripes
+     *
+     * @param warehouses (cheapest first)
+     * */
+    public ConcurrentInventoryAllocator(List<Warehouse> warehouses) {
+        this(warehouses, new StripedItemLocks(DEFAULT_STRIPE_COUNT));
+    }
+
+    /**
+     * Constructor which shares the item locks, e.g. with the code restocking the same warehouses
+     *
+     * @param warehouses (cheapest first)
+     * @param itemLocks
+     * */
+    public ConcurrentInventoryAllocator(List<Warehouse> warehouses, StripedItemLocks itemLocks) {
+        this.warehouses = Collections.unmodifiableList(new ArrayList<Warehouse>(warehouses));
+        this.itemLocks = itemLocks;
+    }
+
+    /**
+     * @return warehouses in the cheapest first order
+     */
+    public List<Warehouse> getWarehouses() {
+        return warehouses;
+    }
+
+    /**
+     * @return item locks guarding the warehouses
+     */
+    public StripedItemLocks getItemLocks() {
+        return itemLocks;
+    }
+
+    /**
+     * Thread safe counterpart of InventoryAllocator.allocateShipment. The order itself is left unchanged.
+     *
+     * @param order (owned by the calling thread)
+     * @return list of shipments or empty list when the order can not be completely shipped
+     */
+    public List<Shipment> allocateShipment(Order order) {
+        AllocationPlan allocationPlan = allocatePlan(order);
+        return allocationPlan.isCommitted() ? allocationPlan.getShipments() : new ArrayList<Shipment>();
+    }
+
+    /**
+     * Plans the order and commits the plan under the item locks of the order
+     *
+     * @param order (owned by the calling thread)
+     * @return committed plan, or the plan which was not fulfillable
+     */
+    public AllocationPlan allocatePlan(Order order) {
+        Set<String> orderItemNames = new HashSet<String>(order.getOrderItemsName());
+        int[] lockedStripes = itemLocks.lock(orderItemNames);
+        try {
+            AllocationPlan allocationPlan = InventoryAllocator.getInventoryAllocatorInstance().planShipment(order, warehouses);
+            if (allocationPlan.isFulfillable()) {
+                allocationPlan.commit();
+            }
+            return allocationPlan;
+        } finally {
+            itemLocks.unlock(lockedStripes);
+        }
+    }
+}
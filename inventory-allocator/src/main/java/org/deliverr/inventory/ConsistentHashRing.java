@@ -0,0 +1,116 @@
+package org.deliverr.inventory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+/**
+ * ConsistentHashRing class which assigns keys (warehouse names) to nodes, so that adding or removing a node only moves
+ * the keys of that node.
+ *
+ * Every node is placed on the ring at virtualNodes points, which spreads the keys evenly, and a key is owned by the
+ * node of the first point at or after the hash of the key, wrapping around the ring.
+ * */
+public class ConsistentHashRing {
+
+    private static final Logger logger = Logger.getLogger(ConsistentHashRing.class.getName());
+    private static final int DEFAULT_VIRTUAL_NODES = 128;
+    private TreeMap<Integer, String> ring = new TreeMap<Integer, String>(); // point on the ring and it's node
+    private Set<String> nodes = new TreeSet<String>();
+    private int virtualNodes = DEFAULT_VIRTUAL_NODES;
+
+    /**
+     * Constructor which places the nodes with the default number of virtual nodes
+     *
+     * @param nodeIds
+     * */
+    public ConsistentHashRing(Collection<String> nodeIds) {
+        this(nodeIds, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param nodeIds
+     * @param virtualNodes (number of points of every node on the ring)
+     * */
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.virtualNodes = virtualNodes;
+        for (String nodeId : nodeIds) {
+            addNode(nodeId);
+        }
+    }
+
+    /**
+     * @param nodeId
+     */
+    public synchronized void addNode(String nodeId) {
+        if (nodes.add(nodeId)) {
+            placePoints(nodeId);
+        }
+    }
+
+    /**
+     * @param nodeId
+     */
+    public synchronized void removeNode(String nodeId) {
+        if (nodes.remove(nodeId)) {
+            /* points lost by the other nodes on a collision with this node go back to them */
+            ring.clear();
+            for (String other : nodes) {
+                placePoints(other);
+            }
+        }
+    }
+
+    private void placePoints(String nodeId) {
+        for (int v = 0; v < virtualNodes; v++) {
+            /* on a collision the smallest node id keeps the point, whatever the order the nodes were added in */
+            int point = hash(nodeId + "#" + v);
+            String owner = ring.get(point);
+            if (owner == null || owner.compareTo(nodeId) > 0) {
+                ring.put(point, nodeId);
+            }
+        }
+    }
+
+    /**
+     * @return ids of the nodes of the ring
+     */
+    public synchronized Set<String> getNodes() {
+        return new TreeSet<String>(nodes);
+    }
+
+    /**
+     * @param key
+     * @return id of the node owning the key
+     */
+    public synchronized String getOwner(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("The ring has no node");
+        }
+        Map.Entry<Integer, String> entry = ring.ceilingEntry(hash(key));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    /**
+     * FNV-1a hash of the UTF-8 bytes, with a final avalanche so that close keys land far apart on the ring
+     * */
+    private static int hash(String key) {
+        int hash = 0x811C9DC5;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ b) * 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
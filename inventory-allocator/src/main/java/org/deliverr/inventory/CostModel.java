@@ -0,0 +1,96 @@
+package org.deliverr.inventory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * CostModel class which stores the cost of shipping from the warehouses: a fixed cost for every shipment made from
+ * a warehouse, and a cost for every unit of an item shipped from a warehouse.
+ * */
+public class CostModel {
+
+    private static final Logger logger = Logger.getLogger(CostModel.class.getName());
+    private HashMap<String, Double> shipmentCosts = new HashMap<String, Double>(); // warehouse name and it's cost per shipment
+    private HashMap<String, Double> unitCosts = new HashMap<String, Double>(); // warehouse name and it's cost per unit of any item
+    private HashMap<String, HashMap<String, Double>> itemUnitCosts = new HashMap<String, HashMap<String, Double>>(); // warehouse name, item name and it's cost per unit
+    private double defaultShipmentCost = 0;
+    private double defaultUnitCost = 0;
+
+    /**
+     * @param defaultShipmentCost (cost per shipment of the warehouses without their own cost)
+     * @param defaultUnitCost (cost per unit of the warehouses and items without their own cost)
+     */
+    public CostModel(double defaultShipmentCost, double defaultUnitCost) {
+        this.defaultShipmentCost = defaultShipmentCost;
+        this.defaultUnitCost = defaultUnitCost;
+    }
+
+    /**
+     * @param warehouseName
+     * @param shipmentCost
+     */
+    public void setShipmentCost(String warehouseName, double shipmentCost) {
+        shipmentCosts.put(warehouseName, shipmentCost);
+    }
+
+    /**
+     * @param warehouseName
+     * @param unitCost (of every item of the warehouse)
+     */
+    public void setUnitCost(String warehouseName, double unitCost) {
+        unitCosts.put(warehouseName, unitCost);
+    }
+
+    /**
+     * @param warehouseName
+     * @param itemName
+     * @param unitCost
+     */
+    public void setUnitCost(String warehouseName, String itemName, double unitCost) {
+        HashMap<String, Double> costs = itemUnitCosts.get(warehouseName);
+        if (costs == null) {
+            costs = new HashMap<String, Double>();
+            itemUnitCosts.put(warehouseName, costs);
+        }
+        costs.put(itemName, unitCost);
+    }
+
+    /**
+     * @param warehouse
+     * @return cost of a shipment made from the warehouse
+     */
+    public double getShipmentCost(Warehouse warehouse) {
+        return shipmentCosts.getOrDefault(warehouse.getWarehouseName(), defaultShipmentCost);
+    }
+
+    /**
+     * @param warehouse
+     * @param itemName
+     * @return cost of a unit of the item shipped from the warehouse
+     */
+    public double getUnitCost(Warehouse warehouse, String itemName) {
+        HashMap<String, Double> costs = itemUnitCosts.get(warehouse.getWarehouseName());
+        if (costs != null && costs.containsKey(itemName)) {
+            return costs.get(itemName);
+        }
+        return unitCosts.getOrDefault(warehouse.getWarehouseName(), defaultUnitCost);
+    }
+
+    /**
+     * @param lines (grouped by warehouse)
+     * @return total cost of the lines, one shipment cost for every warehouse shipping
+     */
+    public double getCost(List<AllocationLine> lines) {
+        double cost = 0;
+        Warehouse shipmentWarehouse = null;
+        for (AllocationLine line : lines) {
+            if (line.getWarehouse() != shipmentWarehouse) {
+                shipmentWarehouse = line.getWarehouse();
+                cost += getShipmentCost(shipmentWarehouse);
+            }
+            cost += line.getQuantity() * getUnitCost(shipmentWarehouse, line.getItemName());
+        }
+        return cost;
+    }
+}
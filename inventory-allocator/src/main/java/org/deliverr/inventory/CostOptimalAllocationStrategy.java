@@ -0,0 +1,363 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * CostOptimalAllocationStrategy class which plans the order with the lowest total cost (see CostModel), counting one
+ * shipment cost for every warehouse shipping and the unit cost of every unit shipped.
+ *
+ * When at most exactWarehouseLimit warehouses hold any of the ordered items, every set of warehouses is searched
+ * (branch and bound) and the cheapest plan is exact. With more warehouses a weighted set cover heuristic picks the
+ * warehouses with the lowest cost per unit shipped and then drops the ones which do not pay for their shipment cost.
+ * The cheapest first greedy plan (see GreedyAllocationStrategy) is always computed first: it is returned whenever it
+ * is not more expensive, and whenever the search does not finish within the latency budget.
+ * */
+public class CostOptimalAllocationStrategy implements AllocationStrategy {
+
+    private static final Logger logger = Logger.getLogger(CostOptimalAllocationStrategy.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private static final int DEFAULT_EXACT_WAREHOUSE_LIMIT = 12;
+    private static final int DEADLINE_CHECK_INTERVAL = 256; // search nodes between two checks of the clock
+    private CostModel costModel = null;
+    private int exactWarehouseLimit = DEFAULT_EXACT_WAREHOUSE_LIMIT;
+    private long latencyBudgetNanos = Long.MAX_VALUE;
+    private AllocationStrategy fallbackStrategy = new GreedyAllocationStrategy();
+
+    /**
+     * Constructor which uses the default exact warehouse limit and no latency budget
+     *
+     * @param costModel
+     * */
+    public CostOptimalAllocationStrategy(CostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    /**
+     * @param costModel
+     * @param exactWarehouseLimit (maximum number of candidate warehouses searched exactly)
+     * @param latencyBudget (time after which the greedy plan is returned)
+     * @param unit of the latency budget
+     * */
+    public CostOptimalAllocationStrategy(CostModel costModel, int exactWarehouseLimit, long latencyBudget, TimeUnit unit) {
+        if (exactWarehouseLimit < 0 || latencyBudget < 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.costModel = costModel;
+        this.exactWarehouseLimit = exactWarehouseLimit;
+        this.latencyBudgetNanos = unit.toNanos(latencyBudget);
+    }
+
+    @Override
+    public AllocationPlan plan(Order order, List<Warehouse> warehouses) {
+        long deadline = System.nanoTime() + latencyBudgetNanos;
+
+        /* greedy takes every unit available, when greedy can not ship the order no other plan can */
+        AllocationPlan greedyPlan = fallbackStrategy.plan(order, warehouses);
+        if (!greedyPlan.isFulfillable() || greedyPlan.getLines().isEmpty()) {
+            return greedyPlan;
+        }
+
+        Candidates candidates = new Candidates(order, warehouses, costModel);
+        boolean[] chosen = candidates.size() <= exactWarehouseLimit
+                ? candidates.searchExact(deadline)
+                : candidates.searchHeuristic(deadline);
+        if (chosen == null) {
+            logger.fine("Latency budget exceeded, falling back to the greedy plan");
+            return greedyPlan;
+        }
+
+        List<AllocationLine> lines = candidates.toLines(chosen);
+        if (costModel.getCost(lines) < costModel.getCost(greedyPlan.getLines())) {
+            return new AllocationPlan(lines, true);
+        }
+        return greedyPlan;
+    }
+
+    /**
+     * Candidates class which stores the warehouses holding any of the ordered items, in the cheapest first order,
+     * with their stock and costs for the ordered items
+     * */
+    private static class Candidates {
+        private Warehouse[] warehouses = null;
+        private String[] itemNames = null;
+        private int[] ordered = null; // ordered quantity by item
+        private int[][] stock = null; // stock by candidate and item
+        private double[][] unitCosts = null; // unit cost by candidate and item
+        private double[] shipmentCosts = null; // shipment cost by candidate
+        private int[][] byUnitCost = null; // candidates holding an item by item, lowest unit cost first
+        private int[][] suffixStock = null; // stock of an item in the candidates from a candidate on, by candidate and item
+        private double unitCostLowerBound = 0; // cost of shipping every unit at it's lowest unit cost
+        private long nodes = 0;
+        private boolean timedOut = false;
+        private double bestCost = Double.POSITIVE_INFINITY;
+        private boolean[] best = null;
+
+        Candidates(Order order, List<Warehouse> allWarehouses, CostModel costModel) {
+            IntIntMap orderQuantities = order.getOrderItems();
+            List<String> names = new ArrayList<String>();
+            List<Integer> quantities = new ArrayList<Integer>();
+            for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+                if (orderQuantities.isUsed(slot) && orderQuantities.valueAt(slot) > 0) {
+                    names.add(skuDictionary.nameOf(orderQuantities.keyAt(slot)));
+                    quantities.add(orderQuantities.valueAt(slot));
+                }
+            }
+            itemNames = names.toArray(new String[0]);
+            ordered = new int[itemNames.length];
+            for (int i = 0; i < ordered.length; i++) {
+                ordered[i] = quantities.get(i);
+            }
+
+            List<Warehouse> holding = new ArrayList<Warehouse>();
+            List<int[]> holdingStock = new ArrayList<int[]>();
+            IdentityHashMap<Warehouse, Boolean> seen = new IdentityHashMap<Warehouse, Boolean>();
+            for (Warehouse warehouse : allWarehouses) {
+                if (seen.put(warehouse, Boolean.TRUE) != null) {
+                    continue;
+                }
+                int[] quantitiesHeld = new int[itemNames.length];
+                boolean holds = false;
+                for (int i = 0; i < itemNames.length; i++) {
+                    quantitiesHeld[i] = warehouse.getItemQuantity(itemNames[i]);
+                    holds |= quantitiesHeld[i] > 0;
+                }
+                if (holds) {
+                    holding.add(warehouse);
+                    holdingStock.add(quantitiesHeld);
+                }
+            }
+            warehouses = holding.toArray(new Warehouse[0]);
+            stock = holdingStock.toArray(new int[0][]);
+
+            shipmentCosts = new double[warehouses.length];
+            unitCosts = new double[warehouses.length][itemNames.length];
+            for (int c = 0; c < warehouses.length; c++) {
+                shipmentCosts[c] = costModel.getShipmentCost(warehouses[c]);
+                for (int i = 0; i < itemNames.length; i++) {
+                    unitCosts[c][i] = costModel.getUnitCost(warehouses[c], itemNames[i]);
+                }
+            }
+
+            byUnitCost = new int[itemNames.length][];
+            for (int i = 0; i < itemNames.length; i++) {
+                final int item = i;
+                List<Integer> holdingCandidates = new ArrayList<Integer>();
+                for (int c = 0; c < warehouses.length; c++) {
+                    if (stock[c][i] > 0) {
+                        holdingCandidates.add(c);
+                    }
+                }
+                /* stable sort, so warehouses with the same unit cost stay cheapest first */
+                Collections.sort(holdingCandidates, new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer first, Integer second) {
+                        return Double.compare(unitCosts[first][item], unitCosts[second][item]);
+                    }
+                });
+                byUnitCost[i] = new int[holdingCandidates.size()];
+                int remaining = ordered[i];
+                for (int k = 0; k < holdingCandidates.size(); k++) {
+                    byUnitCost[i][k] = holdingCandidates.get(k);
+                    int taken = Math.min(remaining, stock[holdingCandidates.get(k)][i]);
+                    unitCostLowerBound += taken * unitCosts[holdingCandidates.get(k)][i];
+                    remaining -= taken;
+                }
+            }
+
+            suffixStock = new int[warehouses.length + 1][itemNames.length];
+            for (int c = warehouses.length - 1; c >= 0; c--) {
+                for (int i = 0; i < itemNames.length; i++) {
+                    suffixStock[c][i] = (int) Math.min(Integer.MAX_VALUE, (long) suffixStock[c + 1][i] + stock[c][i]);
+                }
+            }
+        }
+
+        /**
+         * @return number of candidate warehouses
+         */
+        int size() {
+            return warehouses.length;
+        }
+
+        /**
+         * Searches every set of candidates, pruning the sets which can not ship the order or can not be cheaper
+         *
+         * @param deadline (System.nanoTime)
+         * @return cheapest set of candidates, null when the deadline was reached first
+         */
+        boolean[] searchExact(long deadline) {
+            search(0, new boolean[warehouses.length], new int[itemNames.length], 0, deadline);
+            return timedOut ? null : best;
+        }
+
+        private void search(int c, boolean[] chosen, int[] chosenStock, double chosenShipmentCost, long deadline) {
+            if (timedOut || (++nodes % DEADLINE_CHECK_INTERVAL == 0 && deadline - System.nanoTime() < 0)) {
+                timedOut = true;
+                return;
+            }
+            if (chosenShipmentCost + unitCostLowerBound >= bestCost) {
+                return;
+            }
+            for (int i = 0; i < itemNames.length; i++) {
+                if ((long) chosenStock[i] + suffixStock[c][i] < ordered[i]) {
+                    return;
+                }
+            }
+            if (c == warehouses.length) {
+                double cost = cost(chosen, null);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = chosen.clone();
+                }
+                return;
+            }
+
+            chosen[c] = true;
+            for (int i = 0; i < itemNames.length; i++) {
+                chosenStock[i] += stock[c][i];
+            }
+            search(c + 1, chosen, chosenStock, chosenShipmentCost + shipmentCosts[c], deadline);
+            chosen[c] = false;
+            for (int i = 0; i < itemNames.length; i++) {
+                chosenStock[i] -= stock[c][i];
+            }
+            search(c + 1, chosen, chosenStock, chosenShipmentCost, deadline);
+        }
+
+        /**
+         * Weighted set cover: repeatedly chooses the candidate with the lowest cost per unit it can still ship, then
+         * drops the chosen candidates, most expensive shipment first, whenever the order stays cheaper without them
+         *
+         * @param deadline (System.nanoTime)
+         * @return set of candidates, null when the deadline was reached first
+         */
+        boolean[] searchHeuristic(long deadline) {
+            boolean[] chosen = new boolean[warehouses.length];
+            int[] remaining = ordered.clone();
+            int outstanding = 0;
+            for (int quantity : remaining) {
+                outstanding += quantity > 0 ? 1 : 0;
+            }
+            while (outstanding > 0) {
+                if (deadline - System.nanoTime() < 0) {
+                    return null;
+                }
+                int bestCandidate = -1;
+                double bestCostPerUnit = Double.POSITIVE_INFINITY;
+                for (int c = 0; c < warehouses.length; c++) {
+                    if (chosen[c]) {
+                        continue;
+                    }
+                    long units = 0;
+                    double cost = shipmentCosts[c];
+                    for (int i = 0; i < itemNames.length; i++) {
+                        int taken = Math.min(remaining[i], stock[c][i]);
+                        units += taken;
+                        cost += taken * unitCosts[c][i];
+                    }
+                    if (units > 0 && cost / units < bestCostPerUnit) {
+                        bestCostPerUnit = cost / units;
+                        bestCandidate = c;
+                    }
+                }
+                if (bestCandidate < 0) {
+                    return null;
+                }
+                chosen[bestCandidate] = true;
+                for (int i = 0; i < itemNames.length; i++) {
+                    if (remaining[i] > 0) {
+                        remaining[i] -= Math.min(remaining[i], stock[bestCandidate][i]);
+                        outstanding -= remaining[i] == 0 ? 1 : 0;
+                    }
+                }
+            }
+
+            Integer[] byShipmentCost = new Integer[warehouses.length];
+            for (int c = 0; c < byShipmentCost.length; c++) {
+                byShipmentCost[c] = c;
+            }
+            Arrays.sort(byShipmentCost, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer first, Integer second) {
+                    return Double.compare(shipmentCosts[second], shipmentCosts[first]);
+                }
+            });
+            double cost = cost(chosen, null);
+            for (int c : byShipmentCost) {
+                if (!chosen[c]) {
+                    continue;
+                }
+                if (deadline - System.nanoTime() < 0) {
+                    return null;
+                }
+                chosen[c] = false;
+                double costWithout = cost(chosen, null);
+                if (costWithout < cost) {
+                    cost = costWithout;
+                } else {
+                    chosen[c] = true;
+                }
+            }
+            return chosen;
+        }
+
+        /**
+         * @param chosen
+         * @return lines shipping the order from the chosen candidates, grouped by warehouse, cheapest first
+         */
+        List<AllocationLine> toLines(boolean[] chosen) {
+            List<List<AllocationLine>> linesByCandidate = new ArrayList<List<AllocationLine>>();
+            for (int c = 0; c < warehouses.length; c++) {
+                linesByCandidate.add(new ArrayList<AllocationLine>());
+            }
+            cost(chosen, linesByCandidate);
+            List<AllocationLine> lines = new ArrayList<AllocationLine>();
+            for (List<AllocationLine> candidateLines : linesByCandidate) {
+                lines.addAll(candidateLines);
+            }
+            return lines;
+        }
+
+        /**
+         * Ships every item from the chosen candidates with the lowest unit cost first
+         *
+         * @param chosen
+         * @param linesByCandidate (lines are added when not null)
+         * @return cost of shipping the order from the chosen candidates, infinite when they can not ship it
+         */
+        private double cost(boolean[] chosen, List<List<AllocationLine>> linesByCandidate) {
+            boolean[] used = new boolean[warehouses.length];
+            double cost = 0;
+            for (int i = 0; i < itemNames.length; i++) {
+                int remaining = ordered[i];
+                for (int k = 0; k < byUnitCost[i].length && remaining > 0; k++) {
+                    int c = byUnitCost[i][k];
+                    if (!chosen[c]) {
+                        continue;
+                    }
+                    int taken = Math.min(remaining, stock[c][i]);
+                    remaining -= taken;
+                    cost += taken * unitCosts[c][i];
+                    used[c] = true;
+                    if (linesByCandidate != null) {
+                        linesByCandidate.get(c).add(new AllocationLine(warehouses[c], itemNames[i], taken));
+                    }
+                }
+                if (remaining > 0) {
+                    return Double.POSITIVE_INFINITY;
+                }
+            }
+            for (int c = 0; c < warehouses.length; c++) {
+                cost += used[c] ? shipmentCosts[c] : 0;
+            }
+            return cost;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.deliverr.inventory;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * GreedyAllocationStrategy class which ships every item from the first warehouses in the list holding it
+ * (cheapest first), the same way as InventoryAllocator.allocateShipment.
+ * */
+public class GreedyAllocationStrategy implements AllocationStrategy {
+
+    private static final Logger logger = Logger.getLogger(GreedyAllocationStrategy.class.getName());
+
+    @Override
+    public AllocationPlan plan(Order order, List<Warehouse> warehouses) {
+        return InventoryAllocator.getInventoryAllocatorInstance().planShipment(order, warehouses);
+    }
+}
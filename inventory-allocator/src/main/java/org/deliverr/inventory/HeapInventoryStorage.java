@@ -0,0 +1,43 @@
+package org.deliverr.inventory;
+
+import java.util.logging.Logger;
+
+/**
+ * HeapInventoryStorage class which stores the quantities of a warehouse on the heap in an IntIntMap. This is the
+ * default storage of a warehouse.
+ * */
+public class HeapInventoryStorage implements InventoryStorage {
+
+    private static final Logger logger = Logger.getLogger(HeapInventoryStorage.class.getName());
+    private IntIntMap quantities = new IntIntMap(); // quantity by item id
+
+    @Override
+    public int get(int itemId) {
+        return quantities.get(itemId, 0);
+    }
+
+    @Override
+    public boolean containsKey(int itemId) {
+        return quantities.containsKey(itemId);
+    }
+
+    @Override
+    public void put(int itemId, int quantity) {
+        quantities.put(itemId, quantity);
+    }
+
+    @Override
+    public void remove(int itemId) {
+        quantities.remove(itemId);
+    }
+
+    @Override
+    public int size() {
+        return quantities.size();
+    }
+
+    @Override
+    public void copyTo(IntIntMap target) {
+        target.putAll(quantities);
+    }
+}
@@ -0,0 +1,234 @@
+package org.deliverr.inventory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * ImmutableShipment class which stores a shipment as a value: it can not be changed, it's hash is computed once, and
+ * two shipments are equal when they ship the same quantities of the same items from the same warehouse.
+ *
+ * Items are stored by id (see SkuDictionary) in a sorted int array with the quantities in a parallel array, so a
+ * shipment is three objects whatever the number of it's items. Shipments are serialized with the item names
+ * instead of the ids, as the ids are only valid within one process:
+ * [warehouse name (DataOutput.writeUTF)][item count (varint)] and for every item [item name (writeUTF)][quantity (varint)].
+ * */
+public final class ImmutableShipment {
+
+    private static final Logger logger = Logger.getLogger(ImmutableShipment.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private final String warehouseName;
+    private final int[] itemIds; // sorted
+    private final int[] quantities; // quantity of the item id at the same index
+    private final int hash;
+
+    private ImmutableShipment(String warehouseName, int[] itemIds, int[] quantities) {
+        if (warehouseName == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.warehouseName = warehouseName;
+        this.itemIds = itemIds;
+        this.quantities = quantities;
+        this.hash = 31 * (31 * warehouseName.hashCode() + Arrays.hashCode(itemIds)) + Arrays.hashCode(quantities);
+    }
+
+    /**
+     * @param shipment
+     * @return immutable copy of the shipment
+     */
+    public static ImmutableShipment of(Shipment shipment) {
+        IntIntMap orderItems = shipment.getOrderItems();
+        long[] items = new long[orderItems.size()];
+        int count = 0;
+        for (int slot = 0; slot < orderItems.capacity(); slot++) {
+            if (orderItems.isUsed(slot)) {
+                items[count++] = ((long) orderItems.keyAt(slot) << 32) | (orderItems.valueAt(slot) & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(items);
+        int[] itemIds = new int[count];
+        int[] quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            itemIds[i] = (int) (items[i] >>> 32);
+            quantities[i] = (int) items[i];
+        }
+        return new ImmutableShipment(shipment.getWarehouseName(), itemIds, quantities);
+    }
+
+    /**
+     * @param shipments
+     * @return immutable copies of the shipments in the same order
+     */
+    public static List<ImmutableShipment> of(List<Shipment> shipments) {
+        List<ImmutableShipment> immutableShipments = new ArrayList<ImmutableShipment>(shipments.size());
+        for (Shipment shipment : shipments) {
+            immutableShipments.add(of(shipment));
+        }
+        return Collections.unmodifiableList(immutableShipments);
+    }
+
+    /**
+     * @return name of the warehouse the shipment is made from
+     */
+    public String getWarehouseName() {
+        return warehouseName;
+    }
+
+    /**
+     * @param orderItemName
+     * @return quantity of the orderItem in the shipment, 0 if the item is not shipped
+     */
+    public int getOrderItemsQuantity(String orderItemName) {
+        int orderItemId = skuDictionary.lookup(orderItemName);
+        int index = orderItemId < 0 ? -1 : Arrays.binarySearch(itemIds, orderItemId);
+        return index < 0 ? 0 : quantities[index];
+    }
+
+    /**
+     * @return names of the orderItems in the shipment
+     */
+    public List<String> getOrderItemsName() {
+        List<String> orderItemNames = new ArrayList<String>(itemIds.length);
+        for (int itemId : itemIds) {
+            orderItemNames.add(skuDictionary.nameOf(itemId));
+        }
+        return orderItemNames;
+    }
+
+    /**
+     * @return number of items in the shipment
+     */
+    public int size() {
+        return itemIds.length;
+    }
+
+    /**
+     * @return mutable copy of the shipment
+     */
+    public Shipment toShipment() {
+        Shipment shipment = new Shipment(warehouseName);
+        for (int i = 0; i < itemIds.length; i++) {
+            shipment.addOrders(itemIds[i], quantities[i]);
+        }
+        return shipment;
+    }
+
+    /**
+     * @param dataOutput
+     * @throws IOException
+     */
+    public void writeTo(DataOutput dataOutput) throws IOException {
+        dataOutput.writeUTF(warehouseName);
+        writeVarInt(dataOutput, itemIds.length);
+        for (int i = 0; i < itemIds.length; i++) {
+            dataOutput.writeUTF(skuDictionary.nameOf(itemIds[i]));
+            writeVarInt(dataOutput, quantities[i]);
+        }
+    }
+
+    /**
+     * @param dataInput
+     * @return shipment read from the input
+     * @throws IOException
+     */
+    public static ImmutableShipment readFrom(DataInput dataInput) throws IOException {
+        String warehouseName = dataInput.readUTF();
+        int count = readVarInt(dataInput);
+        Shipment shipment = new Shipment(warehouseName);
+        for (int i = 0; i < count; i++) {
+            String orderItemName = dataInput.readUTF();
+            shipment.addOrders(orderItemName, readVarInt(dataInput));
+        }
+        return of(shipment);
+    }
+
+    /**
+     * @return serialized shipment
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param bytes (written by toBytes)
+     * @return shipment read from the bytes
+     */
+    public static ImmutableShipment fromBytes(byte[] bytes) {
+        try {
+            return readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Please pass valid input", e);
+        }
+    }
+
+    /**
+     * Writes a non negative int in 7 bit groups, low group first, so small quantities take a single byte
+     * */
+    private static void writeVarInt(DataOutput dataOutput, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            dataOutput.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dataOutput.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput dataInput) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int group = dataInput.readByte();
+            value |= (group & 0x7F) << shift;
+            if ((group & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    /**
+     * Overriding the default equals method to compare two shipments by value
+     * */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ImmutableShipment)) {
+            return false;
+        }
+        ImmutableShipment shipment = (ImmutableShipment) obj;
+        return hash == shipment.hash && warehouseName.equals(shipment.warehouseName)
+                && Arrays.equals(itemIds, shipment.itemIds) && Arrays.equals(quantities, shipment.quantities);
+    }
+
+    /**
+     * @return hash computed when the shipment was created
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(warehouseName).append('{');
+        for (int i = 0; i < itemIds.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(skuDictionary.nameOf(itemIds[i])).append('=').append(quantities[i]);
+        }
+        return builder.append('}').toString();
+    }
+}
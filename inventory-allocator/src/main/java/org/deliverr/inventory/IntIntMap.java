@@ -0,0 +1,254 @@
+package org.deliverr.inventory;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * IntIntMap class which maps non negative int keys (item ids, see SkuDictionary) to int values without boxing.
+ *
+ * Open addressing with linear probing in two parallel int arrays. Removal shifts the following entries back, so the
+ * table never holds tombstones. Entries can be traversed without allocation through the slots:
+ * for (int slot = 0; slot < map.capacity(); slot++) if (map.isUsed(slot)) ... map.keyAt(slot), map.valueAt(slot)
+ * The map must not be changed structurally (put of a new key, remove) while it is traversed.
+ * */
+public class IntIntMap {
+
+    private static final Logger logger = Logger.getLogger(IntIntMap.class.getName());
+    private static final int EMPTY = -1;
+    private int[] keys = null;
+    private int[] values = null;
+    private int size = 0;
+
+    public IntIntMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize
+     */
+    public IntIntMap(int expectedSize) {
+        int capacity = 8;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @param key
+     * @param defaultValue
+     * @return value of the key or defaultValue when the key is absent
+     */
+    public int get(int key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * @param key
+     * @return true/false based on whether the key is present
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @param key (non negative)
+     * @param value
+     */
+    public void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * @param key
+     * @return true/false based on whether the key was present
+     */
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+
+        /* shifting back the entries which probed past the removed slot */
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all the entries, keeping the capacity
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of slots, for traversal
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @param slot
+     * @return true/false based on whether the slot holds an entry
+     */
+    public boolean isUsed(int slot) {
+        return keys[slot] != EMPTY;
+    }
+
+    /**
+     * @param slot
+     * @return key of the entry in the slot
+     */
+    public int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @param slot
+     * @return value of the entry in the slot
+     */
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @param slot
+     * @param value of the entry in the slot
+     */
+    public void setValueAt(int slot, int value) {
+        values[slot] = value;
+    }
+
+    /**
+     * @param other
+     */
+    public void putAll(IntIntMap other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != EMPTY) {
+                put(other.keys[slot], other.values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Overriding the default equals method to compare the entries, independent of the slots they are stored in
+     * */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof IntIntMap))
+            return false;
+
+        IntIntMap other = (IntIntMap) obj;
+        if (other.size != size) {
+            return false;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                int otherSlot = other.find(keys[slot]);
+                if (otherSlot < 0 || other.values[otherSlot] != values[slot]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Overriding the default hashCode method consistently with equals
+     * */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                hash += mix(keys[slot]) ^ values[slot];
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @param key
+     * @return slot of the key or -1 when the key is absent
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param capacity (power of two)
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Spreads dense ids over the table
+     *
+     * @param key
+     * @return hash of the key
+     */
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,480 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * InventoryAllocator class for allocating shipments based on orders made from different warehouses.
+ * */
+public class InventoryAllocator {
+    private static final Logger logger = Logger.getLogger(InventoryAllocator.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private static final int DEFAULT_BULK_FILL_MIN_ITEMS = 32;
+    private volatile AllocationMetrics metrics = AllocationMetrics.NOOP;
+    private volatile int bulkFillMinItems = DEFAULT_BULK_FILL_MIN_ITEMS;
+    private volatile AllocationTracer tracer = AllocationTracer.DISABLED;
+    private InventoryAllocator() {}
+
+    /**
+     * Holder of the single instance, initialized by the class loader on first use and hence thread safe.
+     * */
+    private static class InventoryAllocatorHolder {
+        private static final InventoryAllocator inventoryAllocator = new InventoryAllocator();
+    }
+
+    /**
+     * InventoryAllocator instance method. Singleton Design Pattern.
+     * @return single instance of InventoryAllocator
+     * */
+    public static InventoryAllocator getInventoryAllocatorInstance() {
+        return InventoryAllocatorHolder.inventoryAllocator;
+    }
+
+    /**
+     * @return metrics the allocations are reported to
+     */
+    public AllocationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics (AllocationMetrics.NOOP to disable the metrics)
+     */
+    public void setMetrics(AllocationMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return tracer a sample of the allocations is traced to
+     */
+    public AllocationTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * @param tracer (AllocationTracer.DISABLED to disable the tracing)
+     */
+    public void setTracer(AllocationTracer tracer) {
+        if (tracer == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.tracer = tracer;
+    }
+
+    /**
+     * @return number of items from which an order allocated into a ShipmentBuffer is filled in bulk
+     */
+    public int getBulkFillMinItems() {
+        return bulkFillMinItems;
+    }
+
+    /**
+     * @param bulkFillMinItems (number of items from which an order allocated into a ShipmentBuffer is filled in bulk,
+     * see BulkFillKernel, Integer.MAX_VALUE to never fill in bulk)
+     */
+    public void setBulkFillMinItems(int bulkFillMinItems) {
+        if (bulkFillMinItems < 1) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.bulkFillMinItems = bulkFillMinItems;
+    }
+
+    /**
+     * @param order
+     * @param warehouses
+     * @return list of shipments
+     */
+    public List<Shipment> allocateShipment(Order order, List<Warehouse> warehouses) {
+        AllocationMetrics metrics = this.metrics;
+        long startTime = metrics.startTime();
+        AllocationTrace trace = tracer.isSampled() ? new AllocationTrace(order) : null;
+        List<Shipment> shipments = new ArrayList<Shipment>();
+        int warehousesScanned = 0;
+
+        /* Iterating over all the warehouses to find the items to ship from the order list */
+        for(Warehouse warehouse: warehouses) {
+            warehousesScanned++;
+            Shipment shipment = warehouse.processOrder(order);
+            if(shipment != null) {
+                shipments.add(shipment);
+            }
+            if (trace != null) {
+                trace.addVisit(warehouse.getWarehouseName(), shipment);
+            }
+            if(order.getOrderSize()) {
+                metrics.recordAllocation(startTime, warehousesScanned, shipments.size(), true);
+                recordTrace(trace, true, null);
+                return shipments;
+            }
+        }
+
+        /* returning empty shipment when there are valid items found in the warehouse or orders is empty */
+        metrics.recordAllocation(startTime, warehousesScanned, 0, false);
+        recordTrace(trace, false, trace == null ? null : AllocationTrace.describeShortage(order.getOrderItems()));
+        List<Shipment> emptyShipment = new ArrayList<Shipment>();
+        return emptyShipment;
+    }
+
+    /**
+     * Same as allocateShipment(order, warehouses), but writes the shipments to a buffer owned by the caller. Reusing
+     * the buffer from one order to the next, the allocation itself creates no objects.
+     * Orders of at least bulkFillMinItems items are filled in bulk over dense arrays held by the buffer (see
+     * BulkFillKernel), every warehouse filling all the items in one pass.
+     *
+     * @param order
+     * @param warehouses
+     * @param shipmentBuffer (cleared first, left empty when the order can not be completely shipped)
+     * @return true/false based on whether the order was completely shipped
+     */
+    public boolean allocateShipment(Order order, List<Warehouse> warehouses, ShipmentBuffer shipmentBuffer) {
+        AllocationMetrics metrics = this.metrics;
+        long startTime = metrics.startTime();
+        AllocationTrace trace = tracer.isSampled() ? new AllocationTrace(order) : null;
+        shipmentBuffer.clear();
+        if (order.getOrderItems().size() >= bulkFillMinItems) {
+            return allocateInBulk(order, warehouses, shipmentBuffer, metrics, startTime, trace);
+        }
+        return allocateItemByItem(order, warehouses, shipmentBuffer, metrics, startTime, trace);
+    }
+
+    /**
+     * Item by item allocation into a buffer, every warehouse shipping the items of the order one after the other
+     */
+    private boolean allocateItemByItem(Order order, List<Warehouse> warehouses, ShipmentBuffer shipmentBuffer,
+                                       AllocationMetrics metrics, long startTime, AllocationTrace trace) {
+        int shipments = 0;
+        /* Iterating by index, an iterator would be allocated for every order */
+        for (int i = 0; i < warehouses.size(); i++) {
+            if (warehouses.get(i).processOrder(order, i, shipmentBuffer) > 0) {
+                shipments++;
+            }
+            if (order.getOrderSize()) {
+                metrics.recordAllocation(startTime, i + 1, shipments, true);
+                recordTrace(trace, warehouses, i + 1, shipmentBuffer, order);
+                return true;
+            }
+        }
+
+        recordTrace(trace, warehouses, warehouses.size(), shipmentBuffer, order);
+        shipmentBuffer.clear();
+        metrics.recordAllocation(startTime, warehouses.size(), 0, false);
+        return false;
+    }
+
+    /**
+     * Bulk counterpart of allocateItemByItem, with the same results. An order holding an item with quantity 0 is
+     * left to allocateItemByItem.
+     */
+    private boolean allocateInBulk(Order order, List<Warehouse> warehouses, ShipmentBuffer shipmentBuffer,
+                                   AllocationMetrics metrics, long startTime, AllocationTrace trace) {
+        IntIntMap orderQuantities = order.getOrderItems();
+        int length = shipmentBuffer.loadBulkFill(orderQuantities);
+        if (length < 0) {
+            return allocateItemByItem(order, warehouses, shipmentBuffer, metrics, startTime, trace);
+        }
+        int outstanding = length;
+        int shipments = 0;
+        for (int i = 0; i < warehouses.size(); i++) {
+            if (shipmentBuffer.fillFrom(warehouses.get(i), i, outstanding) > 0) {
+                shipments++;
+                outstanding = shipmentBuffer.compactBulkFill(outstanding);
+                if (outstanding == 0) {
+                    orderQuantities.clear();
+                    metrics.recordAllocation(startTime, i + 1, shipments, true);
+                    recordTrace(trace, warehouses, i + 1, shipmentBuffer, order);
+                    return true;
+                }
+            }
+        }
+
+        shipmentBuffer.storeBulkFill(orderQuantities, length);
+        recordTrace(trace, warehouses, warehouses.size(), shipmentBuffer, order);
+        shipmentBuffer.clear();
+        metrics.recordAllocation(startTime, warehouses.size(), 0, false);
+        return false;
+    }
+
+    /**
+     * Allocates the order from the warehouses ranked for it's destination zone (see WarehouseRouter)
+     *
+     * @param order
+     * @param warehouseRouter
+     * @return list of shipments
+     */
+    public List<Shipment> allocateShipment(Order order, WarehouseRouter warehouseRouter) {
+        return allocateShipment(order, warehouseRouter.getRanking(order.getDestinationZone()));
+    }
+
+    /**
+     * Allocates the order using the inventory index, visiting only the warehouses which hold stock of the ordered
+     * items. Shipments are produced in the same cheapest first order as allocateShipment(order, warehouses).
+     * An order which is short of some item across all the warehouses is rejected without visiting any of them.
+     *
+     * @param order
+     * @param inventoryIndex
+     * @return list of shipments
+     */
+    public List<Shipment> allocateShipment(Order order, InventoryIndex inventoryIndex) {
+        AllocationMetrics metrics = this.metrics;
+        long startTime = metrics.startTime();
+
+        AllocationTrace trace = tracer.isSampled() ? new AllocationTrace(order) : null;
+
+        /* rejecting the order before touching any warehouse when some item is short across all of them */
+        if (!inventoryIndex.isFeasible(order)) {
+            metrics.recordAllocation(startTime, 0, 0, false);
+            recordTrace(trace, false, trace == null ? null : describeIndexShortage(order, inventoryIndex));
+            return new ArrayList<Shipment>();
+        }
+
+        List<Shipment> shipments = new ArrayList<Shipment>();
+        BitSet candidateRanks = inventoryIndex.getCandidateRanks(order);
+        int warehousesScanned = 0;
+
+        /* Iterating only over the warehouses holding any of the ordered items, cheapest first */
+        for (int rank = candidateRanks.nextSetBit(0); rank >= 0 && !order.getOrderSize(); rank = candidateRanks.nextSetBit(rank + 1)) {
+            warehousesScanned++;
+            Shipment shipment = inventoryIndex.getWarehouse(rank).processOrder(order);
+            if(shipment != null) {
+                shipments.add(shipment);
+            }
+            if (trace != null) {
+                trace.addVisit(inventoryIndex.getWarehouse(rank).getWarehouseName(), shipment);
+            }
+        }
+
+        if(order.getOrderSize()) {
+            metrics.recordAllocation(startTime, warehousesScanned, shipments.size(), true);
+            recordTrace(trace, true, null);
+            return shipments;
+        }
+
+        /* returning empty shipment when the order could not be completely shipped */
+        metrics.recordAllocation(startTime, warehousesScanned, 0, false);
+        recordTrace(trace, false, trace == null ? null : AllocationTrace.describeShortage(order.getOrderItems()));
+        return new ArrayList<Shipment>();
+    }
+
+    /**
+     * Allocates the order with the given strategy, all or nothing. The order itself is left unchanged.
+     * A strategy reads the stock of every warehouse while planning, so the metrics and the trace report the warehouses
+     * of the plan as the warehouses scanned instead of the size of the list.
+     *
+     * @param order
+     * @param warehouses (cheapest first)
+     * @param allocationStrategy
+     * @return list of shipments or empty list when the order can not be completely shipped
+     */
+    public List<Shipment> allocateShipment(Order order, List<Warehouse> warehouses, AllocationStrategy allocationStrategy) {
+        AllocationMetrics metrics = this.metrics;
+        long startTime = metrics.startTime();
+        AllocationTrace trace = tracer.isSampled() ? new AllocationTrace(order) : null;
+        AllocationPlan allocationPlan = allocationStrategy.plan(order, warehouses);
+        int planWarehouses = countWarehouses(allocationPlan.getLines());
+        if (allocationPlan.isFulfillable() && allocationPlan.commit()) {
+            List<Shipment> shipments = allocationPlan.getShipments();
+            metrics.recordAllocation(startTime, planWarehouses, shipments.size(), true);
+            if (trace != null) {
+                for (Shipment shipment : shipments) {
+                    trace.addVisit(shipment.getWarehouseName(), shipment);
+                }
+                trace.setWarehousesVisited(planWarehouses);
+                recordTrace(trace, true, null);
+            }
+            return shipments;
+        }
+        metrics.recordAllocation(startTime, planWarehouses, 0, false);
+        if (trace != null) {
+            trace.setWarehousesVisited(planWarehouses);
+            recordTrace(trace, false, allocationPlan.isFulfillable() ? "stock changed before the plan was committed"
+                    : "no plan by " + allocationStrategy.getClass().getSimpleName());
+        }
+        return new ArrayList<Shipment>();
+    }
+
+    /**
+     * @param lines
+     * @return number of distinct warehouses of the lines
+     */
+    private static int countWarehouses(List<AllocationLine> lines) {
+        Set<Warehouse> lineWarehouses = Collections.newSetFromMap(new IdentityHashMap<Warehouse, Boolean>());
+        for (AllocationLine line : lines) {
+            lineWarehouses.add(line.getWarehouse());
+        }
+        return lineWarehouses.size();
+    }
+
+    /**
+     * Allocates a batch of orders against the same warehouses in a single pass (see BatchInventoryAllocator)
+     *
+     * @param orders
+     * @param warehouses
+     * @param orderingPolicy
+     * @return list of shipments for every order in the order they were passed in
+     */
+    public List<List<Shipment>> allocateShipments(Collection<Order> orders, List<Warehouse> warehouses, BatchOrderingPolicy orderingPolicy) {
+        return new BatchInventoryAllocator(warehouses).allocateShipments(orders, orderingPolicy);
+    }
+
+    /**
+     * Plans the shipments of the order cheapest first without changing the order or the warehouses.
+     * The returned plan can be committed (see AllocationPlan.commit) or dropped at no cost.
+     *
+     * @param order
+     * @param warehouses
+     * @return allocation plan
+     */
+    public AllocationPlan planShipment(Order order, List<Warehouse> warehouses) {
+        return planShipment(remainingQuantities(order), warehouses);
+    }
+
+    /**
+     * Plans the given quantities cheapest first, e.g. what is left of an order after some warehouses were planned
+     *
+     * @param remaining quantities by item id (owned by the call, reduced by the planned lines)
+     * @param warehouses
+     * @return allocation plan
+     */
+    AllocationPlan planShipment(IntIntMap remaining, List<Warehouse> warehouses) {
+        int outstanding = 0;
+        for (int slot = 0; slot < remaining.capacity(); slot++) {
+            if (remaining.isUsed(slot) && remaining.valueAt(slot) > 0) {
+                outstanding++;
+            }
+        }
+        List<AllocationLine> lines = new ArrayList<AllocationLine>();
+        for (int i = 0; i < warehouses.size() && outstanding > 0; i++) {
+            outstanding -= planWarehouse(warehouses.get(i), remaining, lines);
+        }
+        return new AllocationPlan(lines, outstanding == 0);
+    }
+
+    /**
+     * Plans the shipments of the order cheapest first using the inventory index, without changing the order or the
+     * warehouses.
+     *
+     * @param order
+     * @param inventoryIndex
+     * @return allocation plan
+     */
+    public AllocationPlan planShipment(Order order, InventoryIndex inventoryIndex) {
+        if (!inventoryIndex.isFeasible(order)) {
+            return new AllocationPlan(new ArrayList<AllocationLine>(), false);
+        }
+        IntIntMap remaining = remainingQuantities(order);
+        int outstanding = remaining.size();
+        List<AllocationLine> lines = new ArrayList<AllocationLine>();
+        BitSet candidateRanks = inventoryIndex.getCandidateRanks(order);
+        for (int rank = candidateRanks.nextSetBit(0); rank >= 0 && outstanding > 0; rank = candidateRanks.nextSetBit(rank + 1)) {
+            outstanding -= planWarehouse(inventoryIndex.getWarehouse(rank), remaining, lines);
+        }
+        return new AllocationPlan(lines, outstanding == 0);
+    }
+
+    /**
+     * @param order
+     * @return copy of the quantities (by item id) of the order which still have to be shipped
+     */
+    private IntIntMap remainingQuantities(Order order) {
+        IntIntMap orderQuantities = order.getOrderItems();
+        IntIntMap remaining = new IntIntMap(orderQuantities.size());
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (orderQuantities.isUsed(slot) && orderQuantities.valueAt(slot) > 0) {
+                remaining.put(orderQuantities.keyAt(slot), orderQuantities.valueAt(slot));
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Plans the lines taken from one warehouse and reduces the remaining quantities accordingly. Shipped items are
+     * kept in the remaining quantities with 0, so the map is never changed structurally.
+     *
+     * @param warehouse
+     * @param remaining
+     * @param lines
+     * @return number of items completely shipped by the warehouse
+     */
+    private int planWarehouse(Warehouse warehouse, IntIntMap remaining, List<AllocationLine> lines) {
+        int shipped = 0;
+        for (int slot = 0; slot < remaining.capacity(); slot++) {
+            if (!remaining.isUsed(slot) || remaining.valueAt(slot) == 0) {
+                continue;
+            }
+            int quantity = Math.min(remaining.valueAt(slot), warehouse.getItemQuantity(remaining.keyAt(slot)));
+            if (quantity <= 0) {
+                continue;
+            }
+            lines.add(new AllocationLine(warehouse, remaining.keyAt(slot), quantity));
+            remaining.setValueAt(slot, remaining.valueAt(slot) - quantity);
+            if (remaining.valueAt(slot) == 0) {
+                shipped++;
+            }
+        }
+        return shipped;
+    }
+
+    /**
+     * Records the trace when the allocation was sampled
+     *
+     * @param trace (null when the allocation was not sampled)
+     * @param filled
+     * @param rejectionReason (null when filled)
+     */
+    private void recordTrace(AllocationTrace trace, boolean filled, String rejectionReason) {
+        if (trace != null) {
+            trace.finish(filled, rejectionReason);
+            tracer.record(trace);
+        }
+    }
+
+    /**
+     * Records the trace of an allocation into a buffer when the allocation was sampled
+     *
+     * @param trace (null when the allocation was not sampled)
+     * @param warehouses
+     * @param warehousesVisited
+     * @param shipmentBuffer (holding the tuples of the allocation)
+     * @param order (holding the quantities not shipped)
+     */
+    private void recordTrace(AllocationTrace trace, List<Warehouse> warehouses, int warehousesVisited,
+                             ShipmentBuffer shipmentBuffer, Order order) {
+        if (trace == null) {
+            return;
+        }
+        for (Shipment shipment : shipmentBuffer.toShipments(warehouses)) {
+            trace.addVisit(shipment.getWarehouseName(), shipment);
+        }
+        trace.setWarehousesVisited(warehousesVisited);
+        boolean filled = order.getOrderSize();
+        recordTrace(trace, filled, filled ? null : AllocationTrace.describeShortage(order.getOrderItems()));
+    }
+
+    /**
+     * @param order
+     * @param inventoryIndex
+     * @return reason of the rejection of an order short across all the warehouses of the index
+     */
+    private static String describeIndexShortage(Order order, InventoryIndex inventoryIndex) {
+        IntIntMap shortItems = new IntIntMap();
+        IntIntMap orderQuantities = order.getOrderItems();
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (orderQuantities.isUsed(slot)) {
+                long available = inventoryIndex.getAvailableQuantity(skuDictionary.nameOf(orderQuantities.keyAt(slot)));
+                if (orderQuantities.valueAt(slot) > available) {
+                    shortItems.put(orderQuantities.keyAt(slot), (int) (orderQuantities.valueAt(slot) - available));
+                }
+            }
+        }
+        return AllocationTrace.describeShortage(shortItems) + " across all the warehouses, none visited";
+    }
+}
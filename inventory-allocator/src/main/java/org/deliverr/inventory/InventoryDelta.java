@@ -0,0 +1,48 @@
+package org.deliverr.inventory;
+
+import java.util.logging.Logger;
+
+/**
+ * InventoryDelta class which stores a relative change of the quantity of an item in a warehouse
+ * */
+public class InventoryDelta {
+    private static final Logger logger = Logger.getLogger(InventoryDelta.class.getName());
+    private Warehouse warehouse = null;
+    private String itemName = null;
+    private int delta = 0;
+
+    /**
+     * @param warehouse
+     * @param itemName
+     * @param delta (positive to add stock, negative to remove stock)
+     */
+    public InventoryDelta(Warehouse warehouse, String itemName, int delta) {
+        if (itemName == null || itemName.isEmpty()) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.warehouse = warehouse;
+        this.itemName = itemName;
+        this.delta = delta;
+    }
+
+    /**
+     * @return warehouse the quantity changes in
+     */
+    public Warehouse getWarehouse() {
+        return warehouse;
+    }
+
+    /**
+     * @return name of the item
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * @return change of the quantity
+     */
+    public int getDelta() {
+        return delta;
+    }
+}
@@ -0,0 +1,39 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * InventoryDeltaBatch class which groups deltas applied all or nothing by InventoryDeltaFeed
+ * */
+public class InventoryDeltaBatch {
+    private static final Logger logger = Logger.getLogger(InventoryDeltaBatch.class.getName());
+    private List<InventoryDelta> deltas = new ArrayList<InventoryDelta>();
+
+    /**
+     * @param warehouse
+     * @param itemName
+     * @param delta (positive to add stock, negative to remove stock)
+     * @return this batch
+     */
+    public InventoryDeltaBatch add(Warehouse warehouse, String itemName, int delta) {
+        deltas.add(new InventoryDelta(warehouse, itemName, delta));
+        return this;
+    }
+
+    /**
+     * @return deltas in the order they were added
+     */
+    public List<InventoryDelta> getDeltas() {
+        return Collections.unmodifiableList(deltas);
+    }
+
+    /**
+     * @return number of deltas
+     */
+    public int size() {
+        return deltas.size();
+    }
+}
@@ -0,0 +1,165 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * InventoryDeltaFeed class for applying a stream of stock changes (receipts, returns, cycle counts) to live warehouses
+ * instead of rebuilding them.
+ *
+ * Every batch locks the stripes of it's items, the same StripedItemLocks the ConcurrentInventoryAllocator takes, so an
+ * allocation never sees half of a batch. Every applied batch moves the inventory to the next version, and snapshot
+ * returns the quantities of all the warehouses at a single version.
+ * */
+public class InventoryDeltaFeed {
+
+    private static final Logger logger = Logger.getLogger(InventoryDeltaFeed.class.getName());
+    private List<Warehouse> warehouses = null;
+    private StripedItemLocks itemLocks = null;
+    private AtomicLong version = new AtomicLong();
+
+    /**
+     * Constructor which shares the warehouses and the item locks of the allocator
+     *
+     * @param concurrentInventoryAllocator
+     * */
+    public InventoryDeltaFeed(ConcurrentInventoryAllocator concurrentInventoryAllocator) {
+        this(concurrentInventoryAllocator.getWarehouses(), concurrentInventoryAllocator.getItemLocks());
+    }
+
+    /**
+     * @param warehouses
+     * @param itemLocks
+     * */
+    public InventoryDeltaFeed(List<Warehouse> warehouses, StripedItemLocks itemLocks) {
+        if (warehouses == null || itemLocks == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.warehouses = new ArrayList<Warehouse>(warehouses);
+        this.itemLocks = itemLocks;
+    }
+
+    /**
+     * @return version of the inventory, i.e. the number of batches applied
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Applies a single delta as a batch of it's own
+     *
+     * @param warehouse
+     * @param itemName
+     * @param delta (positive to add stock, negative to remove stock)
+     * @return new version of the inventory
+     */
+    public long apply(Warehouse warehouse, String itemName, int delta) {
+        return apply(new InventoryDeltaBatch().add(warehouse, itemName, delta));
+    }
+
+    /**
+     * Applies all the deltas of the batch or none of them. The deltas of an item are netted first, so the batch is
+     * rejected only when it's net change would take the quantity of the item below 0, whatever the order of the deltas.
+     * Costs time proportional to the number of deltas.
+     *
+     * @param inventoryDeltaBatch
+     * @return new version of the inventory
+     */
+    public long apply(InventoryDeltaBatch inventoryDeltaBatch) {
+        List<InventoryDelta> deltas = inventoryDeltaBatch.getDeltas();
+        Set<String> itemNames = new HashSet<String>();
+        for (InventoryDelta delta : deltas) {
+            if (delta.getWarehouse() == null) {
+                throw new IllegalArgumentException("Please pass valid input");
+            }
+            itemNames.add(delta.getItemName());
+        }
+
+        int[] lockedStripes = itemLocks.lock(itemNames);
+        try {
+            Map<Warehouse, Map<String, Long>> netDeltas = netDeltas(deltas);
+            validate(netDeltas);
+            List<InventoryDelta> applied = new ArrayList<InventoryDelta>();
+            try {
+                for (Map.Entry<Warehouse, Map<String, Long>> warehouseDeltas : netDeltas.entrySet()) {
+                    for (Map.Entry<String, Long> netDelta : warehouseDeltas.getValue().entrySet()) {
+                        if (netDelta.getValue() != 0) {
+                            InventoryDelta delta = new InventoryDelta(warehouseDeltas.getKey(), netDelta.getKey(),
+                                    netDelta.getValue().intValue());
+                            delta.getWarehouse().adjustStock(delta.getItemName(), delta.getDelta());
+                            applied.add(delta);
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                /* the stock was changed outside the item locks, undoing the net deltas already applied */
+                for (int i = applied.size() - 1; i >= 0; i--) {
+                    InventoryDelta delta = applied.get(i);
+                    delta.getWarehouse().adjustStock(delta.getItemName(), -delta.getDelta());
+                }
+                throw e;
+            }
+            return version.incrementAndGet();
+        } finally {
+            itemLocks.unlock(lockedStripes);
+        }
+    }
+
+    /**
+     * Folds the deltas of a batch into one net change per item of every warehouse, so only the outcome of the batch
+     * has to stay within bounds and not every partial sum of it
+     * */
+    private Map<Warehouse, Map<String, Long>> netDeltas(List<InventoryDelta> deltas) {
+        Map<Warehouse, Map<String, Long>> netDeltas = new IdentityHashMap<Warehouse, Map<String, Long>>();
+        for (InventoryDelta delta : deltas) {
+            Map<String, Long> warehouseDeltas = netDeltas.get(delta.getWarehouse());
+            if (warehouseDeltas == null) {
+                warehouseDeltas = new HashMap<String, Long>();
+                netDeltas.put(delta.getWarehouse(), warehouseDeltas);
+            }
+            Long netDelta = warehouseDeltas.get(delta.getItemName());
+            warehouseDeltas.put(delta.getItemName(), (netDelta == null ? 0L : netDelta) + delta.getDelta());
+        }
+        return netDeltas;
+    }
+
+    /**
+     * Checks the net change of every item of every warehouse against the current quantity
+     * */
+    private void validate(Map<Warehouse, Map<String, Long>> netDeltas) {
+        for (Map.Entry<Warehouse, Map<String, Long>> warehouseDeltas : netDeltas.entrySet()) {
+            for (Map.Entry<String, Long> netDelta : warehouseDeltas.getValue().entrySet()) {
+                long newQuantity = warehouseDeltas.getKey().getItemQuantity(netDelta.getKey()) + netDelta.getValue();
+                if (newQuantity < 0 || newQuantity > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Please pass valid input");
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the quantities of all the warehouses while no batch is being applied
+     *
+     * @return snapshot of the inventory at the current version
+     */
+    public InventorySnapshot snapshot() {
+        int[] lockedStripes = itemLocks.lockAll();
+        try {
+            Map<Warehouse, IntIntMap> quantities = new IdentityHashMap<Warehouse, IntIntMap>();
+            for (Warehouse warehouse : warehouses) {
+                quantities.put(warehouse, warehouse.copyOrderItems());
+            }
+            return new InventorySnapshot(version.get(), quantities);
+        } finally {
+            itemLocks.unlock(lockedStripes);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.deliverr.inventory;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * InventoryHold class which stores the stock held for an order until it expires (see ReservationManager).
+ *
+ * The held stock is taken out of the warehouses when the hold is placed, so no other allocation can see it, and the
+ * hold keeps the planned lines to ship it from.
+ * */
+public class InventoryHold {
+
+    private static final Logger logger = Logger.getLogger(InventoryHold.class.getName());
+    private long holdId = 0;
+    private AllocationPlan allocationPlan = null;
+    private long expiresAt = 0;
+    private volatile boolean active = true;
+    private TimingWheel.Timeout<InventoryHold> timeout = null;
+
+    /**
+     * @param holdId
+     * @param allocationPlan (committed plan of the held stock)
+     * @param expiresAt (time in milliseconds)
+     */
+    InventoryHold(long holdId, AllocationPlan allocationPlan, long expiresAt) {
+        this.holdId = holdId;
+        this.allocationPlan = allocationPlan;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return id of the hold
+     */
+    public long getHoldId() {
+        return holdId;
+    }
+
+    /**
+     * @return time in milliseconds at which the hold expires
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @return true/false based on whether the stock is still held, i.e. the hold was neither converted, released
+     * nor expired
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return lines of the held stock, grouped by warehouse, cheapest warehouse first
+     */
+    public List<AllocationLine> getLines() {
+        return allocationPlan.getLines();
+    }
+
+    /**
+     * @return shipments of the held stock
+     */
+    public List<Shipment> getShipments() {
+        return allocationPlan.getShipments();
+    }
+
+    void deactivate() {
+        active = false;
+    }
+
+    TimingWheel.Timeout<InventoryHold> getTimeout() {
+        return timeout;
+    }
+
+    void setTimeout(TimingWheel.Timeout<InventoryHold> timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,227 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * InventoryIndex class which indexes the stock of a set of warehouses by item name.
+ *
+ * Warehouses are ranked by their position in the list passed in (cheapest first). For every item id the index keeps
+ * a bitset of the ranks of the warehouses holding stock of that item, so an order only has to visit the warehouses
+ * which actually carry its items, still in the cheapest first order.
+ * The index also keeps the total quantity of every item across all the warehouses, so an order which can not be
+ * shipped is rejected in O(items) before any warehouse is visited (see isFeasible).
+ * The index registers itself as an InventoryListener on every warehouse and stays in sync with their stock.
+ * Lookups and updates are synchronized on the index, so it can be shared by warehouses updated from many threads.
+ * */
+public class InventoryIndex implements ItemIdInventoryListener {
+
+    private static final Logger logger = Logger.getLogger(InventoryIndex.class.getName());
+    private List<Warehouse> warehouses = new ArrayList<Warehouse>(); // warehouses in the cheapest first order
+    private IdentityHashMap<Warehouse, Integer> warehouseRanks = new IdentityHashMap<Warehouse, Integer>(); // warehouse and it's rank
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private BitSet[] warehousesByItem = new BitSet[64]; // ranks of the warehouses holding an item, by item id
+    private long[] availableByItem = new long[64]; // total quantity of an item across the warehouses, by item id
+
+    /**
+     * Constructor which indexes the given warehouses. A warehouse listed more than once keeps it's first rank.
+     *
+     * @param warehouses (cheapest first)
+     * */
+    public InventoryIndex(List<Warehouse> warehouses) {
+        for (Warehouse warehouse : warehouses) {
+            int rank;
+            synchronized (this) {
+                if (warehouseRanks.containsKey(warehouse)) {
+                    continue;
+                }
+                rank = this.warehouses.size();
+                this.warehouses.add(warehouse);
+                warehouseRanks.put(warehouse, rank);
+            }
+
+            /* Listening and copying the stock atomically so that every change is counted exactly once, the
+             * warehouse lock is never taken while holding the index lock */
+            IntIntMap quantities = warehouse.addInventoryListenerAndCopy(this);
+            addStock(quantities, rank);
+        }
+    }
+
+    /**
+     * @return warehouses indexed in the cheapest first order
+     */
+    public List<Warehouse> getWarehouses() {
+        return Collections.unmodifiableList(warehouses);
+    }
+
+    /**
+     * @param rank
+     * @return warehouse at the given rank
+     */
+    public Warehouse getWarehouse(int rank) {
+        return warehouses.get(rank);
+    }
+
+    /**
+     * @param warehouse
+     * @return rank of the warehouse or -1 when the warehouse is not indexed
+     */
+    public int getRank(Warehouse warehouse) {
+        Integer rank = warehouseRanks.get(warehouse);
+        return rank == null ? -1 : rank;
+    }
+
+    /**
+     * @param itemName
+     * @return warehouses holding stock of the item in the cheapest first order
+     */
+    public synchronized List<Warehouse> getWarehousesHolding(String itemName) {
+        List<Warehouse> holding = new ArrayList<Warehouse>();
+        BitSet ranks = getRanks(skuDictionary.lookup(itemName));
+        if (ranks != null) {
+            for (int rank = ranks.nextSetBit(0); rank >= 0; rank = ranks.nextSetBit(rank + 1)) {
+                holding.add(warehouses.get(rank));
+            }
+        }
+        return holding;
+    }
+
+    /**
+     * Collects the ranks of the warehouses holding any of the items of the order.
+     *
+     * @param order
+     * @return ranks of the candidate warehouses for the order
+     */
+    public synchronized BitSet getCandidateRanks(Order order) {
+        BitSet candidates = new BitSet(warehouses.size());
+        IntIntMap orderQuantities = order.getOrderItems();
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (orderQuantities.isUsed(slot)) {
+                BitSet ranks = getRanks(orderQuantities.keyAt(slot));
+                if (ranks != null) {
+                    candidates.or(ranks);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Checks the order against the total quantity of every item across the warehouses, without visiting any of them.
+     *
+     * @param order
+     * @return false when some item of the order is short across all the warehouses, true when it may be shipped
+     */
+    public synchronized boolean isFeasible(Order order) {
+        IntIntMap orderQuantities = order.getOrderItems();
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (orderQuantities.isUsed(slot) && orderQuantities.valueAt(slot) > getAvailable(orderQuantities.keyAt(slot))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param itemName
+     * @return total quantity of the item across the warehouses
+     */
+    public synchronized long getAvailableQuantity(String itemName) {
+        return getAvailable(skuDictionary.lookup(itemName));
+    }
+
+    /**
+     * Unregisters the index from all the warehouses. The index must not be used afterwards.
+     */
+    public void detach() {
+        for (Warehouse warehouse : warehouses) {
+            warehouse.removeInventoryListener(this);
+        }
+    }
+
+    /**
+     * Keeps the index in sync when an item goes in or out of stock in a warehouse
+     * */
+    @Override
+    public void stockChanged(Warehouse warehouse, String itemName, int previousQuantity, int newQuantity) {
+        stockChanged(warehouse, skuDictionary.idOf(itemName), previousQuantity, newQuantity);
+    }
+
+    /**
+     * Same as stockChanged by item name, notified by the warehouses without resolving the name of the item
+     * */
+    @Override
+    public synchronized void stockChanged(Warehouse warehouse, int itemId, int previousQuantity, int newQuantity) {
+        Integer rank = warehouseRanks.get(warehouse);
+        if (rank == null) {
+            return;
+        }
+        ensureCapacity(itemId);
+        availableByItem[itemId] += newQuantity - previousQuantity;
+        if (newQuantity > 0) {
+            getOrCreateRanks(itemId).set(rank);
+        } else {
+            BitSet ranks = getRanks(itemId);
+            if (ranks != null) {
+                ranks.clear(rank);
+            }
+        }
+    }
+
+    /**
+     * @param quantities (by item id) of the warehouse at the given rank
+     * @param rank
+     */
+    private synchronized void addStock(IntIntMap quantities, int rank) {
+        for (int slot = 0; slot < quantities.capacity(); slot++) {
+            if (quantities.isUsed(slot) && quantities.valueAt(slot) > 0) {
+                getOrCreateRanks(quantities.keyAt(slot)).set(rank);
+                availableByItem[quantities.keyAt(slot)] += quantities.valueAt(slot);
+            }
+        }
+    }
+
+    /**
+     * @param itemId
+     * @return total quantity of the item across the warehouses
+     */
+    private long getAvailable(int itemId) {
+        return itemId >= 0 && itemId < availableByItem.length ? availableByItem[itemId] : 0;
+    }
+
+    /**
+     * @param itemId
+     * @return ranks of the warehouses holding the item or null when no warehouse ever held it
+     */
+    private BitSet getRanks(int itemId) {
+        return itemId >= 0 && itemId < warehousesByItem.length ? warehousesByItem[itemId] : null;
+    }
+
+    /**
+     * @param itemId
+     * @return ranks of the warehouses holding the item, created when the item is seen for the first time
+     */
+    private BitSet getOrCreateRanks(int itemId) {
+        ensureCapacity(itemId);
+        if (warehousesByItem[itemId] == null) {
+            warehousesByItem[itemId] = new BitSet();
+        }
+        return warehousesByItem[itemId];
+    }
+
+    /**
+     * Grows the arrays by item id to hold the given item id
+     * */
+    private void ensureCapacity(int itemId) {
+        if (itemId >= warehousesByItem.length) {
+            int length = Math.max(itemId + 1, warehousesByItem.length * 2);
+            warehousesByItem = Arrays.copyOf(warehousesByItem, length);
+            availableByItem = Arrays.copyOf(availableByItem, length);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.deliverr.inventory;
+
+/**
+ * InventoryListener interface which gets notified whenever the stock of an item changes in a warehouse
+ * */
+public interface InventoryListener {
+
+    /**
+     * @param warehouse
+     * @param itemName
+     * @param previousQuantity (0 when the item was not stocked before)
+     * @param newQuantity (0 when the item is no longer stocked)
+     */
+    void stockChanged(Warehouse warehouse, String itemName, int previousQuantity, int newQuantity);
+}
@@ -0,0 +1,78 @@
+package org.deliverr.inventory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * InventoryLoadResult class which stores the warehouses built by InventorySnapshotLoader and the load throughput
+ * */
+public class InventoryLoadResult {
+
+    private static final Logger logger = Logger.getLogger(InventoryLoadResult.class.getName());
+    private List<Warehouse> warehouses = null;
+    private long rowCount = 0;
+    private long byteCount = 0;
+    private long elapsedNanos = 0;
+
+    /**
+     * @param warehouses (in the order they first appear in the snapshot)
+     * @param rowCount
+     * @param byteCount
+     * @param elapsedNanos
+     */
+    public InventoryLoadResult(List<Warehouse> warehouses, long rowCount, long byteCount, long elapsedNanos) {
+        this.warehouses = Collections.unmodifiableList(warehouses);
+        this.rowCount = rowCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return warehouses in the order they first appear in the snapshot
+     */
+    public List<Warehouse> getWarehouses() {
+        return warehouses;
+    }
+
+    /**
+     * @return number of stock rows loaded
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return number of bytes read
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return time spent loading in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return rows loaded per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return megabytes read per second
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : byteCount * 1e9 / elapsedNanos / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows, %d warehouses, %d bytes in %.1f ms (%.0f rows/s, %.1f MB/s)", rowCount,
+                warehouses.size(), byteCount, elapsedNanos / 1e6, getRowsPerSecond(), getMegabytesPerSecond());
+    }
+}
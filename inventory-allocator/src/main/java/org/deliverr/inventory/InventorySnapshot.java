@@ -0,0 +1,45 @@
+package org.deliverr.inventory;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * InventorySnapshot class which stores the quantities of the warehouses at one version of the inventory.
+ * It is not changed by the deltas applied after it was taken.
+ * */
+public class InventorySnapshot {
+
+    private static final Logger logger = Logger.getLogger(InventorySnapshot.class.getName());
+    private long version = 0;
+    private Map<Warehouse, IntIntMap> quantities = null;
+
+    /**
+     * @param version
+     * @param quantities (by warehouse identity, owned by the snapshot)
+     * */
+    InventorySnapshot(long version, Map<Warehouse, IntIntMap> quantities) {
+        this.version = version;
+        this.quantities = quantities;
+    }
+
+    /**
+     * @return version of the inventory the snapshot was taken at
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param warehouse
+     * @param itemName
+     * @return quantity of the item in the warehouse when the snapshot was taken, or 0
+     */
+    public int getItemQuantity(Warehouse warehouse, String itemName) {
+        IntIntMap warehouseQuantities = quantities.get(warehouse);
+        int itemId = SkuDictionary.getSkuDictionaryInstance().lookup(itemName);
+        if (warehouseQuantities == null || itemId < 0) {
+            return 0;
+        }
+        return warehouseQuantities.get(itemId, 0);
+    }
+}
@@ -0,0 +1,11 @@
+package org.deliverr.inventory;
+
+/**
+ * InventorySnapshotFormat enum of the inventory snapshot files read by InventorySnapshotLoader
+ * */
+public enum InventorySnapshotFormat {
+    /* one warehouse,sku,quantity row per line, optionally preceded by a warehouse,sku,quantity header line */
+    CSV,
+    /* one {"warehouse": "...", "sku": "...", "quantity": n} object per line */
+    JSON_LINES
+}
@@ -0,0 +1,431 @@
+package org.deliverr.inventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * InventorySnapshotLoader class which builds warehouses from an inventory snapshot file (see InventorySnapshotFormat).
+ *
+ * The file is streamed through a fixed size buffer, so it is never loaded in memory as a whole. Rows are parsed in
+ * place in the buffer: warehouse and item names are resolved from their raw bytes (see ByteNameTable), and a String is
+ * only created the first time a name is seen. Quantities go straight into the warehouses by item id.
+ * When a row appears more than once for the same warehouse and item, the last one wins, like Warehouse.addOrders.
+ * */
+public class InventorySnapshotLoader {
+
+    private static final Logger logger = Logger.getLogger(InventorySnapshotLoader.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final byte[] WAREHOUSE_KEY = "warehouse".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SKU_KEY = "sku".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] QUANTITY_KEY = "quantity".getBytes(StandardCharsets.UTF_8);
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    public InventorySnapshotLoader() {
+    }
+
+    /**
+     * @param bufferSize (initial size of the read buffer, grown only for a line longer than the buffer)
+     */
+    public InventorySnapshotLoader(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Loads a snapshot, reading .jsonl and .json files as JSON_LINES and any other file as CSV
+     *
+     * @param snapshot
+     * @return warehouses and load throughput
+     * @throws IOException
+     */
+    public InventoryLoadResult load(Path snapshot) throws IOException {
+        String fileName = snapshot.getFileName().toString();
+        boolean jsonLines = fileName.endsWith(".jsonl") || fileName.endsWith(".json");
+        return load(snapshot, jsonLines ? InventorySnapshotFormat.JSON_LINES : InventorySnapshotFormat.CSV);
+    }
+
+    /**
+     * @param snapshot
+     * @param format
+     * @return warehouses and load throughput
+     * @throws IOException
+     */
+    public InventoryLoadResult load(Path snapshot, InventorySnapshotFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return load(channel, format);
+        }
+    }
+
+    /**
+     * @param channel (read until the end, not closed)
+     * @param format
+     * @return warehouses and load throughput
+     * @throws IOException
+     */
+    public InventoryLoadResult load(ReadableByteChannel channel, InventorySnapshotFormat format) throws IOException {
+        long startNanos = System.nanoTime();
+        Parser parser = new Parser(format);
+        byte[] buffer = new byte[bufferSize];
+        int start = 0; // start of the first line not parsed yet
+        int end = 0; // end of the bytes read
+        int scanned = 0; // bytes already scanned for a line end
+        long byteCount = 0;
+        boolean endOfFile = false;
+
+        while (!endOfFile) {
+            if (end == buffer.length) {
+                if (start > 0) {
+                    /* moving the partial line to the beginning of the buffer */
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    scanned -= start;
+                    start = 0;
+                } else {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, end, buffer.length - end));
+            if (read < 0) {
+                endOfFile = true;
+            } else {
+                end += read;
+                byteCount += read;
+            }
+
+            for (; scanned < end; scanned++) {
+                if (buffer[scanned] == '\n') {
+                    parser.parseLine(buffer, start, scanned);
+                    start = scanned + 1;
+                }
+            }
+        }
+        if (start < end) {
+            parser.parseLine(buffer, start, end);
+        }
+
+        InventoryLoadResult result = new InventoryLoadResult(parser.warehouses, parser.rowCount, byteCount, System.nanoTime() - startNanos);
+        logger.info("Loaded inventory snapshot: " + result);
+        return result;
+    }
+
+    /**
+     * Parser class which holds the state of one load
+     * */
+    private static class Parser {
+        private InventorySnapshotFormat format = null;
+        private List<Warehouse> warehouses = new ArrayList<Warehouse>();
+        private ByteNameTable warehouseNames = new ByteNameTable(); // warehouse name and it's position in warehouses
+        private ByteNameTable itemNames = new ByteNameTable(); // item name and it's id
+        private long lineNumber = 0;
+        private long rowCount = 0;
+        private boolean headerChecked = false; // whether the first line which is not blank or a comment was seen
+
+        /* the fields of the row being parsed, as slices of the buffer */
+        private byte[] warehouseBuffer = null;
+        private int warehouseOffset = 0;
+        private int warehouseLength = -1;
+        private byte[] itemBuffer = null;
+        private int itemOffset = 0;
+        private int itemLength = -1;
+        private long quantity = -1;
+
+        /* slices of the last field trimmed by trimField and of the last string parsed by parseJsonString, and the
+         * end of the last JSON value parsed */
+        private int fieldStart = 0;
+        private int fieldEnd = 0;
+        private int stringOffset = 0;
+        private int stringLength = 0;
+        private int valueEnd = 0;
+
+        Parser(InventorySnapshotFormat format) {
+            this.format = format;
+        }
+
+        /**
+         * @param buffer
+         * @param from (first byte of the line)
+         * @param to (line end, excluded)
+         */
+        void parseLine(byte[] buffer, int from, int to) {
+            lineNumber++;
+            if (to > from && buffer[to - 1] == '\r') {
+                to--;
+            }
+            from = skipWhitespace(buffer, from, to);
+            if (from == to || buffer[from] == '#') {
+                return;
+            }
+            warehouseLength = -1;
+            itemLength = -1;
+            quantity = -1;
+            if (format == InventorySnapshotFormat.CSV) {
+                if (!parseCsv(buffer, from, to)) {
+                    return;
+                }
+            } else {
+                parseJson(buffer, from, to);
+            }
+            if (warehouseLength <= 0 || itemLength <= 0 || quantity < 0 || quantity > Integer.MAX_VALUE) {
+                throw invalid("missing or invalid warehouse, sku or quantity");
+            }
+            warehouseFor().addOrders(itemIdFor(), (int) quantity);
+            rowCount++;
+        }
+
+        /**
+         * @return true when the line is a row, false when it is the header line, i.e. the first line which is not
+         * blank or a comment reading warehouse,sku,quantity
+         */
+        private boolean parseCsv(byte[] buffer, int from, int to) {
+            int firstComma = indexOf(buffer, from, to, (byte) ',');
+            int secondComma = firstComma < 0 ? -1 : indexOf(buffer, firstComma + 1, to, (byte) ',');
+            if (secondComma < 0) {
+                throw invalid("expected warehouse,sku,quantity");
+            }
+            trimField(buffer, from, firstComma);
+            warehouseBuffer = buffer;
+            warehouseOffset = fieldStart;
+            warehouseLength = fieldEnd - fieldStart;
+            trimField(buffer, firstComma + 1, secondComma);
+            itemBuffer = buffer;
+            itemOffset = fieldStart;
+            itemLength = fieldEnd - fieldStart;
+            trimField(buffer, secondComma + 1, to);
+            if (!headerChecked) {
+                headerChecked = true;
+                if (matches(WAREHOUSE_KEY, warehouseBuffer, warehouseOffset, warehouseLength)
+                        && matches(SKU_KEY, itemBuffer, itemOffset, itemLength)
+                        && matches(QUANTITY_KEY, buffer, fieldStart, fieldEnd - fieldStart)) {
+                    return false;
+                }
+            }
+            quantity = parseQuantity(buffer, fieldStart, fieldEnd);
+            return true;
+        }
+
+        private void parseJson(byte[] buffer, int from, int to) {
+            int position = from;
+            if (buffer[position++] != '{') {
+                throw invalid("expected {");
+            }
+            while (true) {
+                position = skipWhitespace(buffer, position, to);
+                if (position < to && buffer[position] == '}') {
+                    return;
+                }
+                if (position >= to || buffer[position] != '"') {
+                    throw invalid("expected a key");
+                }
+                byte[] keyBuffer = parseJsonString(buffer, position, to);
+                int keyOffset = stringOffset;
+                int keyLength = stringLength;
+                position = skipWhitespace(buffer, valueEnd, to);
+                if (position >= to || buffer[position] != ':') {
+                    throw invalid("expected :");
+                }
+                position = skipWhitespace(buffer, position + 1, to);
+                if (position >= to) {
+                    throw invalid("expected a value");
+                }
+
+                if (matches(WAREHOUSE_KEY, keyBuffer, keyOffset, keyLength)) {
+                    warehouseBuffer = parseJsonString(buffer, position, to);
+                    warehouseOffset = stringOffset;
+                    warehouseLength = stringLength;
+                } else if (matches(SKU_KEY, keyBuffer, keyOffset, keyLength)) {
+                    itemBuffer = parseJsonString(buffer, position, to);
+                    itemOffset = stringOffset;
+                    itemLength = stringLength;
+                } else if (matches(QUANTITY_KEY, keyBuffer, keyOffset, keyLength)) {
+                    int numberEnd = position;
+                    while (numberEnd < to && buffer[numberEnd] != ',' && buffer[numberEnd] != '}' && !isWhitespace(buffer[numberEnd])) {
+                        numberEnd++;
+                    }
+                    quantity = parseQuantity(buffer, position, numberEnd);
+                    valueEnd = numberEnd;
+                } else if (buffer[position] == '"') {
+                    parseJsonString(buffer, position, to);
+                } else {
+                    /* skipping a number, true, false or null */
+                    valueEnd = position;
+                    while (valueEnd < to && buffer[valueEnd] != ',' && buffer[valueEnd] != '}') {
+                        valueEnd++;
+                    }
+                }
+
+                position = skipWhitespace(buffer, valueEnd, to);
+                if (position < to && buffer[position] == ',') {
+                    position++;
+                } else if (position >= to || buffer[position] != '}') {
+                    throw invalid("expected , or }");
+                }
+            }
+        }
+
+        /**
+         * Parses a JSON string starting at the opening quote. Strings without escapes are returned as a slice of the
+         * buffer, strings with escapes are decoded into a new array.
+         *
+         * @return buffer holding the string bytes, with stringOffset and stringLength set
+         */
+        private byte[] parseJsonString(byte[] buffer, int from, int to) {
+            if (buffer[from] != '"') {
+                throw invalid("expected a string");
+            }
+            boolean escaped = false;
+            int position = from + 1;
+            while (position < to && buffer[position] != '"') {
+                if (buffer[position] == '\\') {
+                    escaped = true;
+                    position++;
+                }
+                position++;
+            }
+            if (position >= to) {
+                throw invalid("unterminated string");
+            }
+            valueEnd = position + 1;
+            if (!escaped) {
+                stringOffset = from + 1;
+                stringLength = position - from - 1;
+                return buffer;
+            }
+
+            StringBuilder decoded = new StringBuilder();
+            String raw = new String(buffer, from + 1, position - from - 1, StandardCharsets.UTF_8);
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c != '\\' || i + 1 >= raw.length()) {
+                    decoded.append(c);
+                    continue;
+                }
+                char next = raw.charAt(++i);
+                switch (next) {
+                    case 'n': decoded.append('\n'); break;
+                    case 't': decoded.append('\t'); break;
+                    case 'r': decoded.append('\r'); break;
+                    case 'b': decoded.append('\b'); break;
+                    case 'f': decoded.append('\f'); break;
+                    case 'u':
+                        if (i + 4 >= raw.length()) {
+                            throw invalid("invalid unicode escape");
+                        }
+                        decoded.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                        i += 4;
+                        break;
+                    default: decoded.append(next);
+                }
+            }
+            byte[] bytes = decoded.toString().getBytes(StandardCharsets.UTF_8);
+            stringOffset = 0;
+            stringLength = bytes.length;
+            return bytes;
+        }
+
+        /**
+         * @return warehouse of the current row, created the first time it's name is seen
+         */
+        private Warehouse warehouseFor() {
+            int position = warehouseNames.find(warehouseBuffer, warehouseOffset, warehouseLength);
+            if (position < 0) {
+                position = warehouses.size();
+                warehouses.add(new Warehouse(new String(warehouseBuffer, warehouseOffset, warehouseLength, StandardCharsets.UTF_8)));
+                warehouseNames.put(warehouseBuffer, warehouseOffset, warehouseLength, position);
+            }
+            return warehouses.get(position);
+        }
+
+        /**
+         * @return item id of the current row, looked up in the SkuDictionary the first time it's name is seen
+         */
+        private int itemIdFor() {
+            int itemId = itemNames.find(itemBuffer, itemOffset, itemLength);
+            if (itemId < 0) {
+                itemId = skuDictionary.idOf(new String(itemBuffer, itemOffset, itemLength, StandardCharsets.UTF_8));
+                itemNames.put(itemBuffer, itemOffset, itemLength, itemId);
+            }
+            return itemId;
+        }
+
+        /**
+         * @return quantity or -1 when the bytes are not a non negative number
+         */
+        private static long parseQuantity(byte[] buffer, int from, int to) {
+            if (from >= to || to - from > 10) {
+                return -1;
+            }
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                if (buffer[i] < '0' || buffer[i] > '9') {
+                    return -1;
+                }
+                value = value * 10 + (buffer[i] - '0');
+            }
+            return value;
+        }
+
+        /**
+         * Sets fieldStart and fieldEnd to the field without surrounding whitespace and quotes
+         */
+        private void trimField(byte[] buffer, int from, int to) {
+            from = skipWhitespace(buffer, from, to);
+            while (to > from && isWhitespace(buffer[to - 1])) {
+                to--;
+            }
+            if (to - from >= 2 && buffer[from] == '"' && buffer[to - 1] == '"') {
+                from++;
+                to--;
+            }
+            fieldStart = from;
+            fieldEnd = to;
+        }
+
+        private static int indexOf(byte[] buffer, int from, int to, byte value) {
+            for (int i = from; i < to; i++) {
+                if (buffer[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static int skipWhitespace(byte[] buffer, int from, int to) {
+            while (from < to && isWhitespace(buffer[from])) {
+                from++;
+            }
+            return from;
+        }
+
+        private static boolean isWhitespace(byte value) {
+            return value == ' ' || value == '\t' || value == '\r' || value == '\n';
+        }
+
+        private static boolean matches(byte[] expected, byte[] buffer, int offset, int length) {
+            if (expected.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (expected[i] != buffer[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private IllegalArgumentException invalid(String reason) {
+            return new IllegalArgumentException("Invalid inventory snapshot at line " + lineNumber + " : " + reason);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.deliverr.inventory;
+
+/**
+ * InventoryStorage interface which stores the quantities of a warehouse by item id (see SkuDictionary).
+ *
+ * A warehouse accesses it's storage only while holding the warehouse lock, so implementations need not be thread
+ * safe themselves (see HeapInventoryStorage, OffHeapInventoryTable).
+ * */
+public interface InventoryStorage {
+
+    /**
+     * @param itemId
+     * @return quantity of the item, 0 when the item is not stocked
+     */
+    int get(int itemId);
+
+    /**
+     * @param itemId
+     * @return true/false based on whether the item is stocked
+     */
+    boolean containsKey(int itemId);
+
+    /**
+     * Stocks the item with the quantity, an item put with a quantity of 0 stays stocked until it's removed
+     *
+     * @param itemId (non negative)
+     * @param quantity
+     */
+    void put(int itemId, int quantity);
+
+    /**
+     * @param itemId
+     */
+    void remove(int itemId);
+
+    /**
+     * @return number of items stocked
+     */
+    int size();
+
+    /**
+     * Copies every item stocked and it's quantity to the map
+     *
+     * @param target
+     */
+    void copyTo(IntIntMap target);
+}
@@ -0,0 +1,17 @@
+package org.deliverr.inventory;
+
+/**
+ * ItemIdInventoryListener interface which gets notified of the stock changes by item id (see SkuDictionary), so that
+ * listeners of the package working by item id do not turn the name of the item back into it's id on every change.
+ * A warehouse notifies it instead of InventoryListener.stockChanged.
+ * */
+interface ItemIdInventoryListener extends InventoryListener {
+
+    /**
+     * @param warehouse
+     * @param itemId
+     * @param previousQuantity (0 when the item was not stocked before)
+     * @param newQuantity (0 when the item is no longer stocked)
+     */
+    void stockChanged(Warehouse warehouse, int itemId, int previousQuantity, int newQuantity);
+}
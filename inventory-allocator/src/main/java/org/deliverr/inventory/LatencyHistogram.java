@@ -0,0 +1,111 @@
+package org.deliverr.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * LatencyHistogram class which counts non negative values in log linear buckets, HDR histogram style.
+ *
+ * Values below 32 get a bucket each, larger values share a bucket with the values having the same 5 highest bits,
+ * so every recorded value is reported within about 3% of it's real value. Recording is lock free and never allocates.
+ * */
+public class LatencyHistogram {
+
+    private static final Logger logger = Logger.getLogger(LatencyHistogram.class.getName());
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    private AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private LongAdder totalCount = new LongAdder();
+    private LongAdder totalValue = new LongAdder();
+    private LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param value (negative values are recorded as 0)
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.increment();
+        totalValue.add(value);
+        maxValue.accumulate(value);
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * @return largest recorded value, or 0
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * @return mean of the recorded values, or 0
+     */
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalValue.sum() / count;
+    }
+
+    /**
+     * @param percentile (0 to 100)
+     * @return highest value of the bucket holding the percentile, or 0 when nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            count += counts.get(bucket);
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT && count > 0; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= target) {
+                return Math.min(highestValueOf(bucket), getMax());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Clears the histogram. Values recorded concurrently may or may not be kept.
+     * */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        totalCount.reset();
+        totalValue.reset();
+        maxValue.reset();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long subBucket = bucket % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,77 @@
+package org.deliverr.inventory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * LoopbackTransport class which delivers the requests of the coordinator to nodes of the same process, so that the
+ * whole cluster runs on a single machine, e.g. for the tests.
+ *
+ * A node can be made unavailable, every request to it failing with PartitionUnavailableException, and a node can be
+ * made to crash on the next request of a type: the request is processed by the node but the response is lost and the
+ * node becomes unavailable, the way a node failing mid-commit looks to the coordinator.
+ * */
+public class LoopbackTransport implements PartitionTransport {
+
+    private static final Logger logger = Logger.getLogger(LoopbackTransport.class.getName());
+    private Map<String, PartitionNode> nodes = new HashMap<String, PartitionNode>();
+    private Set<String> unavailableNodes = new HashSet<String>();
+    private Map<String, PartitionRequest.Type> crashes = new HashMap<String, PartitionRequest.Type>(); // request type to crash on, by node
+
+    /**
+     * @param node
+     */
+    public synchronized void register(PartitionNode node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        nodes.put(node.getNodeId(), node);
+    }
+
+    /**
+     * @param nodeId
+     * @param available (false to fail every request to the node)
+     */
+    public synchronized void setAvailable(String nodeId, boolean available) {
+        if (available) {
+            unavailableNodes.remove(nodeId);
+        } else {
+            unavailableNodes.add(nodeId);
+        }
+    }
+
+    /**
+     * Makes the node crash after processing the next request of the type
+     *
+     * @param nodeId
+     * @param type
+     */
+    public synchronized void crashOnNext(String nodeId, PartitionRequest.Type type) {
+        crashes.put(nodeId, type);
+    }
+
+    @Override
+    public PartitionResponse send(String nodeId, PartitionRequest request) {
+        PartitionNode node = null;
+        boolean crash = false;
+        synchronized (this) {
+            node = nodes.get(nodeId);
+            if (node == null || unavailableNodes.contains(nodeId)) {
+                throw new PartitionUnavailableException(nodeId);
+            }
+            if (crashes.get(nodeId) == request.getType()) {
+                crashes.remove(nodeId);
+                crash = true;
+            }
+        }
+        PartitionResponse response = node.handle(request);
+        if (crash) {
+            setAvailable(nodeId, false);
+            throw new PartitionUnavailableException(nodeId);
+        }
+        return response;
+    }
+}
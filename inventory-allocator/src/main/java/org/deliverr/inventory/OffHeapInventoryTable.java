@@ -0,0 +1,201 @@
+package org.deliverr.inventory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.logging.Logger;
+
+/**
+ * OffHeapInventoryTable class which stores the quantities of many warehouses outside of the heap, as a dense
+ * (warehouse x item id) table of ints in direct ByteBuffers, within a fixed memory budget.
+ *
+ * Every warehouse gets a row of the table (see newStorage), indexed directly by item id (see SkuDictionary). A row is
+ * split in pages of PAGE_ITEMS quantities which are only allocated once an item of the page is stocked, so a catalog
+ * can keep growing and a warehouse stocking a part of it only pays for the pages it touches. Pages are cut from direct
+ * slabs of at most SLAB_PAGES pages and are never given back, the table holds at most memoryBudget bytes of slabs.
+ * The heap only holds a reference for every page, which takes the quantities out of the garbage collected heap.
+ * Every page ends with a bitmap of the items stocked, so that an item put with a quantity of 0 stays stocked until it's
+ * removed, the same way as in HeapInventoryStorage.
+ * */
+public class OffHeapInventoryTable {
+
+    private static final Logger logger = Logger.getLogger(OffHeapInventoryTable.class.getName());
+    private static final int PAGE_SHIFT = 10;
+    static final int PAGE_ITEMS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_ITEMS - 1;
+    private static final int PRESENCE_OFFSET = PAGE_ITEMS * 4; // offset of the bitmap of the items stocked in a page
+    static final int PAGE_BYTES = PRESENCE_OFFSET + PAGE_ITEMS / 8;
+    private static final int SLAB_PAGES = 256;
+    private long memoryBudget = 0;
+    private long allocatedBytes = 0; // bytes of all the slabs allocated
+    private long pageCount = 0;
+    private int rowCount = 0;
+    private ByteBuffer slab = null; // current slab, the pages are cut from it's position on
+
+    /**
+     * @param memoryBudget (maximum number of bytes allocated outside of the heap, at least PAGE_BYTES)
+     * */
+    public OffHeapInventoryTable(long memoryBudget) {
+        if (memoryBudget < PAGE_BYTES) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * @return new empty row of the table, to be used by a single warehouse
+     */
+    public synchronized InventoryStorage newStorage() {
+        rowCount++;
+        return new Row();
+    }
+
+    /**
+     * @param warehouseName
+     * @return new warehouse storing it's quantities in a new row of the table
+     */
+    public Warehouse newWarehouse(String warehouseName) {
+        return new Warehouse(warehouseName, newStorage());
+    }
+
+    /**
+     * @return maximum number of bytes allocated outside of the heap
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return number of bytes allocated outside of the heap
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return number of bytes of the pages handed out to the rows
+     */
+    public synchronized long getUsedBytes() {
+        return pageCount * PAGE_BYTES;
+    }
+
+    /**
+     * @return number of rows (warehouses) of the table
+     */
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Cuts a zeroed page from the current slab, allocating a new slab when it is full
+     *
+     * @return page of PAGE_ITEMS quantities followed by their bitmap, in the native byte order
+     */
+    private synchronized ByteBuffer allocatePage() {
+        if (slab == null || slab.remaining() < PAGE_BYTES) {
+            long slabBytes = Math.min((long) SLAB_PAGES * PAGE_BYTES, memoryBudget - allocatedBytes) / PAGE_BYTES * PAGE_BYTES;
+            if (slabBytes < PAGE_BYTES) {
+                throw new IllegalStateException("Off-heap memory budget of " + memoryBudget + " bytes exceeded");
+            }
+            slab = ByteBuffer.allocateDirect((int) slabBytes);
+            allocatedBytes += slabBytes;
+        }
+        int end = slab.position() + PAGE_BYTES;
+        slab.limit(end);
+        ByteBuffer page = slab.slice().order(ByteOrder.nativeOrder());
+        slab.limit(slab.capacity());
+        slab.position(end);
+        pageCount++;
+        return page;
+    }
+
+    /**
+     * Row class which stores the quantities of a single warehouse in pages of the table
+     * */
+    private class Row implements InventoryStorage {
+        private ByteBuffer[] pages = new ByteBuffer[0]; // pages by page number (item id / PAGE_ITEMS), null when not allocated
+        private int size = 0;
+
+        @Override
+        public int get(int itemId) {
+            int page = itemId >>> PAGE_SHIFT;
+            if (page >= pages.length || pages[page] == null) {
+                return 0;
+            }
+            return pages[page].getInt((itemId & PAGE_MASK) << 2);
+        }
+
+        @Override
+        public boolean containsKey(int itemId) {
+            int page = itemId >>> PAGE_SHIFT;
+            return page < pages.length && pages[page] != null && isStocked(pages[page], itemId & PAGE_MASK);
+        }
+
+        @Override
+        public void put(int itemId, int quantity) {
+            if (itemId < 0 || quantity < 0) {
+                throw new IllegalArgumentException("Please pass valid input");
+            }
+            int page = itemId >>> PAGE_SHIFT;
+            if (page >= pages.length) {
+                ByteBuffer[] grown = new ByteBuffer[Math.max(page + 1, pages.length * 2)];
+                System.arraycopy(pages, 0, grown, 0, pages.length);
+                pages = grown;
+            }
+            if (pages[page] == null) {
+                pages[page] = allocatePage();
+            }
+            int item = itemId & PAGE_MASK;
+            if (!isStocked(pages[page], item)) {
+                setStocked(pages[page], item, true);
+                size++;
+            }
+            pages[page].putInt(item << 2, quantity);
+        }
+
+        @Override
+        public void remove(int itemId) {
+            int page = itemId >>> PAGE_SHIFT;
+            if (page >= pages.length || pages[page] == null) {
+                return;
+            }
+            int item = itemId & PAGE_MASK;
+            if (isStocked(pages[page], item)) {
+                setStocked(pages[page], item, false);
+                pages[page].putInt(item << 2, 0);
+                size--;
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void copyTo(IntIntMap target) {
+            for (int page = 0; page < pages.length; page++) {
+                if (pages[page] == null) {
+                    continue;
+                }
+                for (int word = 0; word < PAGE_ITEMS / 64; word++) {
+                    long stocked = pages[page].getLong(PRESENCE_OFFSET + (word << 3));
+                    while (stocked != 0) {
+                        int item = (word << 6) | Long.numberOfTrailingZeros(stocked);
+                        target.put((page << PAGE_SHIFT) | item, pages[page].getInt(item << 2));
+                        stocked &= stocked - 1;
+                    }
+                }
+            }
+        }
+
+        private boolean isStocked(ByteBuffer page, int item) {
+            return (page.getLong(PRESENCE_OFFSET + ((item >>> 6) << 3)) & (1L << item)) != 0;
+        }
+
+        private void setStocked(ByteBuffer page, int item, boolean stocked) {
+            int offset = PRESENCE_OFFSET + ((item >>> 6) << 3);
+            long word = page.getLong(offset);
+            page.putLong(offset, stocked ? word | (1L << item) : word & ~(1L << item));
+        }
+    }
+}
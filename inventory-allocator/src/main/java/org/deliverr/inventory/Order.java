@@ -0,0 +1,112 @@
+package org.deliverr.inventory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Order class which stores different orders made
+ *
+ * Quantities are stored by item id (see SkuDictionary) in an IntIntMap, the methods taking item names are a facade
+ * over the ids.
+ * */
+public class Order {
+    private static final Logger logger = Logger.getLogger(Order.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private IntIntMap orderItems = new IntIntMap(); // map to store the orders (by item id) and it's quantity
+    private int priority = 0; // higher priority orders are allocated first in a batch
+    private String destinationZone = null; // zone the order ships to, used by WarehouseRouter
+
+    /**
+     * @param orderItemName
+     * @param orderItemQuantity
+     */
+    public void addOrders(String orderItemName, int orderItemQuantity){
+        if(orderItemQuantity <0 || orderItemName.isEmpty()){
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        orderItems.put(skuDictionary.idOf(orderItemName), orderItemQuantity);
+    }
+
+    /**
+     *
+     * @param orderItemName
+     * @return quantity of the orderItem which was ordered
+     */
+    public int getOrderItemsQuantity(String orderItemName) {
+        int orderItemId = skuDictionary.lookup(orderItemName);
+        return orderItemId < 0 ? -1 : orderItems.get(orderItemId, -1);
+    }
+
+    /**
+     * @return copy of the set of name of the orderItems
+     */
+    public Set<String> getOrderItemsName() {
+        Set<String> orderItemNames = new HashSet<String>();
+        for (int slot = 0; slot < orderItems.capacity(); slot++) {
+            if (orderItems.isUsed(slot)) {
+                orderItemNames.add(skuDictionary.nameOf(orderItems.keyAt(slot)));
+            }
+        }
+        return orderItemNames;
+    }
+
+    /**
+     * @param orderItemName
+     */
+    public void removeOrderItems(String orderItemName) {
+        int orderItemId = skuDictionary.lookup(orderItemName);
+        if (orderItemId >= 0) {
+            orderItems.remove(orderItemId);
+        }
+    }
+
+    /**
+     * Removes all the orderItems, keeping the priority, so that the order can be reused
+     */
+    public void clear() {
+        orderItems.clear();
+    }
+
+    /**
+     * @return quantities of the order by item id, owned by the order
+     */
+    IntIntMap getOrderItems() {
+        return orderItems;
+    }
+
+    /**
+     * @return size of orderItems
+     */
+    public boolean getOrderSize() {
+        return orderItems.size() == 0;
+    }
+
+    /**
+     * @return priority of the order
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @param priority (higher priority orders are allocated first by BatchOrderingPolicy.PRIORITY)
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return zone the order ships to or null
+     */
+    public String getDestinationZone() {
+        return destinationZone;
+    }
+
+    /**
+     * @param destinationZone (warehouses are ranked for the zone by WarehouseRouter)
+     */
+    public void setDestinationZone(String destinationZone) {
+        this.destinationZone = destinationZone;
+    }
+}
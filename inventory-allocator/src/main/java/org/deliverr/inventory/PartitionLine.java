@@ -0,0 +1,72 @@
+package org.deliverr.inventory;
+
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * PartitionLine class which stores a quantity of an item in a warehouse of a partition, by names so that it can be
+ * sent between nodes: the stock offered by a node, or the stock to be taken by a prepared transaction.
+ * */
+public class PartitionLine {
+
+    private static final Logger logger = Logger.getLogger(PartitionLine.class.getName());
+    private String warehouseName = null;
+    private String itemName = null;
+    private int quantity = 0;
+
+    /**
+     * @param warehouseName
+     * @param itemName
+     * @param quantity
+     */
+    public PartitionLine(String warehouseName, String itemName, int quantity) {
+        this.warehouseName = warehouseName;
+        this.itemName = itemName;
+        this.quantity = quantity;
+    }
+
+    /**
+     * @return name of the warehouse
+     */
+    public String getWarehouseName() {
+        return warehouseName;
+    }
+
+    /**
+     * @return name of the item
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * @return quantity of the item
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Overriding the default equals method to compare two lines
+     *
+     * @param obj (Object of PartitionLine Instance)
+     * @return true/false based on line match
+     * */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof PartitionLine))
+            return false;
+
+        PartitionLine line = (PartitionLine) obj;
+        return Objects.equals(line.warehouseName, this.warehouseName) && Objects.equals(line.itemName, this.itemName)
+                && line.quantity == this.quantity;
+    }
+
+    /**
+     * Overriding the default hashCode method consistently with equals
+     * */
+    @Override
+    public int hashCode() {
+        return Objects.hash(warehouseName, itemName, quantity);
+    }
+}
@@ -0,0 +1,143 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * PartitionNode class which owns a partition of the warehouses (see ConsistentHashRing) and answers the requests of
+ * the coordinator (see PartitionedInventoryAllocator).
+ *
+ * A PREPARE takes the stock of it's lines out of the warehouses, all or nothing, and keeps it aside until the COMMIT
+ * ships it or the ABORT puts it back, so a prepared node can always commit. Requests are idempotent: a PREPARE of a
+ * transaction already prepared votes yes again when it carries the same lines, a COMMIT or ABORT of an unknown transaction does nothing, so the
+ * coordinator can resend a decision until it's delivered.
+ * */
+public class PartitionNode {
+
+    private static final Logger logger = Logger.getLogger(PartitionNode.class.getName());
+    private static final List<PartitionLine> NO_LINES = Collections.emptyList();
+    private String nodeId = null;
+    private Map<String, Warehouse> warehouses = new LinkedHashMap<String, Warehouse>();
+    private Map<String, List<PartitionLine>> prepared = new HashMap<String, List<PartitionLine>>(); // stock taken aside by transaction
+
+    /**
+     * @param nodeId
+     */
+    public PartitionNode(String nodeId) {
+        if (nodeId == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * @return id of the node
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @param warehouse (owned by the node)
+     */
+    public synchronized void addWarehouse(Warehouse warehouse) {
+        if (warehouse == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        warehouses.put(warehouse.getWarehouseName(), warehouse);
+    }
+
+    /**
+     * @param warehouseName
+     * @return warehouse owned by the node, null when the node does not own it
+     */
+    public synchronized Warehouse getWarehouse(String warehouseName) {
+        return warehouses.get(warehouseName);
+    }
+
+    /**
+     * @return number of transactions prepared and waiting for a decision
+     */
+    public synchronized int getPreparedCount() {
+        return prepared.size();
+    }
+
+    /**
+     * @param request
+     * @return response to the request
+     */
+    public synchronized PartitionResponse handle(PartitionRequest request) {
+        switch (request.getType()) {
+            case OFFER:
+                return offer(request.getItemNames());
+            case PREPARE:
+                return new PartitionResponse(prepare(request.getTransactionId(), request.getLines()), NO_LINES);
+            case COMMIT:
+                prepared.remove(request.getTransactionId());
+                return new PartitionResponse(true, NO_LINES);
+            case ABORT:
+                abort(request.getTransactionId());
+                return new PartitionResponse(true, NO_LINES);
+            default:
+                throw new IllegalArgumentException("Please pass valid input");
+        }
+    }
+
+    private PartitionResponse offer(List<String> itemNames) {
+        List<PartitionLine> lines = new ArrayList<PartitionLine>();
+        for (Warehouse warehouse : warehouses.values()) {
+            for (String itemName : itemNames) {
+                int quantity = warehouse.getItemQuantity(itemName);
+                if (quantity > 0) {
+                    lines.add(new PartitionLine(warehouse.getWarehouseName(), itemName, quantity));
+                }
+            }
+        }
+        return new PartitionResponse(true, lines);
+    }
+
+    /**
+     * @return true/false based on whether the stock of all the lines was taken aside
+     */
+    private boolean prepare(String transactionId, List<PartitionLine> lines) {
+        List<PartitionLine> preparedLines = prepared.get(transactionId);
+        if (preparedLines != null) {
+            /* a resent PREPARE, a different transaction reusing the id must not be voted for with stock it never took */
+            if (!preparedLines.equals(lines)) {
+                logger.warning("Transaction " + transactionId + " is already prepared with other lines, voting no");
+                return false;
+            }
+            return true;
+        }
+        List<PartitionLine> taken = new ArrayList<PartitionLine>();
+        for (PartitionLine line : lines) {
+            Warehouse warehouse = warehouses.get(line.getWarehouseName());
+            if (warehouse == null || !warehouse.takeStock(line.getItemName(), line.getQuantity())) {
+                /* stock moved since the offer, put back what was taken and vote no */
+                returnStock(taken);
+                return false;
+            }
+            taken.add(line);
+        }
+        prepared.put(transactionId, taken);
+        return true;
+    }
+
+    private void abort(String transactionId) {
+        List<PartitionLine> taken = prepared.remove(transactionId);
+        if (taken != null) {
+            returnStock(taken);
+        }
+    }
+
+    private void returnStock(List<PartitionLine> lines) {
+        for (PartitionLine line : lines) {
+            warehouses.get(line.getWarehouseName()).returnStock(line.getItemName(), line.getQuantity());
+        }
+    }
+}
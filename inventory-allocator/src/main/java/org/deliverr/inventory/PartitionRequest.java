@@ -0,0 +1,105 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * PartitionRequest class which stores a request of the coordinator (see PartitionedInventoryAllocator) to a node
+ * owning a partition of the warehouses (see PartitionNode).
+ * */
+public class PartitionRequest {
+
+    private static final Logger logger = Logger.getLogger(PartitionRequest.class.getName());
+
+    /**
+     * Type enum of the requests, OFFER outside of any transaction and the others for the two phase commit
+     * */
+    public enum Type {
+        /* stock of the ordered items in every warehouse of the node */
+        OFFER,
+        /* takes the stock of the lines aside, all or nothing, and votes */
+        PREPARE,
+        /* ships the stock taken aside */
+        COMMIT,
+        /* puts the stock taken aside back */
+        ABORT
+    }
+
+    private Type type = null;
+    private String transactionId = null;
+    private List<String> itemNames = Collections.emptyList();
+    private List<PartitionLine> lines = Collections.emptyList();
+
+    private PartitionRequest(Type type, String transactionId) {
+        this.type = type;
+        this.transactionId = transactionId;
+    }
+
+    /**
+     * @param itemNames
+     * @return request of the stock of the items
+     */
+    public static PartitionRequest offer(Collection<String> itemNames) {
+        PartitionRequest request = new PartitionRequest(Type.OFFER, null);
+        request.itemNames = Collections.unmodifiableList(new ArrayList<String>(itemNames));
+        return request;
+    }
+
+    /**
+     * @param transactionId
+     * @param lines (stock to take in the warehouses of the node)
+     * @return request to prepare the transaction
+     */
+    public static PartitionRequest prepare(String transactionId, List<PartitionLine> lines) {
+        PartitionRequest request = new PartitionRequest(Type.PREPARE, transactionId);
+        request.lines = Collections.unmodifiableList(new ArrayList<PartitionLine>(lines));
+        return request;
+    }
+
+    /**
+     * @param transactionId
+     * @return request to commit the prepared transaction
+     */
+    public static PartitionRequest commit(String transactionId) {
+        return new PartitionRequest(Type.COMMIT, transactionId);
+    }
+
+    /**
+     * @param transactionId
+     * @return request to abort the transaction, prepared or not
+     */
+    public static PartitionRequest abort(String transactionId) {
+        return new PartitionRequest(Type.ABORT, transactionId);
+    }
+
+    /**
+     * @return type of the request
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return id of the transaction, unique across coordinators, null for an offer
+     */
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * @return items of an offer
+     */
+    public List<String> getItemNames() {
+        return itemNames;
+    }
+
+    /**
+     * @return lines of a prepare
+     */
+    public List<PartitionLine> getLines() {
+        return lines;
+    }
+}
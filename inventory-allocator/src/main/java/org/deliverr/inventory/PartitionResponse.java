@@ -0,0 +1,40 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * PartitionResponse class which stores the answer of a node to a PartitionRequest: the stock offered, or the vote of
+ * a prepare.
+ * */
+public class PartitionResponse {
+
+    private static final Logger logger = Logger.getLogger(PartitionResponse.class.getName());
+    private boolean accepted = false;
+    private List<PartitionLine> lines = null;
+
+    /**
+     * @param accepted (vote of a prepare, true for the other requests)
+     * @param lines (stock offered, empty for the other requests)
+     */
+    public PartitionResponse(boolean accepted, List<PartitionLine> lines) {
+        this.accepted = accepted;
+        this.lines = Collections.unmodifiableList(new ArrayList<PartitionLine>(lines));
+    }
+
+    /**
+     * @return true/false based on whether the request was accepted
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return stock offered by the node
+     */
+    public List<PartitionLine> getLines() {
+        return lines;
+    }
+}
@@ -0,0 +1,17 @@
+package org.deliverr.inventory;
+
+/**
+ * PartitionTransport interface which carries the requests of the coordinator to the nodes (see
+ * PartitionedInventoryAllocator). LoopbackTransport delivers them in process, a network transport can be plugged in
+ * the same way.
+ * */
+public interface PartitionTransport {
+
+    /**
+     * @param nodeId
+     * @param request
+     * @return response of the node
+     * @throws PartitionUnavailableException when the node can not be reached or fails before answering
+     */
+    PartitionResponse send(String nodeId, PartitionRequest request);
+}
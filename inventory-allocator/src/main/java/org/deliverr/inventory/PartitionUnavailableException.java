@@ -0,0 +1,17 @@
+package org.deliverr.inventory;
+
+/**
+ * PartitionUnavailableException which is thrown by a PartitionTransport when a node can not be reached or fails
+ * before answering. The request may or may not have been processed by the node.
+ * */
+public class PartitionUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param nodeId
+     */
+    public PartitionUnavailableException(String nodeId) {
+        super("Partition node " + nodeId + " is unavailable");
+    }
+}
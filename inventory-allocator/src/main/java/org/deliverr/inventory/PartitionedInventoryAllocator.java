@@ -0,0 +1,246 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * PartitionedInventoryAllocator class which allocates orders over warehouses partitioned between nodes, acting as the
+ * coordinator of the allocation.
+ *
+ * Every warehouse is owned by the node the ring assigns it's name to (see ConsistentHashRing). The coordinator asks
+ * every owner for it's stock of the ordered items (OFFER), plans the shipments from the offers the same cheapest first
+ * way as InventoryAllocator.allocateShipment, and commits the plan in two phases: every participant takes it's lines
+ * aside (PREPARE) and votes, then the coordinator sends the decision (COMMIT when all voted yes, ABORT otherwise).
+ * A participant which can not be reached during the prepare counts as a no vote (presumed abort). A decision which
+ * can not be delivered is kept and sent again by resolvePendingDecisions, the participant holding the stock aside
+ * until then. Decisions are kept in memory, so the coordinator itself is not recovered after a crash.
+ * Transaction ids are the random id of the coordinator followed by a counter, so that several coordinators can share
+ * the nodes without their transactions being mistaken for one another.
+ * Nodes are reached through a PartitionTransport, e.g. LoopbackTransport to run the cluster in a single process.
+ * */
+public class PartitionedInventoryAllocator {
+
+    private static final Logger logger = Logger.getLogger(PartitionedInventoryAllocator.class.getName());
+    private List<String> warehouseNames = null;
+    private ConsistentHashRing ring = null;
+    private PartitionTransport transport = null;
+    private String coordinatorId = UUID.randomUUID().toString();
+    private AtomicLong nextTransactionId = new AtomicLong();
+    private List<PendingDecision> pendingDecisions = new ArrayList<PendingDecision>();
+
+    /**
+     * @param warehouseNames (cheapest first)
+     * @param ring (assigning the warehouses to the nodes)
+     * @param transport
+     */
+    public PartitionedInventoryAllocator(List<String> warehouseNames, ConsistentHashRing ring, PartitionTransport transport) {
+        if (warehouseNames == null || ring == null || transport == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.warehouseNames = new ArrayList<String>(warehouseNames);
+        this.ring = ring;
+        this.transport = transport;
+    }
+
+    /**
+     * @param order
+     * @return list of shipments in the cheapest first order, empty when the order can not be shipped or committed
+     */
+    public List<Shipment> allocateShipment(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        List<Shipment> shipments = new ArrayList<Shipment>();
+        if (order.getOrderItemsName().isEmpty()) {
+            return shipments;
+        }
+
+        Map<String, Map<String, Integer>> offers = gatherOffers(order);
+        Map<String, List<PartitionLine>> linesByWarehouse = plan(order, offers);
+        if (linesByWarehouse == null) {
+            return shipments;
+        }
+
+        /* lines of every participant, a node owning several warehouses prepares them at once */
+        Map<String, List<PartitionLine>> linesByNode = new LinkedHashMap<String, List<PartitionLine>>();
+        for (Map.Entry<String, List<PartitionLine>> entry : linesByWarehouse.entrySet()) {
+            String nodeId = ring.getOwner(entry.getKey());
+            if (!linesByNode.containsKey(nodeId)) {
+                linesByNode.put(nodeId, new ArrayList<PartitionLine>());
+            }
+            linesByNode.get(nodeId).addAll(entry.getValue());
+        }
+
+        String transactionId = coordinatorId + "-" + nextTransactionId.incrementAndGet();
+        if (!prepare(transactionId, linesByNode)) {
+            decide(PartitionRequest.abort(transactionId), linesByNode);
+            return shipments;
+        }
+        decide(PartitionRequest.commit(transactionId), linesByNode);
+
+        for (Map.Entry<String, List<PartitionLine>> entry : linesByWarehouse.entrySet()) {
+            Shipment shipment = new Shipment(entry.getKey());
+            for (PartitionLine line : entry.getValue()) {
+                shipment.addOrders(line.getItemName(), line.getQuantity());
+            }
+            shipments.add(shipment);
+        }
+        return shipments;
+    }
+
+    /**
+     * @return stock of the ordered items by warehouse and item, the warehouses of unreachable nodes left out
+     */
+    private Map<String, Map<String, Integer>> gatherOffers(Order order) {
+        Map<String, List<String>> warehousesByNode = new LinkedHashMap<String, List<String>>();
+        for (String warehouseName : warehouseNames) {
+            String nodeId = ring.getOwner(warehouseName);
+            if (!warehousesByNode.containsKey(nodeId)) {
+                warehousesByNode.put(nodeId, new ArrayList<String>());
+            }
+            warehousesByNode.get(nodeId).add(warehouseName);
+        }
+        PartitionRequest request = PartitionRequest.offer(order.getOrderItemsName());
+        Map<String, Map<String, Integer>> offers = new HashMap<String, Map<String, Integer>>();
+        for (Map.Entry<String, List<String>> entry : warehousesByNode.entrySet()) {
+            try {
+                for (PartitionLine line : transport.send(entry.getKey(), request).getLines()) {
+                    /* a node only offers the warehouses the ring assigns to it */
+                    if (entry.getValue().contains(line.getWarehouseName())) {
+                        if (!offers.containsKey(line.getWarehouseName())) {
+                            offers.put(line.getWarehouseName(), new HashMap<String, Integer>());
+                        }
+                        offers.get(line.getWarehouseName()).put(line.getItemName(), line.getQuantity());
+                    }
+                }
+            } catch (PartitionUnavailableException e) {
+                logger.warning(e.getMessage() + ", it's warehouses are left out of the allocation");
+            }
+        }
+        return offers;
+    }
+
+    /**
+     * @return lines to take by warehouse in the cheapest first order, null when the offers can not ship the order
+     */
+    private Map<String, List<PartitionLine>> plan(Order order, Map<String, Map<String, Integer>> offers) {
+        Map<String, Integer> remaining = new HashMap<String, Integer>();
+        for (String itemName : order.getOrderItemsName()) {
+            int quantity = order.getOrderItemsQuantity(itemName);
+            if (quantity > 0) {
+                remaining.put(itemName, quantity);
+            }
+        }
+        Map<String, List<PartitionLine>> linesByWarehouse = new LinkedHashMap<String, List<PartitionLine>>();
+        for (String warehouseName : warehouseNames) {
+            Map<String, Integer> stock = offers.get(warehouseName);
+            if (stock == null || remaining.isEmpty()) {
+                continue;
+            }
+            Iterator<Map.Entry<String, Integer>> iterator = remaining.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Integer> entry = iterator.next();
+                Integer available = stock.get(entry.getKey());
+                if (available == null) {
+                    continue;
+                }
+                int taken = Math.min(available, entry.getValue());
+                if (!linesByWarehouse.containsKey(warehouseName)) {
+                    linesByWarehouse.put(warehouseName, new ArrayList<PartitionLine>());
+                }
+                linesByWarehouse.get(warehouseName).add(new PartitionLine(warehouseName, entry.getKey(), taken));
+                if (taken == entry.getValue()) {
+                    iterator.remove();
+                } else {
+                    entry.setValue(entry.getValue() - taken);
+                }
+            }
+        }
+        return remaining.isEmpty() ? linesByWarehouse : null;
+    }
+
+    /**
+     * @return true/false based on whether every participant voted yes
+     */
+    private boolean prepare(String transactionId, Map<String, List<PartitionLine>> linesByNode) {
+        for (Map.Entry<String, List<PartitionLine>> entry : linesByNode.entrySet()) {
+            try {
+                if (!transport.send(entry.getKey(), PartitionRequest.prepare(transactionId, entry.getValue())).isAccepted()) {
+                    logger.fine("Node " + entry.getKey() + " voted no on transaction " + transactionId);
+                    return false;
+                }
+            } catch (PartitionUnavailableException e) {
+                logger.warning(e.getMessage() + ", aborting transaction " + transactionId);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends the decision to every participant, keeping it for the participants which can not be reached
+     */
+    private void decide(PartitionRequest decision, Map<String, List<PartitionLine>> linesByNode) {
+        for (String nodeId : linesByNode.keySet()) {
+            try {
+                transport.send(nodeId, decision);
+            } catch (PartitionUnavailableException e) {
+                logger.warning(e.getMessage() + ", keeping the " + decision.getType() + " of transaction "
+                        + decision.getTransactionId());
+                synchronized (pendingDecisions) {
+                    pendingDecisions.add(new PendingDecision(nodeId, decision));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the decisions kept for unreachable participants again, e.g. once the nodes are back
+     *
+     * @return number of decisions still pending
+     */
+    public int resolvePendingDecisions() {
+        synchronized (pendingDecisions) {
+            Iterator<PendingDecision> iterator = pendingDecisions.iterator();
+            while (iterator.hasNext()) {
+                PendingDecision pendingDecision = iterator.next();
+                try {
+                    transport.send(pendingDecision.nodeId, pendingDecision.decision);
+                    iterator.remove();
+                } catch (PartitionUnavailableException e) {
+                    logger.fine(e.getMessage() + ", the decision stays pending");
+                }
+            }
+            return pendingDecisions.size();
+        }
+    }
+
+    /**
+     * @return number of decisions which could not be delivered yet
+     */
+    public int getPendingDecisionCount() {
+        synchronized (pendingDecisions) {
+            return pendingDecisions.size();
+        }
+    }
+
+    /**
+     * PendingDecision class which stores a decision to deliver to a participant
+     * */
+    private static class PendingDecision {
+        private String nodeId = null;
+        private PartitionRequest decision = null;
+
+        PendingDecision(String nodeId, PartitionRequest decision) {
+            this.nodeId = nodeId;
+            this.decision = decision;
+        }
+    }
+}
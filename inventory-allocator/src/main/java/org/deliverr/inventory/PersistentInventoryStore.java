@@ -0,0 +1,292 @@
+package org.deliverr.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * PersistentInventoryStore class which keeps the stock of a set of warehouses on disk, so that it survives a restart
+ * or a crash.
+ *
+ * The store listens to the stock changes of it's warehouses (see InventoryListener). The changes of a transaction
+ * are appended to an allocation journal (see AllocationJournal) and forced to the disk before the transaction
+ * returns, and then written to a memory mapped stock table (see StockTable). Every checkpoint forces the table to the
+ * disk and empties the journal. Opening the store replays the journal over the table, so a restart only reads the
+ * table and the changes since the last checkpoint, and every transaction which returned is recovered.
+ *
+ * Usage:
+ *     PersistentInventoryStore store = PersistentInventoryStore.open(directory);
+ *     List<Warehouse> warehouses = store.getWarehouses(); // recovered warehouses, empty the first time
+ *     store.addWarehouse(new Warehouse("owd"));
+ *     store.commit(inventoryAllocator.planShipment(order, warehouses));
+ *
+ * A stock change made outside runInTransaction or commit is a transaction of it's own.
+ *
+ * The journal records the new quantities, not the deltas, so transactions have to reach it in the order of their
+ * changes, and a transaction must not be overtaken by a change made on top of it. A transaction therefore holds the
+ * locks of the warehouses it may change until it is written, taking them in the order of the warehouses of the store,
+ * and a stock change of it's own is written while the warehouse lock of the change is held.
+ * */
+public class PersistentInventoryStore implements InventoryListener, Closeable {
+
+    private static final Logger logger = Logger.getLogger(PersistentInventoryStore.class.getName());
+    private static final String STOCK_TABLE_FILE = "stock.dat";
+    private static final String JOURNAL_FILE = "allocation.journal";
+    private static final long DEFAULT_CHECKPOINT_BYTES = 4 * 1024 * 1024;
+    private StockTable stockTable = null;
+    private AllocationJournal allocationJournal = null;
+    private long checkpointBytes = DEFAULT_CHECKPOINT_BYTES;
+    private List<Warehouse> warehouses = new CopyOnWriteArrayList<Warehouse>(); // warehouses in the order they were added
+    private Map<String, Warehouse> warehousesByName = new ConcurrentHashMap<String, Warehouse>();
+    private ThreadLocal<Map<String, Map<String, Integer>>> transactions = new ThreadLocal<Map<String, Map<String, Integer>>>();
+
+    private PersistentInventoryStore() {}
+
+    /**
+     * Opens the store in the directory, forcing every transaction to the disk
+     *
+     * @param directory (created when it does not exist)
+     * @return store holding the recovered warehouses
+     * @throws IOException
+     */
+    public static PersistentInventoryStore open(Path directory) throws IOException {
+        return open(directory, true, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    /**
+     * @param directory (created when it does not exist)
+     * @param syncOnCommit (false to leave the journal to the operating system, a crash of the machine then loses the
+     *                     last transactions, a crash of the process does not)
+     * @param checkpointBytes size of the journal from which a checkpoint is taken
+     * @return store holding the recovered warehouses
+     * @throws IOException
+     */
+    public static PersistentInventoryStore open(Path directory, boolean syncOnCommit, long checkpointBytes) throws IOException {
+        if (checkpointBytes <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        Files.createDirectories(directory);
+        PersistentInventoryStore store = new PersistentInventoryStore();
+        store.checkpointBytes = checkpointBytes;
+        store.stockTable = StockTable.open(directory.resolve(STOCK_TABLE_FILE));
+        store.allocationJournal = AllocationJournal.open(directory.resolve(JOURNAL_FILE), syncOnCommit);
+        int transactions = store.allocationJournal.replay(store.stockTable);
+        store.checkpoint();
+
+        for (String warehouseName : store.stockTable.getWarehouseNames()) {
+            Warehouse warehouse = new Warehouse(warehouseName);
+            for (Map.Entry<String, Integer> quantity : store.stockTable.getQuantities(warehouseName).entrySet()) {
+                if (quantity.getValue() > 0) {
+                    warehouse.addOrders(quantity.getKey(), quantity.getValue());
+                }
+            }
+            warehouse.addInventoryListener(store);
+            store.warehouses.add(warehouse);
+            store.warehousesByName.put(warehouseName, warehouse);
+        }
+        logger.info("Recovered " + store.warehouses.size() + " warehouses from " + directory + ", replaying " + transactions + " journal transactions");
+        return store;
+    }
+
+    /**
+     * @return warehouses of the store in the order they were added
+     */
+    public List<Warehouse> getWarehouses() {
+        return Collections.unmodifiableList(new ArrayList<Warehouse>(warehouses));
+    }
+
+    /**
+     * @param warehouseName
+     * @return warehouse of the store or null
+     */
+    public Warehouse getWarehouse(String warehouseName) {
+        return warehousesByName.get(warehouseName);
+    }
+
+    /**
+     * Adds the warehouse to the store and persists it's current stock
+     *
+     * @param warehouse (named differently from every warehouse of the store)
+     */
+    public void addWarehouse(Warehouse warehouse) {
+        /* the warehouse lock is taken before the store lock, as for every stock change, so no change of the warehouse
+           is written before the warehouse and it's current stock */
+        synchronized (warehouse) {
+            synchronized (this) {
+                if (warehousesByName.containsKey(warehouse.getWarehouseName())) {
+                    throw new IllegalArgumentException("Please pass valid input");
+                }
+                IntIntMap quantities = warehouse.addInventoryListenerAndCopy(this);
+                warehousesByName.put(warehouse.getWarehouseName(), warehouse);
+                warehouses.add(warehouse);
+
+                Map<String, Integer> itemQuantities = new LinkedHashMap<String, Integer>();
+                for (int slot = 0; slot < quantities.capacity(); slot++) {
+                    if (quantities.isUsed(slot)) {
+                        itemQuantities.put(SkuDictionary.getSkuDictionaryInstance().nameOf(quantities.keyAt(slot)),
+                                quantities.valueAt(slot));
+                    }
+                }
+                Map<String, Map<String, Integer>> changes = new LinkedHashMap<String, Map<String, Integer>>();
+                changes.put(warehouse.getWarehouseName(), itemQuantities);
+                write(changes);
+            }
+        }
+    }
+
+    /**
+     * Runs the changes as one transaction: the stock changes they make are written together, and are on the disk
+     * when this method returns. Changes made before an exception are written as well. The transaction holds the locks
+     * of all the warehouses of the store, so stock changes of other threads wait for it.
+     *
+     * @param changes
+     */
+    public void runInTransaction(Runnable changes) {
+        runInTransaction(new ArrayList<Warehouse>(warehouses), changes);
+    }
+
+    /**
+     * Commits the plan as one transaction (see AllocationPlan.commit), holding the locks of the warehouses of the plan
+     *
+     * @param allocationPlan (fulfillable)
+     * @return true/false based on whether the plan was applied
+     */
+    public boolean commit(final AllocationPlan allocationPlan) {
+        Set<Warehouse> planWarehouses = Collections.newSetFromMap(new IdentityHashMap<Warehouse, Boolean>());
+        for (AllocationLine line : allocationPlan.getLines()) {
+            planWarehouses.add(line.getWarehouse());
+        }
+        List<Warehouse> lockedWarehouses = new ArrayList<Warehouse>();
+        for (Warehouse warehouse : warehouses) {
+            if (planWarehouses.contains(warehouse)) {
+                lockedWarehouses.add(warehouse);
+            }
+        }
+
+        final boolean[] committed = new boolean[1];
+        runInTransaction(lockedWarehouses, new Runnable() {
+            @Override
+            public void run() {
+                committed[0] = allocationPlan.commit();
+            }
+        });
+        return committed[0];
+    }
+
+    /**
+     * @param lockedWarehouses (in the order of the warehouses of the store)
+     * @param changes
+     */
+    private void runInTransaction(List<Warehouse> lockedWarehouses, Runnable changes) {
+        if (transactions.get() != null) {
+            changes.run();
+            return;
+        }
+        runLocked(lockedWarehouses, 0, changes);
+    }
+
+    /**
+     * Takes the warehouse locks one after the other and runs the transaction once all of them are held
+     * */
+    private void runLocked(List<Warehouse> lockedWarehouses, int index, Runnable changes) {
+        if (index == lockedWarehouses.size()) {
+            Map<String, Map<String, Integer>> transaction = new LinkedHashMap<String, Map<String, Integer>>();
+            transactions.set(transaction);
+            try {
+                changes.run();
+            } finally {
+                transactions.remove();
+                if (!transaction.isEmpty()) {
+                    write(transaction);
+                }
+            }
+            return;
+        }
+        synchronized (lockedWarehouses.get(index)) {
+            runLocked(lockedWarehouses, index + 1, changes);
+        }
+    }
+
+    /**
+     * Records the stock change in the transaction of the thread, or writes it as a transaction of it's own. Called
+     * under the warehouse lock, so a change is written before any later change of the warehouse.
+     * */
+    @Override
+    public void stockChanged(Warehouse warehouse, String itemName, int previousQuantity, int newQuantity) {
+        if (warehousesByName.get(warehouse.getWarehouseName()) != warehouse) {
+            return;
+        }
+        Map<String, Map<String, Integer>> transaction = transactions.get();
+        boolean ownTransaction = transaction == null;
+        if (ownTransaction) {
+            transaction = new LinkedHashMap<String, Map<String, Integer>>();
+        }
+        Map<String, Integer> itemQuantities = transaction.get(warehouse.getWarehouseName());
+        if (itemQuantities == null) {
+            itemQuantities = new LinkedHashMap<String, Integer>();
+            transaction.put(warehouse.getWarehouseName(), itemQuantities);
+        }
+        itemQuantities.put(itemName, newQuantity);
+        if (ownTransaction) {
+            write(transaction);
+        }
+    }
+
+    /**
+     * Appends the transaction to the journal and then applies it to the table. A warehouse without changes is written
+     * as added to the store.
+     * */
+    private synchronized void write(Map<String, Map<String, Integer>> transaction) {
+        try {
+            allocationJournal.append(transaction);
+            for (Map.Entry<String, Map<String, Integer>> warehouseChanges : transaction.entrySet()) {
+                stockTable.addWarehouse(warehouseChanges.getKey());
+                for (Map.Entry<String, Integer> itemChange : warehouseChanges.getValue().entrySet()) {
+                    stockTable.put(warehouseChanges.getKey(), itemChange.getKey(), itemChange.getValue());
+                }
+            }
+            if (allocationJournal.size() >= checkpointBytes) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forces the stock table to the disk and empties the journal
+     *
+     * @throws IOException
+     */
+    public synchronized void checkpoint() throws IOException {
+        stockTable.force();
+        allocationJournal.reset();
+    }
+
+    /**
+     * Checkpoints and closes the files. The warehouses are no longer persisted afterwards.
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        for (Warehouse warehouse : warehouses) {
+            warehouse.removeInventoryListener(this);
+        }
+        checkpoint();
+        stockTable.close();
+        allocationJournal.close();
+    }
+}
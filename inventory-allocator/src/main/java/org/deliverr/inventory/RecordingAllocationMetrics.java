@@ -0,0 +1,154 @@
+package org.deliverr.inventory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * RecordingAllocationMetrics class which counts the allocations and records their latency, warehouses scanned and
+ * shipments in histograms. Counters are LongAdders, so threads allocating in parallel do not contend on them.
+ *
+ * Usage:
+ *     RecordingAllocationMetrics metrics = new RecordingAllocationMetrics();
+ *     metrics.register("org.deliverr.inventory:type=AllocationMetrics");
+ *     InventoryAllocator.getInventoryAllocatorInstance().setMetrics(metrics);
+ * */
+public class RecordingAllocationMetrics implements AllocationMetrics, AllocationMetricsMXBean {
+
+    private static final Logger logger = Logger.getLogger(RecordingAllocationMetrics.class.getName());
+    private LongAdder allocations = new LongAdder();
+    private LongAdder fills = new LongAdder();
+    private LongAdder rejections = new LongAdder();
+    private LongAdder warehousesScanned = new LongAdder();
+    private LongAdder shipments = new LongAdder();
+    private LatencyHistogram latencyNanos = new LatencyHistogram();
+    private LatencyHistogram warehousesScannedPerOrder = new LatencyHistogram();
+    private LatencyHistogram shipmentsPerOrder = new LatencyHistogram();
+
+    @Override
+    public long startTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void recordAllocation(long startTime, int warehousesScanned, int shipments, boolean filled) {
+        latencyNanos.record(System.nanoTime() - startTime);
+        allocations.increment();
+        if (filled) {
+            fills.increment();
+        } else {
+            rejections.increment();
+        }
+        this.warehousesScanned.add(warehousesScanned);
+        this.shipments.add(shipments);
+        warehousesScannedPerOrder.record(warehousesScanned);
+        shipmentsPerOrder.record(shipments);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server
+     *
+     * @param objectName e.g. "org.deliverr.inventory:type=AllocationMetrics"
+     * @return registered name
+     */
+    public ObjectName register(String objectName) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            return mBeanServer.registerMBean(this, new ObjectName(objectName)).getObjectName();
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Please pass valid input", e);
+        }
+    }
+
+    /**
+     * @return histogram of the allocation latency in nanoseconds
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyNanos;
+    }
+
+    @Override
+    public long getAllocationCount() {
+        return allocations.sum();
+    }
+
+    @Override
+    public long getFillCount() {
+        return fills.sum();
+    }
+
+    @Override
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    @Override
+    public long getWarehousesScannedCount() {
+        return warehousesScanned.sum();
+    }
+
+    @Override
+    public long getShipmentCount() {
+        return shipments.sum();
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latencyNanos.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latencyNanos.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos() {
+        return latencyNanos.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return latencyNanos.getMax();
+    }
+
+    @Override
+    public double getLatencyMeanNanos() {
+        return latencyNanos.getMean();
+    }
+
+    @Override
+    public double getWarehousesScannedPerOrderMean() {
+        return warehousesScannedPerOrder.getMean();
+    }
+
+    @Override
+    public long getWarehousesScannedPerOrderP99() {
+        return warehousesScannedPerOrder.getValueAtPercentile(99);
+    }
+
+    @Override
+    public double getShipmentsPerOrderMean() {
+        return shipmentsPerOrder.getMean();
+    }
+
+    @Override
+    public long getShipmentsPerOrderP99() {
+        return shipmentsPerOrder.getValueAtPercentile(99);
+    }
+
+    @Override
+    public void reset() {
+        allocations.reset();
+        fills.reset();
+        rejections.reset();
+        warehousesScanned.reset();
+        shipments.reset();
+        latencyNanos.reset();
+        warehousesScannedPerOrder.reset();
+        shipmentsPerOrder.reset();
+    }
+}
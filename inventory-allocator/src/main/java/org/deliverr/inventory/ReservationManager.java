@@ -0,0 +1,189 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * ReservationManager class which holds stock for carts and checkouts for a limited time before it is shipped.
+ *
+ * Placing a hold plans the order (see AllocationStrategy) and commits the plan, so the held stock is taken out of the
+ * warehouses all or nothing and is invisible to every other allocation, and to the listeners of the warehouses (e.g.
+ * InventoryIndex) like any other shipment. A hold then either converts into the shipments of it's plan, without
+ * visiting the warehouses again, or is released, or expires after it's time to live and puts the stock back.
+ * Expiry uses a hierarchical timing wheel (see TimingWheel) ticking every tickMillis, so expiring holds costs O(1) per
+ * hold instead of a scan of all the holds, and a hold never expires before it's time to live. Expired holds are
+ * processed on every call, and by expireHolds, which can be scheduled to put the stock back without waiting for the
+ * next call.
+ * */
+public class ReservationManager {
+
+    private static final Logger logger = Logger.getLogger(ReservationManager.class.getName());
+    private static final long DEFAULT_TICK_MILLIS = 100;
+    private List<Warehouse> warehouses = null;
+    private AllocationStrategy allocationStrategy = null;
+    private long tickMillis = DEFAULT_TICK_MILLIS;
+    private LongSupplier clock = null; // current time in milliseconds
+    private TimingWheel<InventoryHold> timingWheel = null;
+    private Map<Long, InventoryHold> holds = new HashMap<Long, InventoryHold>(); // active holds by hold id
+    private long nextHoldId = 1;
+
+    /**
+     * Constructor which holds stock cheapest first with the default tick
+     *
+     * @param warehouses (cheapest first)
+     * */
+    public ReservationManager(List<Warehouse> warehouses) {
+        this(warehouses, new GreedyAllocationStrategy(), DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * @param warehouses (cheapest first)
+     * @param allocationStrategy
+     * @param tickMillis (precision of the expiry in milliseconds)
+     * */
+    public ReservationManager(List<Warehouse> warehouses, AllocationStrategy allocationStrategy, long tickMillis) {
+        this(warehouses, allocationStrategy, tickMillis, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return System.currentTimeMillis();
+            }
+        });
+    }
+
+    /**
+     * @param warehouses (cheapest first)
+     * @param allocationStrategy
+     * @param tickMillis (precision of the expiry in milliseconds)
+     * @param clock (current time in milliseconds)
+     * */
+    ReservationManager(List<Warehouse> warehouses, AllocationStrategy allocationStrategy, long tickMillis, LongSupplier clock) {
+        if (warehouses == null || allocationStrategy == null || tickMillis <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.warehouses = new ArrayList<Warehouse>(warehouses);
+        this.allocationStrategy = allocationStrategy;
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.timingWheel = new TimingWheel<InventoryHold>(clock.getAsLong() / tickMillis);
+    }
+
+    /**
+     * Holds the stock of the complete order, all or nothing. The order itself is left unchanged.
+     *
+     * @param order
+     * @param timeToLive (time after which the hold expires)
+     * @param unit of the time to live
+     * @return hold of the stock or null when the order can not be completely held
+     */
+    public synchronized InventoryHold placeHold(Order order, long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        long now = clock.getAsLong();
+        expireHolds(now);
+        AllocationPlan allocationPlan = allocationStrategy.plan(order, warehouses);
+        if (!allocationPlan.isFulfillable() || !allocationPlan.commit()) {
+            return null;
+        }
+        InventoryHold hold = new InventoryHold(nextHoldId++, allocationPlan, now + unit.toMillis(timeToLive));
+        /* rounded up to the next tick, so that a hold never expires early */
+        hold.setTimeout(timingWheel.schedule(hold, (hold.getExpiresAt() + tickMillis - 1) / tickMillis));
+        holds.put(hold.getHoldId(), hold);
+        return hold;
+    }
+
+    /**
+     * Ships the held stock. The stock was taken out of the warehouses when the hold was placed, so the warehouses are
+     * not visited again.
+     *
+     * @param hold
+     * @return shipments of the hold or empty list when the hold is no longer active
+     */
+    public synchronized List<Shipment> convertHold(InventoryHold hold) {
+        expireHolds(clock.getAsLong());
+        if (!deactivate(hold)) {
+            return new ArrayList<Shipment>();
+        }
+        return hold.getShipments();
+    }
+
+    /**
+     * Puts the held stock back into the warehouses
+     *
+     * @param hold
+     * @return true/false based on whether the hold was still active
+     */
+    public synchronized boolean releaseHold(InventoryHold hold) {
+        expireHolds(clock.getAsLong());
+        if (!deactivate(hold)) {
+            return false;
+        }
+        returnStock(hold);
+        return true;
+    }
+
+    /**
+     * @param holdId
+     * @return active hold or null when the hold is unknown or no longer active
+     */
+    public synchronized InventoryHold getHold(long holdId) {
+        expireHolds(clock.getAsLong());
+        return holds.get(holdId);
+    }
+
+    /**
+     * @return number of active holds
+     */
+    public synchronized int getActiveHoldCount() {
+        expireHolds(clock.getAsLong());
+        return holds.size();
+    }
+
+    /**
+     * Puts the stock of the holds which reached their time to live back into the warehouses
+     *
+     * @return number of holds expired
+     */
+    public synchronized int expireHolds() {
+        return expireHolds(clock.getAsLong());
+    }
+
+    private int expireHolds(long now) {
+        List<InventoryHold> expired = new ArrayList<InventoryHold>();
+        timingWheel.advance(now / tickMillis, expired);
+        for (InventoryHold hold : expired) {
+            holds.remove(hold.getHoldId());
+            hold.deactivate();
+            returnStock(hold);
+        }
+        if (!expired.isEmpty()) {
+            logger.fine(expired.size() + " holds expired");
+        }
+        return expired.size();
+    }
+
+    /**
+     * @param hold
+     * @return true/false based on whether the hold was active
+     */
+    private boolean deactivate(InventoryHold hold) {
+        if (holds.get(hold.getHoldId()) != hold) {
+            return false;
+        }
+        holds.remove(hold.getHoldId());
+        timingWheel.cancel(hold.getTimeout());
+        hold.deactivate();
+        return true;
+    }
+
+    private void returnStock(InventoryHold hold) {
+        for (AllocationLine line : hold.getLines()) {
+            line.getWarehouse().returnStock(line.getItemId(), line.getQuantity());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+/**
+ * ShardedAllocationStrategy class which plans an order across a large warehouse list in parallel.
+ *
+ * The warehouse list (cheapest first) is split into contiguous shards, e.g. one per region when the list is ordered
+ * by region. The shards are planned in waves of as many shards as the ForkJoinPool runs in parallel, every shard of a
+ * wave planning what is left of the order on it's own. The shard plans are then merged in the shard order, taking
+ * from every shard only what the cheaper shards before it could not ship. The merged plan is therefore the same as the
+ * one of GreedyAllocationStrategy, and can be committed the same way.
+ *
+ * Usage:
+ *     inventoryAllocator.allocateShipment(order, warehouses, new ShardedAllocationStrategy(50));
+ * */
+public class ShardedAllocationStrategy implements AllocationStrategy {
+
+    private static final Logger logger = Logger.getLogger(ShardedAllocationStrategy.class.getName());
+    private ForkJoinPool forkJoinPool = null;
+    private int shardSize = 0;
+
+    /**
+     * Constructor which plans the shards on the common pool
+     *
+     * @param shardSize number of warehouses of every shard
+     * */
+    public ShardedAllocationStrategy(int shardSize) {
+        this(ForkJoinPool.commonPool(), shardSize);
+    }
+
+    /**
+     * @param forkJoinPool
+     * @param shardSize number of warehouses of every shard
+     * */
+    public ShardedAllocationStrategy(ForkJoinPool forkJoinPool, int shardSize) {
+        if (forkJoinPool == null || shardSize <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.forkJoinPool = forkJoinPool;
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * @return number of warehouses of every shard
+     */
+    public int getShardSize() {
+        return shardSize;
+    }
+
+    @Override
+    public AllocationPlan plan(Order order, List<Warehouse> warehouses) {
+        if (warehouses.size() <= shardSize) {
+            return InventoryAllocator.getInventoryAllocatorInstance().planShipment(order, warehouses);
+        }
+        IntIntMap orderQuantities = order.getOrderItems();
+        IntIntMap remaining = new IntIntMap(orderQuantities.size());
+        int outstanding = 0;
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (orderQuantities.isUsed(slot) && orderQuantities.valueAt(slot) > 0) {
+                remaining.put(orderQuantities.keyAt(slot), orderQuantities.valueAt(slot));
+                outstanding++;
+            }
+        }
+
+        /* planning a wave of as many shards as the pool runs in parallel at a time, so that the shards after the
+         * ones which completed the order are never planned */
+        int shardCount = (warehouses.size() + shardSize - 1) / shardSize;
+        int waveSize = Math.max(1, forkJoinPool.getParallelism());
+        List<AllocationLine> lines = new ArrayList<AllocationLine>();
+        for (int shard = 0; shard < shardCount && outstanding > 0; shard += waveSize) {
+            List<AllocationPlan> shardPlans = forkJoinPool.invoke(
+                    new ShardTask(remaining, warehouses, shard, Math.min(shard + waveSize, shardCount)));
+            outstanding -= merge(shardPlans, remaining, lines);
+        }
+        return new AllocationPlan(lines, outstanding == 0);
+    }
+
+    /**
+     * Merges the plans of a wave cheapest shard first. Every shard planned all the remaining quantities greedily, so
+     * clipping it's lines to what is still remaining gives exactly the lines the sequential greedy plan takes from it.
+     *
+     * @param shardPlans (in the shard order)
+     * @param remaining quantities by item id, reduced by the merged lines
+     * @param lines merged lines
+     * @return number of items completely shipped by the wave
+     */
+    private int merge(List<AllocationPlan> shardPlans, IntIntMap remaining, List<AllocationLine> lines) {
+        int shipped = 0;
+        for (AllocationPlan shardPlan : shardPlans) {
+            for (AllocationLine line : shardPlan.getLines()) {
+                int itemId = line.getItemId();
+                int remainingQuantity = remaining.get(itemId, 0);
+                if (remainingQuantity == 0) {
+                    continue;
+                }
+                int quantity = Math.min(remainingQuantity, line.getQuantity());
+                lines.add(quantity == line.getQuantity() ? line : new AllocationLine(line.getWarehouse(), itemId, quantity));
+                remaining.put(itemId, remainingQuantity - quantity);
+                if (remainingQuantity == quantity) {
+                    shipped++;
+                }
+            }
+        }
+        return shipped;
+    }
+
+    /**
+     * Plans a range of shards, splitting it in halves until a single shard is left
+     * */
+    private class ShardTask extends RecursiveTask<List<AllocationPlan>> {
+
+        private static final long serialVersionUID = 1L;
+        private IntIntMap remaining = null;
+        private List<Warehouse> warehouses = null;
+        private int fromShard = 0;
+        private int toShard = 0;
+
+        ShardTask(IntIntMap remaining, List<Warehouse> warehouses, int fromShard, int toShard) {
+            this.remaining = remaining;
+            this.warehouses = warehouses;
+            this.fromShard = fromShard;
+            this.toShard = toShard;
+        }
+
+        @Override
+        protected List<AllocationPlan> compute() {
+            if (toShard - fromShard == 1) {
+                int from = fromShard * shardSize;
+                int to = Math.min(from + shardSize, warehouses.size());
+                IntIntMap shardRemaining = new IntIntMap(remaining.size());
+                shardRemaining.putAll(remaining);
+                List<AllocationPlan> shardPlans = new ArrayList<AllocationPlan>(1);
+                shardPlans.add(InventoryAllocator.getInventoryAllocatorInstance().planShipment(shardRemaining, warehouses.subList(from, to)));
+                return shardPlans;
+            }
+            int middle = (fromShard + toShard) >>> 1;
+            ShardTask cheaperHalf = new ShardTask(remaining, warehouses, fromShard, middle);
+            ShardTask otherHalf = new ShardTask(remaining, warehouses, middle, toShard);
+            otherHalf.fork();
+            List<AllocationPlan> shardPlans = cheaperHalf.compute();
+            shardPlans.addAll(otherHalf.join());
+            return shardPlans;
+        }
+    }
+}
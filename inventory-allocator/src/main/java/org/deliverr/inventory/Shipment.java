@@ -0,0 +1,110 @@
+package org.deliverr.inventory;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Shipment class which to store a valid shipment
+ *
+ * Quantities are stored by item id (see SkuDictionary) in an IntIntMap, the methods taking item names are a facade
+ * over the ids.
+ * */
+public class Shipment {
+    private static final Logger logger = Logger.getLogger(Shipment.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private IntIntMap orderItems = new IntIntMap(); // map to store the orders (by item id) and it's quantity in the given warehouse
+    private String warehouseName = null;
+
+    /**
+     * Constructor which sets warehouse name
+     *
+     * @param warehouseName
+     * */
+    public Shipment(String warehouseName) {
+        this.warehouseName = warehouseName;
+    }
+
+    /**
+     * @param orderItemName
+     * @param orderItemQuantity
+     */
+    public void addOrders(String orderItemName, int orderItemQuantity){
+        if(orderItemQuantity <0 || orderItemName.isEmpty()){
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        orderItems.put(skuDictionary.idOf(orderItemName), orderItemQuantity);
+    }
+
+    /**
+     * @param orderItemId
+     * @param orderItemQuantity
+     */
+    void addOrders(int orderItemId, int orderItemQuantity) {
+        orderItems.put(orderItemId, orderItemQuantity);
+    }
+
+    /**
+     * @return name of the warehouse the shipment is made from
+     */
+    public String getWarehouseName() {
+        return warehouseName;
+    }
+
+    /**
+     * @param orderItemName
+     * @return quantity of the orderItem in the shipment, 0 if the item is not shipped
+     */
+    public int getOrderItemsQuantity(String orderItemName) {
+        int orderItemId = skuDictionary.lookup(orderItemName);
+        return orderItemId < 0 ? 0 : orderItems.get(orderItemId, 0);
+    }
+
+    /**
+     * @return copy of the set of name of the orderItems in the shipment
+     */
+    public Set<String> getOrderItemsName() {
+        Set<String> orderItemNames = new HashSet<String>();
+        for (int slot = 0; slot < orderItems.capacity(); slot++) {
+            if (orderItems.isUsed(slot)) {
+                orderItemNames.add(skuDictionary.nameOf(orderItems.keyAt(slot)));
+            }
+        }
+        return orderItemNames;
+    }
+
+    /**
+     * @return quantities of the shipment by item id, owned by the shipment
+     */
+    IntIntMap getOrderItems() {
+        return orderItems;
+    }
+
+    /**
+     * Overriding the default equals method to compare two shipments
+     *
+     * @param obj (Object of Shipment Instance)
+     * @return true/false based on shipment match
+     * */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Shipment))
+            return false;
+
+        Shipment shipment = (Shipment) obj;
+        boolean compareWareHouseNames = Objects.equals(shipment.warehouseName, this.warehouseName);
+        boolean compareShipmentList =   shipment.orderItems.equals(this.orderItems);
+
+        return compareWareHouseNames && compareShipmentList;
+    }
+
+    /**
+     * Overriding the default hashCode method consistently with equals. A shipment is mutable, so it must not be
+     * changed while it is a key of a set or a map (see ImmutableShipment).
+     * */
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(warehouseName) + orderItems.hashCode();
+    }
+}
@@ -0,0 +1,226 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * ShipmentBuffer class which stores the shipments of an order as a flat list of (warehouse, item, quantity) tuples.
+ *
+ * The buffer is owned by the caller and reused from one order to the next (see InventoryAllocator.allocateShipment
+ * with a ShipmentBuffer), so once it has grown to the largest order no allocation is made per order. Warehouses are
+ * stored by their index in the warehouse list of the allocation and items by their id (see SkuDictionary).
+ * Tuples of the same warehouse are contiguous, warehouses in the cheapest first order.
+ * */
+public class ShipmentBuffer {
+
+    private static final Logger logger = Logger.getLogger(ShipmentBuffer.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private int[] warehouseIndexes = null;
+    private int[] itemIds = null;
+    private int[] quantities = null;
+    private int size = 0;
+    private int[] fillItemIds = new int[0]; // dense arrays of the order filled in bulk, by position (see BulkFillKernel)
+    private int[] fillOrdered = new int[0];
+    private int[] fillAvailable = new int[0];
+    private int[] fillShipped = new int[0];
+
+    public ShipmentBuffer() {
+        this(16);
+    }
+
+    /**
+     * @param initialCapacity number of tuples held before the buffer grows
+     */
+    public ShipmentBuffer(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        warehouseIndexes = new int[initialCapacity];
+        itemIds = new int[initialCapacity];
+        quantities = new int[initialCapacity];
+    }
+
+    /**
+     * @param warehouseIndex
+     * @param itemId
+     * @param quantity
+     */
+    void add(int warehouseIndex, int itemId, int quantity) {
+        if (size == quantities.length) {
+            warehouseIndexes = Arrays.copyOf(warehouseIndexes, size * 2);
+            itemIds = Arrays.copyOf(itemIds, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+        }
+        warehouseIndexes[size] = warehouseIndex;
+        itemIds[size] = itemId;
+        quantities[size] = quantity;
+        size++;
+    }
+
+    /**
+     * Copies the items of the order to the dense arrays of the bulk fill, growing them when needed
+     *
+     * @param orderQuantities
+     * @return number of positions of the bulk fill, -1 when an item is ordered with quantity 0 (the item by item path
+     * ships such an item as a 0 tuple from the first warehouse stocking it, which the bulk fill does not)
+     */
+    int loadBulkFill(IntIntMap orderQuantities) {
+        if (fillOrdered.length < orderQuantities.size()) {
+            int capacity = Math.max(orderQuantities.size(), fillOrdered.length * 2);
+            fillItemIds = new int[capacity];
+            fillOrdered = new int[capacity];
+            fillAvailable = new int[capacity];
+            fillShipped = new int[capacity];
+        }
+        int length = 0;
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (orderQuantities.isUsed(slot)) {
+                if (orderQuantities.valueAt(slot) == 0) {
+                    return -1;
+                }
+                fillItemIds[length] = orderQuantities.keyAt(slot);
+                fillOrdered[length] = orderQuantities.valueAt(slot);
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Fills the positions of the bulk fill from the warehouse and adds a tuple for every item shipped
+     *
+     * @param warehouse
+     * @param warehouseIndex (index of the warehouse in the warehouse list of the allocation)
+     * @param length (number of positions of the bulk fill)
+     * @return number of tuples added
+     */
+    int fillFrom(Warehouse warehouse, int warehouseIndex, int length) {
+        int shippedItems = warehouse.fill(fillItemIds, fillOrdered, fillAvailable, fillShipped, length);
+        if (shippedItems > 0) {
+            for (int i = 0; i < length; i++) {
+                if (fillShipped[i] > 0) {
+                    add(warehouseIndex, fillItemIds[i], fillShipped[i]);
+                }
+            }
+        }
+        return shippedItems;
+    }
+
+    /**
+     * Moves the items completely shipped behind the items still to ship, so that the next warehouses only read the
+     * stock of the items still to ship
+     *
+     * @param length (number of positions still to ship)
+     * @return number of positions still to ship, at the front of the arrays
+     */
+    int compactBulkFill(int length) {
+        int outstanding = 0;
+        for (int i = 0; i < length; i++) {
+            if (fillOrdered[i] > 0) {
+                if (i != outstanding) {
+                    /* the position swapped back was completely shipped, it's ordered quantity is 0 */
+                    int itemId = fillItemIds[outstanding];
+                    fillItemIds[outstanding] = fillItemIds[i];
+                    fillItemIds[i] = itemId;
+                    fillOrdered[outstanding] = fillOrdered[i];
+                    fillOrdered[i] = 0;
+                }
+                outstanding++;
+            }
+        }
+        return outstanding;
+    }
+
+    /**
+     * Writes the quantities still to ship back to the order, removing the items completely shipped
+     *
+     * @param orderQuantities
+     * @param length (number of positions of the bulk fill)
+     */
+    void storeBulkFill(IntIntMap orderQuantities, int length) {
+        for (int i = 0; i < length; i++) {
+            if (fillOrdered[i] > 0) {
+                orderQuantities.put(fillItemIds[i], fillOrdered[i]);
+            } else {
+                orderQuantities.remove(fillItemIds[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all the tuples, keeping the capacity
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return number of tuples
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i
+     * @return index of the warehouse of the tuple in the warehouse list of the allocation
+     */
+    public int getWarehouseIndex(int i) {
+        checkIndex(i);
+        return warehouseIndexes[i];
+    }
+
+    /**
+     * @param i
+     * @return id of the item of the tuple (see SkuDictionary)
+     */
+    public int getItemId(int i) {
+        checkIndex(i);
+        return itemIds[i];
+    }
+
+    /**
+     * @param i
+     * @return name of the item of the tuple
+     */
+    public String getItemName(int i) {
+        checkIndex(i);
+        return skuDictionary.nameOf(itemIds[i]);
+    }
+
+    /**
+     * @param i
+     * @return quantity of the tuple
+     */
+    public int getQuantity(int i) {
+        checkIndex(i);
+        return quantities[i];
+    }
+
+    /**
+     * Builds the shipments of the tuples, e.g. for the code which is not on the hot path
+     *
+     * @param warehouses (the warehouse list of the allocation)
+     * @return list of shipments, one for each warehouse in the cheapest first order
+     */
+    public List<Shipment> toShipments(List<Warehouse> warehouses) {
+        List<Shipment> shipments = new ArrayList<Shipment>();
+        Shipment shipment = null;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || warehouseIndexes[i] != warehouseIndexes[i - 1]) {
+                shipment = new Shipment(warehouses.get(warehouseIndexes[i]).getWarehouseName());
+                shipments.add(shipment);
+            }
+            shipment.addOrders(itemIds[i], quantities[i]);
+        }
+        return shipments;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * ShipmentLimitStrategy class which ships an order in at most maxShipments shipments, preferring the plan with the
+ * fewest shipments.
+ *
+ * The cheapest first greedy plan (see GreedyAllocationStrategy) is computed first. When it splits the order, the
+ * warehouses holding any of the ordered items are searched for a smaller set which still ships the order: every
+ * warehouse gets a bitset of the ordered items it holds, the search always branches on the outstanding item held by
+ * the fewest warehouses and prunes a branch as soon as the shipments left can not cover the outstanding items.
+ * Sets are searched by increasing size, so the first set found ships the order in the fewest shipments, and every
+ * item is taken from the chosen warehouses in the cheapest first order.
+ * The search stops after nodeBudget nodes. The best plan found within the limit is returned, otherwise the plan is
+ * not fulfillable and the order is rejected.
+ * */
+public class ShipmentLimitStrategy implements AllocationStrategy {
+
+    private static final Logger logger = Logger.getLogger(ShipmentLimitStrategy.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private static final long DEFAULT_NODE_BUDGET = 100000;
+    private int maxShipments = 0;
+    private long nodeBudget = DEFAULT_NODE_BUDGET;
+    private AllocationStrategy fallbackStrategy = new GreedyAllocationStrategy();
+
+    /**
+     * Constructor which uses the default node budget
+     *
+     * @param maxShipments (maximum number of shipments for an order)
+     * */
+    public ShipmentLimitStrategy(int maxShipments) {
+        this(maxShipments, DEFAULT_NODE_BUDGET);
+    }
+
+    /**
+     * @param maxShipments (maximum number of shipments for an order)
+     * @param nodeBudget (maximum number of search nodes visited for an order)
+     * */
+    public ShipmentLimitStrategy(int maxShipments, long nodeBudget) {
+        if (maxShipments < 1 || nodeBudget < 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.maxShipments = maxShipments;
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * @return maximum number of shipments for an order
+     */
+    public int getMaxShipments() {
+        return maxShipments;
+    }
+
+    @Override
+    public AllocationPlan plan(Order order, List<Warehouse> warehouses) {
+        /* greedy takes every unit available, when greedy can not ship the order no other plan can */
+        AllocationPlan greedyPlan = fallbackStrategy.plan(order, warehouses);
+        if (!greedyPlan.isFulfillable()) {
+            return greedyPlan;
+        }
+        int greedyShipments = countShipments(greedyPlan.getLines());
+        if (greedyShipments <= 1) {
+            return greedyPlan;
+        }
+
+        Coverage coverage = new Coverage(order, warehouses);
+        int[] chosen = coverage.search(Math.min(maxShipments, greedyShipments - 1), nodeBudget);
+        if (chosen != null) {
+            return new AllocationPlan(coverage.toLines(chosen), true);
+        }
+        if (greedyShipments <= maxShipments) {
+            return greedyPlan;
+        }
+        if (coverage.isExhausted()) {
+            logger.fine("Node budget exceeded, rejecting the order");
+        }
+        return new AllocationPlan(Collections.<AllocationLine>emptyList(), false);
+    }
+
+    /**
+     * @param lines (grouped by warehouse)
+     * @return number of shipments of the lines
+     */
+    private static int countShipments(List<AllocationLine> lines) {
+        int shipments = 0;
+        Warehouse shipmentWarehouse = null;
+        for (AllocationLine line : lines) {
+            if (line.getWarehouse() != shipmentWarehouse) {
+                shipmentWarehouse = line.getWarehouse();
+                shipments++;
+            }
+        }
+        return shipments;
+    }
+
+    /**
+     * Coverage class which stores the warehouses holding any of the ordered items, in the cheapest first order, with
+     * their stock of the ordered items and the bitset of the ordered items they hold
+     * */
+    private static class Coverage {
+        private Warehouse[] warehouses = null;
+        private String[] itemNames = null;
+        private int[] ordered = null; // ordered quantity by item
+        private int[][] stock = null; // stock by candidate and item
+        private long[][] holds = null; // bitset of the items held, by candidate
+        private int[][] holders = null; // candidates holding an item by item, cheapest first
+        private long nodes = 0;
+        private long budget = 0;
+        private boolean exhausted = false;
+
+        Coverage(Order order, List<Warehouse> allWarehouses) {
+            IntIntMap orderQuantities = order.getOrderItems();
+            List<String> names = new ArrayList<String>();
+            List<Integer> quantities = new ArrayList<Integer>();
+            for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+                if (orderQuantities.isUsed(slot) && orderQuantities.valueAt(slot) > 0) {
+                    names.add(skuDictionary.nameOf(orderQuantities.keyAt(slot)));
+                    quantities.add(orderQuantities.valueAt(slot));
+                }
+            }
+            itemNames = names.toArray(new String[0]);
+            ordered = new int[itemNames.length];
+            for (int i = 0; i < ordered.length; i++) {
+                ordered[i] = quantities.get(i);
+            }
+
+            int words = (itemNames.length + 63) >>> 6;
+            List<Warehouse> holding = new ArrayList<Warehouse>();
+            List<int[]> holdingStock = new ArrayList<int[]>();
+            List<long[]> holdingItems = new ArrayList<long[]>();
+            IdentityHashMap<Warehouse, Boolean> seen = new IdentityHashMap<Warehouse, Boolean>();
+            for (Warehouse warehouse : allWarehouses) {
+                if (seen.put(warehouse, Boolean.TRUE) != null) {
+                    continue;
+                }
+                int[] quantitiesHeld = new int[itemNames.length];
+                long[] itemsHeld = new long[words];
+                boolean holdsAny = false;
+                for (int i = 0; i < itemNames.length; i++) {
+                    quantitiesHeld[i] = warehouse.getItemQuantity(itemNames[i]);
+                    if (quantitiesHeld[i] > 0) {
+                        itemsHeld[i >>> 6] |= 1L << i;
+                        holdsAny = true;
+                    }
+                }
+                if (holdsAny) {
+                    holding.add(warehouse);
+                    holdingStock.add(quantitiesHeld);
+                    holdingItems.add(itemsHeld);
+                }
+            }
+            warehouses = holding.toArray(new Warehouse[0]);
+            stock = holdingStock.toArray(new int[0][]);
+            holds = holdingItems.toArray(new long[0][]);
+
+            holders = new int[itemNames.length][];
+            for (int i = 0; i < itemNames.length; i++) {
+                int count = 0;
+                int[] itemHolders = new int[warehouses.length];
+                for (int c = 0; c < warehouses.length; c++) {
+                    if (stock[c][i] > 0) {
+                        itemHolders[count++] = c;
+                    }
+                }
+                holders[i] = Arrays.copyOf(itemHolders, count);
+            }
+        }
+
+        /**
+         * @return true/false based on whether the last search ran out of nodes
+         */
+        boolean isExhausted() {
+            return exhausted;
+        }
+
+        /**
+         * Searches the sets of at most maxWarehouses candidates shipping the order, smallest sets first
+         *
+         * @param maxWarehouses
+         * @param nodeBudget
+         * @return candidates of the smallest set found in the cheapest first order, null when no set was found
+         */
+        int[] search(int maxWarehouses, long nodeBudget) {
+            budget = nodeBudget;
+            int words = (itemNames.length + 63) >>> 6;
+            for (int size = 1; size <= maxWarehouses && !exhausted; size++) {
+                long[] outstanding = new long[words];
+                for (int i = 0; i < itemNames.length; i++) {
+                    outstanding[i >>> 6] |= 1L << i;
+                }
+                boolean[] chosen = new boolean[warehouses.length];
+                if (search(chosen, ordered.clone(), outstanding, size)) {
+                    int count = 0;
+                    int[] chosenCandidates = new int[size];
+                    for (int c = 0; c < chosen.length; c++) {
+                        if (chosen[c]) {
+                            chosenCandidates[count++] = c;
+                        }
+                    }
+                    return Arrays.copyOf(chosenCandidates, count);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param chosen (candidates chosen so far, left set when a set is found)
+         * @param remaining (quantity still to ship by item)
+         * @param outstanding (bitset of the items with a quantity still to ship)
+         * @param slots (number of candidates which can still be chosen)
+         * @return true/false based on whether a set was found
+         */
+        private boolean search(boolean[] chosen, int[] remaining, long[] outstanding, int slots) {
+            if (exhausted || ++nodes > budget) {
+                exhausted = true;
+                return false;
+            }
+            int outstandingItems = 0;
+            for (long word : outstanding) {
+                outstandingItems += Long.bitCount(word);
+            }
+            if (outstandingItems == 0) {
+                return true;
+            }
+            if (slots == 0) {
+                return false;
+            }
+
+            /* every outstanding item needs one more candidate holding it, prune when the slots left can not cover them */
+            int mostCovered = 0;
+            for (int c = 0; c < warehouses.length; c++) {
+                if (!chosen[c]) {
+                    mostCovered = Math.max(mostCovered, countCommon(holds[c], outstanding));
+                }
+            }
+            if ((long) mostCovered * slots < outstandingItems) {
+                return false;
+            }
+
+            /* branch on the outstanding item held by the fewest candidates not chosen yet */
+            int branchItem = -1;
+            int fewestHolders = Integer.MAX_VALUE;
+            for (int i = 0; i < itemNames.length; i++) {
+                if ((outstanding[i >>> 6] & (1L << i)) == 0) {
+                    continue;
+                }
+                int count = 0;
+                for (int c : holders[i]) {
+                    count += chosen[c] ? 0 : 1;
+                }
+                if (count < fewestHolders) {
+                    fewestHolders = count;
+                    branchItem = i;
+                }
+            }
+
+            int[] taken = new int[itemNames.length];
+            for (int c : holders[branchItem]) {
+                if (chosen[c]) {
+                    continue;
+                }
+                chosen[c] = true;
+                long[] stillOutstanding = outstanding.clone();
+                for (int i = 0; i < itemNames.length; i++) {
+                    taken[i] = Math.min(remaining[i], stock[c][i]);
+                    remaining[i] -= taken[i];
+                    if (taken[i] > 0 && remaining[i] == 0) {
+                        stillOutstanding[i >>> 6] &= ~(1L << i);
+                    }
+                }
+                if (search(chosen, remaining, stillOutstanding, slots - 1)) {
+                    return true;
+                }
+                chosen[c] = false;
+                for (int i = 0; i < itemNames.length; i++) {
+                    remaining[i] += taken[i];
+                }
+                if (exhausted) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private static int countCommon(long[] first, long[] second) {
+            int count = 0;
+            for (int word = 0; word < first.length; word++) {
+                count += Long.bitCount(first[word] & second[word]);
+            }
+            return count;
+        }
+
+        /**
+         * @param chosen (candidates in the cheapest first order)
+         * @return lines shipping every item from the chosen candidates cheapest first, grouped by warehouse
+         */
+        List<AllocationLine> toLines(int[] chosen) {
+            int[] remaining = ordered.clone();
+            List<AllocationLine> lines = new ArrayList<AllocationLine>();
+            for (int c : chosen) {
+                for (int i = 0; i < itemNames.length; i++) {
+                    int taken = Math.min(remaining[i], stock[c][i]);
+                    if (taken > 0) {
+                        remaining[i] -= taken;
+                        lines.add(new AllocationLine(warehouses[c], itemNames[i], taken));
+                    }
+                }
+            }
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.deliverr.inventory;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * SkuDictionary class which maps item names to dense int ids (0, 1, 2 ...), so that quantities can be stored in
+ * primitive int structures (see IntIntMap) instead of maps boxed by item name.
+ *
+ * Ids are never reused or removed. Lookups are lock free, only the first lookup of a new name takes a lock.
+ * */
+public class SkuDictionary {
+
+    private static final Logger logger = Logger.getLogger(SkuDictionary.class.getName());
+    private ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>(); // item name and it's id
+    private volatile String[] names = new String[1024]; // item names by id
+    private int size = 0;
+
+    /**
+     * Holder of the single instance shared by all the orders, warehouses and shipments
+     * */
+    private static class SkuDictionaryHolder {
+        private static final SkuDictionary skuDictionary = new SkuDictionary();
+    }
+
+    /**
+     * SkuDictionary instance method. Singleton Design Pattern.
+     * @return single instance of SkuDictionary
+     * */
+    public static SkuDictionary getSkuDictionaryInstance() {
+        return SkuDictionaryHolder.skuDictionary;
+    }
+
+    /**
+     * @param itemName
+     * @return id of the item, assigned when the item is seen for the first time
+     */
+    public int idOf(String itemName) {
+        Integer id = ids.get(itemName);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(itemName);
+            if (id != null) {
+                return id;
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            names[size] = itemName;
+            ids.put(itemName, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @param itemName
+     * @return id of the item or -1 when the item was never seen
+     */
+    public int lookup(String itemName) {
+        Integer id = ids.get(itemName);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id
+     * @return name of the item with the given id
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return number of items known to the dictionary
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
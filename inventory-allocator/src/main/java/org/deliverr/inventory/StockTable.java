@@ -0,0 +1,199 @@
+package org.deliverr.inventory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * StockTable class which stores the warehouses and the quantity of every item of every warehouse in a memory mapped
+ * file.
+ *
+ * The file is a header followed by one record per warehouse and one record per warehouse and item pair:
+ * [quantity int][warehouse name length short][item name length short][warehouse name][item name] (UTF-8).
+ * A warehouse record has an empty item name and is always written before the items of the warehouse, so the
+ * warehouses, including the ones without stock, are loaded in the order they were stored. Records are only ever appended, and the quantity of a record is updated in place, so loading the file only reads
+ * the records once. The end of the records is stored in the header after the record was written, so a record which
+ * was being appended when the process died is ignored.
+ * */
+class StockTable {
+
+    private static final Logger logger = Logger.getLogger(StockTable.class.getName());
+    private static final int MAGIC = 0x494E5654; // "INVT"
+    private static final int FORMAT_VERSION = 2;
+    private static final int END_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int INITIAL_SIZE = 64 * 1024;
+    private FileChannel channel = null;
+    private MappedByteBuffer buffer = null;
+    private int end = HEADER_SIZE;
+    private Map<String, Map<String, Integer>> quantityOffsets = new LinkedHashMap<String, Map<String, Integer>>(); // warehouse, item and the offset of it's quantity
+
+    /**
+     * Opens the table, creating the file when it does not exist
+     *
+     * @param path
+     * @return table holding the records of the file
+     * @throws IOException
+     */
+    static StockTable open(Path path) throws IOException {
+        StockTable stockTable = new StockTable();
+        stockTable.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = stockTable.channel.size() == 0;
+        stockTable.map(Math.max(INITIAL_SIZE, stockTable.channel.size()));
+        if (created) {
+            stockTable.buffer.putInt(0, MAGIC);
+            stockTable.buffer.putInt(4, FORMAT_VERSION);
+            stockTable.buffer.putInt(END_OFFSET, HEADER_SIZE);
+        } else {
+            stockTable.load();
+        }
+        return stockTable;
+    }
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void load() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Invalid stock table, unknown format");
+        }
+        end = buffer.getInt(END_OFFSET);
+        int offset = HEADER_SIZE;
+        while (offset < end) {
+            int warehouseNameLength = buffer.getShort(offset + 4);
+            int itemNameLength = buffer.getShort(offset + 6);
+            String warehouseName = readName(offset + 8, warehouseNameLength);
+            String itemName = readName(offset + 8 + warehouseNameLength, itemNameLength);
+            Map<String, Integer> itemOffsets = getItemOffsets(warehouseName);
+            if (itemNameLength > 0) {
+                itemOffsets.put(itemName, offset);
+            }
+            offset += 8 + warehouseNameLength + itemNameLength;
+        }
+    }
+
+    private String readName(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Map<String, Integer> getItemOffsets(String warehouseName) {
+        Map<String, Integer> itemOffsets = quantityOffsets.get(warehouseName);
+        if (itemOffsets == null) {
+            itemOffsets = new LinkedHashMap<String, Integer>();
+            quantityOffsets.put(warehouseName, itemOffsets);
+        }
+        return itemOffsets;
+    }
+
+    /**
+     * Stores the warehouse, unless it is already stored
+     *
+     * @param warehouseName
+     * @throws IOException
+     */
+    void addWarehouse(String warehouseName) throws IOException {
+        if (!quantityOffsets.containsKey(warehouseName)) {
+            append(warehouseName, "", 0);
+            getItemOffsets(warehouseName);
+        }
+    }
+
+    /**
+     * @param warehouseName (stored first when it is not stored yet)
+     * @param itemName
+     * @param quantity
+     * @throws IOException
+     */
+    void put(String warehouseName, String itemName, int quantity) throws IOException {
+        if (itemName.isEmpty()) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        addWarehouse(warehouseName);
+        Map<String, Integer> itemOffsets = getItemOffsets(warehouseName);
+        Integer offset = itemOffsets.get(itemName);
+        if (offset != null) {
+            buffer.putInt(offset, quantity);
+            return;
+        }
+        itemOffsets.put(itemName, append(warehouseName, itemName, quantity));
+    }
+
+    /**
+     * @return offset of the appended record
+     */
+    private int append(String warehouseName, String itemName, int quantity) throws IOException {
+        byte[] warehouseNameBytes = warehouseName.getBytes(StandardCharsets.UTF_8);
+        byte[] itemNameBytes = itemName.getBytes(StandardCharsets.UTF_8);
+        if (warehouseNameBytes.length > Short.MAX_VALUE || itemNameBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        int recordSize = 8 + warehouseNameBytes.length + itemNameBytes.length;
+        if ((long) end + recordSize > buffer.capacity()) {
+            if ((long) buffer.capacity() * 2 > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Stock table is full");
+            }
+            map(Math.max((long) buffer.capacity() * 2, (long) end + recordSize));
+        }
+        buffer.putInt(end, quantity);
+        buffer.putShort(end + 4, (short) warehouseNameBytes.length);
+        buffer.putShort(end + 6, (short) itemNameBytes.length);
+        for (int i = 0; i < warehouseNameBytes.length; i++) {
+            buffer.put(end + 8 + i, warehouseNameBytes[i]);
+        }
+        for (int i = 0; i < itemNameBytes.length; i++) {
+            buffer.put(end + 8 + warehouseNameBytes.length + i, itemNameBytes[i]);
+        }
+        int offset = end;
+        end += recordSize;
+        buffer.putInt(END_OFFSET, end);
+        return offset;
+    }
+
+    /**
+     * @return warehouse names in the order they were stored
+     */
+    Iterable<String> getWarehouseNames() {
+        return quantityOffsets.keySet();
+    }
+
+    /**
+     * @param warehouseName
+     * @return quantity of every item stored for the warehouse, in the order the items were first stored
+     */
+    Map<String, Integer> getQuantities(String warehouseName) {
+        Map<String, Integer> quantities = new LinkedHashMap<String, Integer>();
+        Map<String, Integer> itemOffsets = quantityOffsets.get(warehouseName);
+        if (itemOffsets != null) {
+            for (Map.Entry<String, Integer> itemOffset : itemOffsets.entrySet()) {
+                quantities.put(itemOffset.getKey(), buffer.getInt(itemOffset.getValue()));
+            }
+        }
+        return quantities;
+    }
+
+    /**
+     * Writes the mapped pages back to the file
+     * */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * @throws IOException
+     */
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
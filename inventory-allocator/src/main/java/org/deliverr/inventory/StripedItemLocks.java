@@ -0,0 +1,100 @@
+package org.deliverr.inventory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * StripedItemLocks class which guards items (by item name) with a fixed number of locks.
+ *
+ * Every item name maps to one stripe. The stripes of a set of items are always locked in ascending stripe order,
+ * so two threads locking overlapping item sets can never deadlock.
+ * */
+public class StripedItemLocks {
+
+    private static final Logger logger = Logger.getLogger(StripedItemLocks.class.getName());
+    private ReentrantLock[] stripes = null;
+
+    /**
+     * Constructor which creates the stripes
+     *
+     * @param stripeCount (rounded up to the next power of two)
+     * */
+    public StripedItemLocks(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param itemName
+     * @return stripe guarding the item
+     */
+    public int stripeOf(String itemName) {
+        int hash = itemName.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    /**
+     * Locks the stripes of all the given items in ascending stripe order.
+     *
+     * @param itemNames
+     * @return stripes locked, to be passed to unlock
+     */
+    public int[] lock(Collection<String> itemNames) {
+        int[] lockedStripes = new int[itemNames.size()];
+        int count = 0;
+        for (String itemName : itemNames) {
+            lockedStripes[count++] = stripeOf(itemName);
+        }
+        Arrays.sort(lockedStripes);
+
+        /* removing the duplicate stripes so that each stripe is locked once */
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || lockedStripes[unique - 1] != lockedStripes[i]) {
+                lockedStripes[unique++] = lockedStripes[i];
+            }
+        }
+        lockedStripes = Arrays.copyOf(lockedStripes, unique);
+
+        for (int stripe : lockedStripes) {
+            stripes[stripe].lock();
+        }
+        return lockedStripes;
+    }
+
+    /**
+     * Locks every stripe, e.g. to read a consistent snapshot of all the items
+     *
+     * @return stripes locked, to be passed to unlock
+     */
+    public int[] lockAll() {
+        int[] lockedStripes = new int[stripes.length];
+        for (int stripe = 0; stripe < stripes.length; stripe++) {
+            lockedStripes[stripe] = stripe;
+            stripes[stripe].lock();
+        }
+        return lockedStripes;
+    }
+
+    /**
+     * Unlocks the stripes returned by lock in the reverse order
+     *
+     * @param lockedStripes
+     */
+    public void unlock(int[] lockedStripes) {
+        for (int i = lockedStripes.length - 1; i >= 0; i--) {
+            stripes[lockedStripes[i]].unlock();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.deliverr.inventory;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * TimingWheel class which expires timeouts in O(1) per timeout instead of scanning all of them on every tick.
+ *
+ * The wheel is hierarchical: LEVELS wheels of WHEEL_SIZE slots, a slot of level L spanning WHEEL_SIZE^L ticks. A
+ * timeout is put in the lowest level whose current turn contains it's deadline. Whenever a wheel completes a turn the
+ * next slot of the level above is cascaded, i.e. it's timeouts are put back into the lower levels, so a timeout moves
+ * at most LEVELS times before it expires from level 0. Deadlines beyond the top level wait in an overflow list,
+ * cascaded at every turn of the top level. Slots are doubly linked lists, so a timeout is cancelled in O(1).
+ * The wheel is not thread safe, the caller has to synchronize (see ReservationManager).
+ *
+ * @param <T> type of the items expiring
+ * */
+class TimingWheel<T> {
+
+    private static final Logger logger = Logger.getLogger(TimingWheel.class.getName());
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private Timeout<T>[][] slots = null; // heads of the timeouts by level and slot, the overflow list being level LEVELS
+    private long currentTick = 0;
+    private int size = 0;
+
+    /**
+     * @param currentTick (tick the wheel starts from)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+        this.slots = new Timeout[LEVELS + 1][WHEEL_SIZE];
+    }
+
+    /**
+     * @return tick the wheel has advanced to
+     */
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return number of timeouts scheduled
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param item
+     * @param deadlineTick (tick at which the item expires, the next tick when it is already due)
+     * @return timeout to cancel the expiry with
+     */
+    Timeout<T> schedule(T item, long deadlineTick) {
+        Timeout<T> timeout = new Timeout<T>(item, Math.max(deadlineTick, currentTick + 1));
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @param timeout
+     * @return true/false based on whether the timeout was still scheduled
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout.level < 0) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel tick by tick up to the given tick
+     *
+     * @param tick
+     * @param expired (items whose deadline was reached are added to it)
+     */
+    void advance(long tick, List<T> expired) {
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                return;
+            }
+            currentTick++;
+            /* highest level first, so timeouts cascaded from a level can be cascaded again from the level below */
+            if ((currentTick & ((1L << (LEVELS * WHEEL_BITS)) - 1)) == 0) {
+                cascade(LEVELS, 0);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * WHEEL_BITS)) - 1)) == 0) {
+                    cascade(level, (int) (currentTick >>> (level * WHEEL_BITS)) & WHEEL_MASK);
+                }
+            }
+            int index = (int) currentTick & WHEEL_MASK;
+            for (Timeout<T> timeout = slots[0][index]; timeout != null; timeout = slots[0][index]) {
+                unlink(timeout);
+                size--;
+                expired.add(timeout.item);
+            }
+        }
+    }
+
+    /**
+     * Puts the timeouts of a slot back into the lower levels
+     */
+    private void cascade(int level, int index) {
+        Timeout<T> timeout = slots[level][index];
+        slots[level][index] = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.level = -1;
+            timeout.previous = null;
+            timeout.next = null;
+            insert(timeout);
+            timeout = next;
+        }
+    }
+
+    private void insert(Timeout<T> timeout) {
+        int level = 0;
+        while (level < LEVELS && (timeout.deadlineTick >>> ((level + 1) * WHEEL_BITS)) != (currentTick >>> ((level + 1) * WHEEL_BITS))) {
+            level++;
+        }
+        int index = level == LEVELS ? 0 : (int) (timeout.deadlineTick >>> (level * WHEEL_BITS)) & WHEEL_MASK;
+        timeout.level = level;
+        timeout.index = index;
+        timeout.previous = null;
+        timeout.next = slots[level][index];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        slots[level][index] = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.previous == null) {
+            slots[timeout.level][timeout.index] = timeout.next;
+        } else {
+            timeout.previous.next = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.level = -1;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    /**
+     * Timeout class which stores an item scheduled on the wheel and it's position in the wheel
+     * */
+    static class Timeout<T> {
+        private T item = null;
+        private long deadlineTick = 0;
+        private int level = -1; // -1 when not scheduled
+        private int index = 0;
+        private Timeout<T> previous = null;
+        private Timeout<T> next = null;
+
+        Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * @return tick at which the item expires
+         */
+        long getDeadlineTick() {
+            return deadlineTick;
+        }
+    }
+}
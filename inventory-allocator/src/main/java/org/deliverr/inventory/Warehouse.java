@@ -0,0 +1,366 @@
+package org.deliverr.inventory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * Warehouse class to store the items available at a warehouse (given warehouse name)
+ *
+ * Every access to the stock is synchronized on the warehouse, so a warehouse can be shared between threads.
+ * Keeping a multi item order consistent across warehouses is left to the caller (see ConcurrentInventoryAllocator).
+ * Quantities are stored by item id (see SkuDictionary) in an IntIntMap, the methods taking item names are a facade
+ * over the ids. Quantities are kept in an InventoryStorage, on the heap by default (see HeapInventoryStorage), or
+ * outside of the heap for very large catalogs (see OffHeapInventoryTable).
+ * */
+public class Warehouse {
+
+    private static final Logger logger = Logger.getLogger(Warehouse.class.getName());
+    private static final SkuDictionary skuDictionary = SkuDictionary.getSkuDictionaryInstance();
+    private InventoryStorage orderItems = null;// storage of the orders (by item id) and it's quantity for a given warehouse
+    private List<InventoryListener> listeners = new CopyOnWriteArrayList<InventoryListener>(); // listeners notified on every stock change
+    private String warehouseName = null;
+
+    public Warehouse(String warehouseName) {
+        this(warehouseName, new HeapInventoryStorage());
+    }
+
+    /**
+     * @param warehouseName
+     * @param storage (empty storage used only by this warehouse)
+     * */
+    public Warehouse(String warehouseName, InventoryStorage storage) {
+        if (storage == null) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        this.warehouseName = warehouseName;
+        this.orderItems = storage;
+    }
+
+    /**
+     * @return name of the warehouse
+     */
+    public String getWarehouseName() {
+        return warehouseName;
+    }
+
+    /**
+     * Adds new orders to the warehouse
+     *
+     * @param orderName
+     * @param orderQuantity
+     */
+    public synchronized void addOrders(String orderName, int orderQuantity) {
+        addOrders(skuDictionary.idOf(orderName), orderQuantity);
+    }
+
+    /**
+     * Adds new orders (by item id) to the warehouse
+     *
+     * @param orderId
+     * @param orderQuantity
+     */
+    synchronized void addOrders(int orderId, int orderQuantity) {
+        int previousQuantity = orderItems.get(orderId);
+        orderItems.put(orderId, orderQuantity);
+        notifyListeners(orderId, previousQuantity, orderQuantity);
+    }
+
+    /**
+     * @param orderName
+     * @return quantity of the item available in the warehouse, 0 if the item is not stocked
+     */
+    public synchronized int getItemQuantity(String orderName) {
+        int orderId = skuDictionary.lookup(orderName);
+        return orderId < 0 ? 0 : orderItems.get(orderId);
+    }
+
+    /**
+     * @param orderId
+     * @return quantity of the item (by item id) available in the warehouse, 0 if the item is not stocked
+     */
+    synchronized int getItemQuantity(int orderId) {
+        return orderItems.get(orderId);
+    }
+
+    /**
+     * @return copy of the set of name of the items stocked in the warehouse
+     */
+    public synchronized Set<String> getItemNames() {
+        Set<String> itemNames = new HashSet<String>();
+        IntIntMap quantities = copyOrderItems();
+        for (int slot = 0; slot < quantities.capacity(); slot++) {
+            if (quantities.isUsed(slot)) {
+                itemNames.add(skuDictionary.nameOf(quantities.keyAt(slot)));
+            }
+        }
+        return itemNames;
+    }
+
+    /**
+     * @param listener
+     */
+    public void addInventoryListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers the listener and copies the stock atomically, so the listener is notified of exactly the changes
+     * made after the copy
+     *
+     * @param listener
+     * @return copy of the quantities of the warehouse by item id
+     */
+    synchronized IntIntMap addInventoryListenerAndCopy(InventoryListener listener) {
+        listeners.add(listener);
+        return copyOrderItems();
+    }
+
+    /**
+     * @param listener
+     */
+    public void removeInventoryListener(InventoryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Takes the quantity of an item out of the warehouse, only when enough stock is available
+     *
+     * @param orderName
+     * @param orderQuantity
+     * @return true/false based on whether the stock was taken
+     */
+    public boolean takeStock(String orderName, int orderQuantity) {
+        return takeStock(skuDictionary.idOf(orderName), orderQuantity);
+    }
+
+    /**
+     * Takes the quantity of an item (by item id) out of the warehouse, only when enough stock is available
+     *
+     * @param orderId
+     * @param orderQuantity
+     * @return true/false based on whether the stock was taken
+     */
+    synchronized boolean takeStock(int orderId, int orderQuantity) {
+        if (orderQuantity < 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        int stockQuantity = orderItems.get(orderId);
+        if (orderQuantity > stockQuantity) {
+            return false;
+        }
+        if (orderQuantity == stockQuantity) {
+            orderItems.remove(orderId);
+        } else {
+            orderItems.put(orderId, stockQuantity - orderQuantity);
+        }
+        notifyListeners(orderId, stockQuantity, stockQuantity - orderQuantity);
+        return true;
+    }
+
+    /**
+     * Puts back the quantity of an item previously taken out of the warehouse
+     *
+     * @param orderName
+     * @param orderQuantity
+     */
+    public void returnStock(String orderName, int orderQuantity) {
+        returnStock(skuDictionary.idOf(orderName), orderQuantity);
+    }
+
+    /**
+     * Puts back the quantity of an item (by item id) previously taken out of the warehouse
+     *
+     * @param orderId
+     * @param orderQuantity
+     */
+    synchronized void returnStock(int orderId, int orderQuantity) {
+        if (orderQuantity < 0) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        int stockQuantity = orderItems.get(orderId);
+        orderItems.put(orderId, stockQuantity + orderQuantity);
+        notifyListeners(orderId, stockQuantity, stockQuantity + orderQuantity);
+    }
+
+    /**
+     * Adjusts the quantity of an item by a relative amount, e.g. for receipts, returns and cycle counts
+     *
+     * @param orderName
+     * @param delta (positive to add stock, negative to remove stock)
+     * @return new quantity of the item
+     */
+    public synchronized int adjustStock(String orderName, int delta) {
+        int orderId = skuDictionary.idOf(orderName);
+        int stockQuantity = orderItems.get(orderId);
+        long newQuantity = (long) stockQuantity + delta;
+        if (newQuantity < 0 || newQuantity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        if (newQuantity == 0) {
+            orderItems.remove(orderId);
+        } else {
+            orderItems.put(orderId, (int) newQuantity);
+        }
+        notifyListeners(orderId, stockQuantity, (int) newQuantity);
+        return (int) newQuantity;
+    }
+
+    /**
+     * @return copy of the quantities of the warehouse by item id
+     */
+    synchronized IntIntMap copyOrderItems() {
+        IntIntMap copy = new IntIntMap(orderItems.size());
+        orderItems.copyTo(copy);
+        return copy;
+    }
+
+    /**
+     *
+     * @param order
+     * @return Shipment or null if warehouse has no orderItems to ship.
+     */
+    public synchronized Shipment processOrder(Order order) {
+        IntIntMap orderQuantities = order.getOrderItems();
+        IntIntMap ordersToShip = null;
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (orderQuantities.isUsed(slot) && orderItems.containsKey(orderQuantities.keyAt(slot))) {
+                int orderId = orderQuantities.keyAt(slot);
+                int orderQuantity = Math.min(orderQuantities.valueAt(slot), orderItems.get(orderId));
+                if (ordersToShip == null) {
+                    ordersToShip = new IntIntMap(orderQuantities.size());
+                }
+                ordersToShip.put(orderId, orderQuantity);
+            }
+        }
+
+        /* When there are no orders to ship from a warehouse, shipment list is empty. Hence, returning null */
+        if(ordersToShip == null) {
+            return null;
+        }
+
+        Shipment shipment = new Shipment(this.warehouseName);
+        for (int slot = 0; slot < ordersToShip.capacity(); slot++) {
+            if (!ordersToShip.isUsed(slot)) {
+                continue;
+            }
+            int orderId = ordersToShip.keyAt(slot);
+            int orderQuantity = ordersToShip.valueAt(slot);
+
+            /* Adding a particular shipment for a given order from a warehouse */
+            shipment.addOrders(orderId, orderQuantity);
+
+            /* Reducing the number of orderItems quantity from orders that are shipped from given warehouse */
+            int orderedQuantity = orderQuantities.get(orderId, 0);
+            if (orderQuantity >= orderedQuantity) {
+                orderQuantities.remove(orderId);
+            } else {
+                orderQuantities.put(orderId, orderedQuantity - orderQuantity);
+            }
+
+            /* Reducing the number of orderItems quantity from warehouse that are shipped for a given order */
+            int stockQuantity = orderItems.get(orderId);
+            if (orderQuantity >= stockQuantity) {
+                orderItems.remove(orderId);
+                notifyListeners(orderId, stockQuantity, 0);
+            } else {
+                orderItems.put(orderId, stockQuantity - orderQuantity);
+                notifyListeners(orderId, stockQuantity, stockQuantity - orderQuantity);
+            }
+        }
+
+        return shipment;
+    }
+
+    /**
+     * Same as processOrder, but writes the shipped quantities to the buffer instead of creating a Shipment, so that
+     * nothing is allocated
+     *
+     * @param order
+     * @param warehouseIndex (index of the warehouse in the warehouse list of the allocation)
+     * @param shipmentBuffer
+     * @return number of tuples added to the buffer
+     */
+    synchronized int processOrder(Order order, int warehouseIndex, ShipmentBuffer shipmentBuffer) {
+        IntIntMap orderQuantities = order.getOrderItems();
+        int first = shipmentBuffer.size();
+        for (int slot = 0; slot < orderQuantities.capacity(); slot++) {
+            if (!orderQuantities.isUsed(slot) || !orderItems.containsKey(orderQuantities.keyAt(slot))) {
+                continue;
+            }
+            int orderId = orderQuantities.keyAt(slot);
+            int stockQuantity = orderItems.get(orderId);
+            int orderQuantity = Math.min(orderQuantities.valueAt(slot), stockQuantity);
+            shipmentBuffer.add(warehouseIndex, orderId, orderQuantity);
+
+            /* Reducing the ordered quantity in place, shipped items are removed once the traversal is done */
+            orderQuantities.setValueAt(slot, orderQuantities.valueAt(slot) - orderQuantity);
+
+            if (orderQuantity >= stockQuantity) {
+                orderItems.remove(orderId);
+                notifyListeners(orderId, stockQuantity, 0);
+            } else {
+                orderItems.put(orderId, stockQuantity - orderQuantity);
+                notifyListeners(orderId, stockQuantity, stockQuantity - orderQuantity);
+            }
+        }
+        for (int i = first; i < shipmentBuffer.size(); i++) {
+            if (orderQuantities.get(shipmentBuffer.getItemId(i), -1) == 0) {
+                orderQuantities.remove(shipmentBuffer.getItemId(i));
+            }
+        }
+        return shipmentBuffer.size() - first;
+    }
+
+    /**
+     * Bulk counterpart of processOrder over dense arrays: reads the stock of every item, fills all of them in one
+     * pass (see BulkFillKernel) and writes back the stock of the items shipped
+     *
+     * @param itemIds (item id by position)
+     * @param ordered (quantity still to ship by position, reduced by the quantity shipped)
+     * @param available (scratch array)
+     * @param shipped (quantity shipped by position)
+     * @param length (number of positions)
+     * @return number of items shipped
+     */
+    synchronized int fill(int[] itemIds, int[] ordered, int[] available, int[] shipped, int length) {
+        for (int i = 0; i < length; i++) {
+            available[i] = orderItems.get(itemIds[i]);
+        }
+        BulkFillKernel.fill(ordered, available, shipped, length);
+        int shippedItems = 0;
+        for (int i = 0; i < length; i++) {
+            if (shipped[i] == 0) {
+                continue;
+            }
+            shippedItems++;
+            if (available[i] == 0) {
+                orderItems.remove(itemIds[i]);
+            } else {
+                orderItems.put(itemIds[i], available[i]);
+            }
+            notifyListeners(itemIds[i], available[i] + shipped[i], available[i]);
+        }
+        return shippedItems;
+    }
+
+    /**
+     * Notifies the listeners about the stock change of an item
+     *
+     * @param orderId
+     * @param previousQuantity
+     * @param newQuantity
+     */
+    private void notifyListeners(int orderId, int previousQuantity, int newQuantity) {
+        for (int i = 0; i < listeners.size(); i++) {
+            InventoryListener listener = listeners.get(i);
+            if (listener instanceof ItemIdInventoryListener) {
+                ((ItemIdInventoryListener) listener).stockChanged(this, orderId, previousQuantity, newQuantity);
+            } else {
+                listener.stockChanged(this, skuDictionary.nameOf(orderId), previousQuantity, newQuantity);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * WarehouseRouter class which ranks the warehouses cheapest first for every destination zone from a cost matrix
+ * (zone by warehouse), so that callers no longer have to sort the warehouses for every order.
+ *
+ * The ranking of a zone is computed when it's first cost is set and then kept up to date: changing the cost of one
+ * warehouse moves only that warehouse to it's new position. Warehouses with the same cost, and warehouses without a
+ * cost for the zone (ranked last), keep the order of the list passed in. Orders without a zone, or for a zone
+ * without costs, use that list order.
+ *
+ * Usage:
+ *     WarehouseRouter warehouseRouter = new WarehouseRouter(warehouses);
+ *     warehouseRouter.setCost("west", owd, 4.5);
+ *     order.setDestinationZone("west");
+ *     inventoryAllocator.allocateShipment(order, warehouseRouter);
+ * */
+public class WarehouseRouter {
+
+    private static final Logger logger = Logger.getLogger(WarehouseRouter.class.getName());
+    private List<Warehouse> warehouses = null; // warehouses in the default order
+    private IdentityHashMap<Warehouse, Integer> warehouseIndexes = new IdentityHashMap<Warehouse, Integer>(); // warehouse and it's position in the default order
+    private Map<String, ZoneRanking> rankings = new HashMap<String, ZoneRanking>(); // zone and it's ranking
+
+    /**
+     * @param warehouses (default order, a warehouse listed more than once keeps it's first position)
+     * */
+    public WarehouseRouter(List<Warehouse> warehouses) {
+        List<Warehouse> uniqueWarehouses = new ArrayList<Warehouse>();
+        for (Warehouse warehouse : warehouses) {
+            if (!warehouseIndexes.containsKey(warehouse)) {
+                warehouseIndexes.put(warehouse, uniqueWarehouses.size());
+                uniqueWarehouses.add(warehouse);
+            }
+        }
+        this.warehouses = Collections.unmodifiableList(uniqueWarehouses);
+    }
+
+    /**
+     * @return warehouses in the default order
+     */
+    public List<Warehouse> getWarehouses() {
+        return warehouses;
+    }
+
+    /**
+     * Sets the cost of shipping from the warehouse to the zone and moves the warehouse to it's new rank
+     *
+     * @param zone
+     * @param warehouse
+     * @param cost
+     */
+    public synchronized void setCost(String zone, Warehouse warehouse, double cost) {
+        Integer index = warehouseIndexes.get(warehouse);
+        if (zone == null || index == null || Double.isNaN(cost)) {
+            throw new IllegalArgumentException("Please pass valid input");
+        }
+        ZoneRanking ranking = rankings.get(zone);
+        if (ranking == null) {
+            ranking = new ZoneRanking(warehouses.size());
+            rankings.put(zone, ranking);
+        }
+        ranking.update(index, cost);
+    }
+
+    /**
+     * @param zone
+     * @param warehouse
+     * @return cost of shipping from the warehouse to the zone, or infinity when it is not set
+     */
+    public synchronized double getCost(String zone, Warehouse warehouse) {
+        ZoneRanking ranking = rankings.get(zone);
+        Integer index = warehouseIndexes.get(warehouse);
+        return ranking == null || index == null ? Double.POSITIVE_INFINITY : ranking.costs[index];
+    }
+
+    /**
+     * @return zones having costs
+     */
+    public synchronized Set<String> getZones() {
+        return Collections.unmodifiableSet(new HashSet<String>(rankings.keySet()));
+    }
+
+    /**
+     * @param zone (may be null)
+     * @return warehouses ranked cheapest first for the zone, the default order when the zone has no costs
+     */
+    public synchronized List<Warehouse> getRanking(String zone) {
+        ZoneRanking ranking = zone == null ? null : rankings.get(zone);
+        if (ranking == null) {
+            return warehouses;
+        }
+        if (ranking.view == null) {
+            Warehouse[] ranked = new Warehouse[ranking.ranked.length];
+            for (int rank = 0; rank < ranked.length; rank++) {
+                ranked[rank] = warehouses.get(ranking.ranked[rank]);
+            }
+            ranking.view = Collections.unmodifiableList(Arrays.asList(ranked));
+        }
+        return ranking.view;
+    }
+
+    /**
+     * Ranking of the warehouses for one zone
+     * */
+    private static class ZoneRanking {
+        private double[] costs = null; // cost by default position of the warehouse
+        private int[] ranked = null; // default positions of the warehouses, cheapest first
+        private int[] ranks = null; // rank by default position of the warehouse
+        private List<Warehouse> view = null; // ranked warehouses, built on the first read after a change
+
+        ZoneRanking(int warehouseCount) {
+            costs = new double[warehouseCount];
+            ranked = new int[warehouseCount];
+            ranks = new int[warehouseCount];
+            Arrays.fill(costs, Double.POSITIVE_INFINITY);
+            for (int index = 0; index < warehouseCount; index++) {
+                ranked[index] = index;
+                ranks[index] = index;
+            }
+        }
+
+        /**
+         * Moves the warehouse from it's rank to the rank of it's new cost, shifting the warehouses in between by one
+         * */
+        void update(int index, double cost) {
+            costs[index] = cost;
+            int rank = ranks[index];
+            while (rank > 0 && isCheaper(index, ranked[rank - 1])) {
+                ranked[rank] = ranked[rank - 1];
+                ranks[ranked[rank]] = rank;
+                rank--;
+            }
+            while (rank < ranked.length - 1 && isCheaper(ranked[rank + 1], index)) {
+                ranked[rank] = ranked[rank + 1];
+                ranks[ranked[rank]] = rank;
+                rank++;
+            }
+            ranked[rank] = index;
+            ranks[index] = rank;
+            view = null;
+        }
+
+        /**
+         * @return true when the first warehouse ranks before the second, the default order breaking ties
+         * */
+        private boolean isCheaper(int first, int second) {
+            int comparison = Double.compare(costs[first], costs[second]);
+            return comparison < 0 || (comparison == 0 && first < second);
+        }
+    }
+}
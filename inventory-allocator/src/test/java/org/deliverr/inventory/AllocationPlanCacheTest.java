@@ -0,0 +1,114 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test AllocationPlanCache class for hits, invalidation and eviction.
+ * */
+public class AllocationPlanCacheTest {
+
+    private static final Logger logger = Logger.getLogger(AllocationPlanCacheTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 3, "banana", 10),
+                warehouse("SecondWarehouse", "apple", 2));
+    }
+
+    private Order createBundle(boolean bananaFirst) {
+        Order order = new Order();
+        if (bananaFirst) {
+            order.addOrders("banana", 1);
+        }
+        order.addOrders("apple", 1);
+        if (!bananaFirst) {
+            order.addOrders("banana", 1);
+        }
+        return order;
+    }
+
+    /**
+     * The following test case allocates the same bundle, with it's items added in a different order, until the
+     * cheapest warehouse runs out of apples
+     * Result expected is the cached plan reused three times and planned again once the apples ran out.
+     * */
+    @Test
+    public void reusesPlanWhileStockLasts() {
+        List<Warehouse> warehouses = createWarehouses();
+        AllocationPlanCache allocationPlanCache = new AllocationPlanCache(new GreedyAllocationStrategy(), 10);
+
+        for (int i = 0; i < 3; i++) {
+            List<Shipment> shipments = inventoryAllocator.allocateShipment(createBundle(i % 2 == 0), warehouses, allocationPlanCache);
+            assertEquals(1, shipments.size());
+            assertEquals("FirstWarehouse", shipments.get(0).getWarehouseName());
+        }
+        List<Shipment> shipments = inventoryAllocator.allocateShipment(createBundle(false), warehouses, allocationPlanCache);
+
+        assertEquals(2, shipments.size());
+        assertEquals("SecondWarehouse", shipments.get(1).getWarehouseName());
+        assertEquals(2, allocationPlanCache.getHitCount());
+        assertEquals(2, allocationPlanCache.getMissCount());
+        assertEquals(0.5, allocationPlanCache.getHitRate(), 1e-9);
+    }
+
+    /**
+     * The following test case caches more orders than the maximum size
+     * Result expected is the least recently used plan evicted.
+     * */
+    @Test
+    public void evictsLeastRecentlyUsedPlan() {
+        List<Warehouse> warehouses = createWarehouses();
+        AllocationPlanCache allocationPlanCache = new AllocationPlanCache(new GreedyAllocationStrategy(), 2);
+        for (int quantity = 1; quantity <= 3; quantity++) {
+            Order order = new Order();
+            order.addOrders("banana", quantity);
+            allocationPlanCache.plan(order, warehouses);
+        }
+        Order order = new Order();
+        order.addOrders("banana", 1);
+        allocationPlanCache.plan(order, warehouses);
+
+        assertEquals(2, allocationPlanCache.size());
+        assertEquals(0, allocationPlanCache.getHitCount());
+        assertTrue(allocationPlanCache.getHitRate() == 0);
+    }
+
+    /**
+     * The following test case plans the same bundle against fresh lists of the same warehouses, against two lists
+     * taken in turns, and against the list once reordered in place
+     * Result expected is the plan reused for any list of the same warehouses in the same order, and planned again
+     * from the new cheapest warehouse once the list is reordered.
+     * */
+    @Test
+    public void keysPlansByWarehousesOfTheList() {
+        List<Warehouse> warehouses = createWarehouses();
+        List<Warehouse> reversedWarehouses = new ArrayList<Warehouse>(warehouses);
+        Collections.reverse(reversedWarehouses);
+        AllocationPlanCache allocationPlanCache = new AllocationPlanCache(new GreedyAllocationStrategy(), 10);
+        Order order = new Order();
+        order.addOrders("apple", 1);
+
+        for (int i = 0; i < 4; i++) {
+            allocationPlanCache.plan(order, new ArrayList<Warehouse>(i % 2 == 0 ? warehouses : reversedWarehouses));
+        }
+        assertEquals(2, allocationPlanCache.getHitCount());
+        assertEquals(2, allocationPlanCache.size());
+
+        Collections.reverse(warehouses);
+        AllocationPlan allocationPlan = allocationPlanCache.plan(order, warehouses);
+
+        assertEquals(3, allocationPlanCache.getHitCount());
+        assertEquals("SecondWarehouse", allocationPlan.getLines().get(0).getWarehouse().getWarehouseName());
+    }
+}
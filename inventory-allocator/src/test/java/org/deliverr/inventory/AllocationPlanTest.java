@@ -0,0 +1,92 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test the two phase plan and commit allocation of InventoryAllocator and AllocationPlan classes.
+ * */
+public class AllocationPlanTest {
+
+    private static final Logger logger = Logger.getLogger(AllocationPlanTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    /**
+     * Builds the same two warehouses for every test case
+     * */
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 15, "orange", 200),
+                warehouse("SecondWarehouse", "apple", 50, "orange", 100));
+    }
+
+    /**
+     * The following test case tests that planning changes neither the order nor the warehouses
+     * and that committing the plan ships the same shipments as allocateShipment.
+     * */
+    @Test
+    public void commitShipsPlannedShipments() {
+        List<Warehouse> warehouses = createWarehouses();
+        Order order = new Order();
+        order.addOrders("apple", 60);
+        order.addOrders("orange", 300);
+
+        AllocationPlan allocationPlan = inventoryAllocator.planShipment(order, warehouses);
+        assertTrue(allocationPlan.isFulfillable());
+        assertEquals(15, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(60, order.getOrderItemsQuantity("apple"));
+
+        List<Shipment> expectedShipments = inventoryAllocator.allocateShipment(order, createWarehouses());
+        assertEquals(expectedShipments, allocationPlan.getShipments());
+        assertTrue(allocationPlan.commit());
+        assertEquals(0, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(5, warehouses.get(1).getItemQuantity("apple"));
+        assertEquals(0, warehouses.get(1).getItemQuantity("orange"));
+    }
+
+    /**
+     * The following test case tests for an order which can not be completely shipped
+     * Result expected is an empty plan and no stock taken out of the warehouses.
+     * */
+    @Test
+    public void unfulfillablePlanLeavesStockUntouched() {
+        List<Warehouse> warehouses = createWarehouses();
+        Order order = new Order();
+        order.addOrders("apple", 60);
+        order.addOrders("orange", 301);
+
+        AllocationPlan allocationPlan = inventoryAllocator.planShipment(order, new InventoryIndex(warehouses));
+
+        assertFalse(allocationPlan.isFulfillable());
+        assertEquals(new ArrayList<Shipment>(), allocationPlan.getShipments());
+        assertEquals(15, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(100, warehouses.get(1).getItemQuantity("orange"));
+    }
+
+    /**
+     * The following test case tests committing a plan after the stock of a warehouse changed
+     * Result expected is the commit refused and the lines already applied rolled back.
+     * */
+    @Test
+    public void stalePlanIsRolledBack() {
+        List<Warehouse> warehouses = createWarehouses();
+        Order order = new Order();
+        order.addOrders("apple", 60);
+
+        AllocationPlan allocationPlan = inventoryAllocator.planShipment(order, warehouses);
+        warehouses.get(1).addOrders("apple", 10);
+
+        assertFalse(allocationPlan.commit());
+        assertEquals(15, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(10, warehouses.get(1).getItemQuantity("apple"));
+    }
+}
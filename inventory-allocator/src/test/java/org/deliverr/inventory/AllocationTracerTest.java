@@ -0,0 +1,108 @@
+package org.deliverr.inventory;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test AllocationTracer class with the allocations of InventoryAllocator.
+ * */
+public class AllocationTracerTest {
+
+    private static final Logger logger = Logger.getLogger(AllocationTracerTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    @After
+    public void tearDown() {
+        inventoryAllocator.setTracer(AllocationTracer.DISABLED);
+    }
+
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("owd", "apple", 5),
+                warehouse("dm", "apple", 3, "banana", 2));
+    }
+
+    /**
+     * The following test case traces a filled order and an order short of apples
+     * Result expected is the quantities taken from every warehouse, and the apples short as the rejection reason.
+     * */
+    @Test
+    public void tracesVisitsAndRejectionReason() {
+        AllocationTracer tracer = new AllocationTracer(16, 1);
+        inventoryAllocator.setTracer(tracer);
+
+        Order filledOrder = new Order();
+        filledOrder.addOrders("apple", 6);
+        inventoryAllocator.allocateShipment(filledOrder, createWarehouses());
+        Order rejectedOrder = new Order();
+        rejectedOrder.addOrders("apple", 10);
+        rejectedOrder.addOrders("banana", 1);
+        assertTrue(inventoryAllocator.allocateShipment(rejectedOrder, createWarehouses()).isEmpty());
+
+        List<AllocationTrace> traces = tracer.getTraces();
+        assertEquals(2, traces.size());
+
+        AllocationTrace filledTrace = traces.get(0);
+        assertTrue(filledTrace.isFilled());
+        assertNull(filledTrace.getRejectionReason());
+        assertEquals(2, filledTrace.getVisits().size());
+        assertEquals("dm", filledTrace.getVisits().get(1).getWarehouseName());
+        assertEquals(Integer.valueOf(1), filledTrace.getVisits().get(1).getTakenItems().get("apple"));
+
+        AllocationTrace rejectedTrace = traces.get(1);
+        Map<String, Integer> orderedItems = new HashMap<>();
+        orderedItems.put("apple", 10);
+        orderedItems.put("banana", 1);
+        assertFalse(rejectedTrace.isFilled());
+        assertEquals(orderedItems, rejectedTrace.getOrderedItems());
+        assertEquals(2, rejectedTrace.getWarehousesVisited());
+        assertEquals("short of {apple=2}", rejectedTrace.getRejectionReason());
+    }
+
+    /**
+     * The following test case records more traces than the ring buffer holds, then stops the sampling
+     * Result expected is only the newest traces kept and dumped, oldest first, and nothing recorded once stopped.
+     * */
+    @Test
+    public void ringBufferKeepsNewestTraces() throws IOException {
+        AllocationTracer tracer = new AllocationTracer(3, 1);
+        inventoryAllocator.setTracer(tracer);
+        List<Warehouse> warehouses = createWarehouses();
+        for (int i = 0; i < 6; i++) {
+            Order order = new Order();
+            order.addOrders("apple", 1);
+            inventoryAllocator.allocateShipment(order, warehouses);
+        }
+
+        List<AllocationTrace> traces = tracer.getTraces();
+        assertEquals(4, tracer.getCapacity());
+        assertEquals(6, tracer.getRecordedCount());
+        assertEquals(4, traces.size());
+        for (int i = 0; i < traces.size(); i++) {
+            assertEquals(2 + i, traces.get(i).getSequence());
+        }
+        StringBuilder dump = new StringBuilder();
+        tracer.dump(dump);
+        assertEquals(4, dump.toString().split(System.lineSeparator()).length);
+        assertTrue(dump.toString().startsWith("#2 FILLED"));
+
+        tracer.setSampleEvery(0);
+        Order order = new Order();
+        order.addOrders("apple", 1);
+        inventoryAllocator.allocateShipment(order, warehouses);
+        assertEquals(6, tracer.getRecordedCount());
+    }
+}
@@ -0,0 +1,117 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.order;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test utility to test AsyncInventoryAllocator class for concurrent callers and backpressure.
+ * */
+public class AsyncInventoryAllocatorTest {
+
+    private static final Logger logger = Logger.getLogger(AsyncInventoryAllocatorTest.class.getName());
+
+    private Order createOrder(int quantity) {
+        return order("apple", quantity);
+    }
+
+    /**
+     * The following test case queues orders from many threads for more apples than the warehouses hold
+     * Result expected is exactly the stock shipped and every other order completed with an empty list.
+     * */
+    @Test(timeout = 60000)
+    public void allocatesOrdersFromManyThreads() throws Exception {
+        List<Warehouse> warehouses = new ArrayList<>();
+        Warehouse warehouse1 = new Warehouse("FirstWarehouse");
+        warehouse1.addOrders("apple", 300);
+        Warehouse warehouse2 = new Warehouse("SecondWarehouse");
+        warehouse2.addOrders("apple", 200);
+        warehouses.add(warehouse1);
+        warehouses.add(warehouse2);
+        final AsyncInventoryAllocator asyncInventoryAllocator = new AsyncInventoryAllocator(warehouses, 10000, 32, BatchOrderingPolicy.FIFO);
+
+        final List<CompletableFuture<List<Shipment>>> futures = new ArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread caller = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    CompletableFuture<List<Shipment>> shipments = asyncInventoryAllocator.allocateShipment(createOrder(1));
+                    synchronized (futures) {
+                        futures.add(shipments);
+                    }
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        int shipped = 0;
+        for (CompletableFuture<List<Shipment>> shipments : futures) {
+            for (Shipment shipment : shipments.get(10, TimeUnit.SECONDS)) {
+                shipped += shipment.getOrderItemsQuantity("apple");
+            }
+        }
+        asyncInventoryAllocator.close();
+
+        assertEquals(800, futures.size());
+        assertEquals(500, shipped);
+        assertEquals(0, warehouse1.getItemQuantity("apple") + warehouse2.getItemQuantity("apple"));
+        assertTrue(asyncInventoryAllocator.getBatchCount() <= 800);
+    }
+
+    /**
+     * The following test case stalls the writer thread and fills the queue
+     * Result expected is the next order rejected right away, and the queued order allocated once the writer resumes.
+     * */
+    @Test(timeout = 60000)
+    public void rejectsOrdersWhenQueueIsFull() throws Exception {
+        final CountDownLatch writerStalled = new CountDownLatch(1);
+        final CountDownLatch resumeWriter = new CountDownLatch(1);
+        Warehouse warehouse = new Warehouse("FirstWarehouse");
+        warehouse.addOrders("apple", 10);
+        warehouse.addInventoryListener((stockWarehouse, itemName, previousQuantity, newQuantity) -> {
+            writerStalled.countDown();
+            try {
+                resumeWriter.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Warehouse> warehouses = new ArrayList<>();
+        warehouses.add(warehouse);
+        AsyncInventoryAllocator asyncInventoryAllocator = new AsyncInventoryAllocator(warehouses, 1, 1, BatchOrderingPolicy.FIFO);
+
+        CompletableFuture<List<Shipment>> first = asyncInventoryAllocator.allocateShipment(createOrder(1));
+        writerStalled.await();
+        CompletableFuture<List<Shipment>> queued = asyncInventoryAllocator.allocateShipment(createOrder(1));
+        CompletableFuture<List<Shipment>> rejected = asyncInventoryAllocator.allocateShipment(createOrder(1));
+
+        try {
+            rejected.get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        resumeWriter.countDown();
+        assertEquals(1, first.get(10, TimeUnit.SECONDS).size());
+        assertEquals(1, queued.get(10, TimeUnit.SECONDS).size());
+        assertEquals(1, asyncInventoryAllocator.getRejectionCount());
+        asyncInventoryAllocator.close();
+        assertEquals(8, warehouse.getItemQuantity("apple"));
+    }
+}
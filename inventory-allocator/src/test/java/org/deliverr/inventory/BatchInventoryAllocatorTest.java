@@ -0,0 +1,117 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.order;
+import static org.deliverr.inventory.TestInventory.shipment;
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test utility to test BatchInventoryAllocator class for batches of orders against the same warehouses.
+ * */
+public class BatchInventoryAllocatorTest {
+
+    private static final Logger logger = Logger.getLogger(BatchInventoryAllocatorTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    /**
+     * Builds the same two warehouses for every test case
+     * */
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 10, "orange", 5),
+                warehouse("SecondWarehouse", "apple", 5, "banana", 20));
+    }
+
+    /**
+     * Builds an order for the given item and quantity
+     * */
+    private Order createOrder(String orderItemName, int orderItemQuantity, int priority) {
+        Order order = order(orderItemName, orderItemQuantity);
+        order.setPriority(priority);
+        return order;
+    }
+
+    /**
+     * The following test case tests that a first in first out batch ships the same shipments as allocating the orders
+     * one after another, and leaves the same stock in the warehouses.
+     * */
+    @Test
+    public void fifoBatchMatchesSequentialAllocation() {
+        List<Order> orders = new ArrayList<>();
+        orders.add(createOrder("apple", 12, 0));
+        orders.add(createOrder("apple", 4, 0));
+        orders.add(createOrder("banana", 20, 0));
+        orders.get(2).addOrders("orange", 5);
+
+        List<Warehouse> sequentialWarehouses = createWarehouses();
+        List<List<Shipment>> expectedResults = new ArrayList<>();
+        expectedResults.add(inventoryAllocator.allocateShipment(createOrder("apple", 12, 0), sequentialWarehouses));
+        expectedResults.add(new ArrayList<Shipment>()); // only 3 apples left, order is rejected
+        Order thirdOrder = createOrder("banana", 20, 0);
+        thirdOrder.addOrders("orange", 5);
+        expectedResults.add(inventoryAllocator.allocateShipment(thirdOrder, sequentialWarehouses));
+
+        List<Warehouse> warehouses = createWarehouses();
+        List<List<Shipment>> finalResults = inventoryAllocator.allocateShipments(orders, warehouses, BatchOrderingPolicy.FIFO);
+
+        assertEquals(expectedResults, finalResults);
+        assertEquals(0, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(3, warehouses.get(1).getItemQuantity("apple"));
+        assertEquals(0, warehouses.get(1).getItemQuantity("banana"));
+    }
+
+    /**
+     * The following test case tests that a priority batch serves the higher priority order first
+     * Result expected is the second order shipped and the first one rejected, reported in the input order.
+     * */
+    @Test
+    public void priorityBatchServesHigherPriorityFirst() {
+        List<Order> orders = new ArrayList<>();
+        orders.add(createOrder("apple", 10, 1));
+        orders.add(createOrder("apple", 12, 5));
+
+        List<List<Shipment>> finalResults = inventoryAllocator.allocateShipments(orders, createWarehouses(), BatchOrderingPolicy.PRIORITY);
+
+        List<Shipment> expectedShipments = Arrays.asList(shipment("FirstWarehouse", "apple", 10),
+                shipment("SecondWarehouse", "apple", 2));
+
+        assertEquals(new ArrayList<Shipment>(), finalResults.get(0));
+        assertEquals(expectedShipments, finalResults.get(1));
+    }
+
+    /**
+     * The following test case changes the stock of a warehouse while the batch writes the stock it allocated back
+     * Result expected is IllegalStateException and the stock already taken by the batch put back.
+     * */
+    @Test
+    public void failedWriteBackPutsStockBack() {
+        final List<Warehouse> warehouses = createWarehouses();
+        warehouses.get(0).addInventoryListener(new InventoryListener() {
+            @Override
+            public void stockChanged(Warehouse warehouse, String itemName, int previousQuantity, int newQuantity) {
+                if (newQuantity < previousQuantity && warehouses.get(1).getItemQuantity("banana") > 0) {
+                    warehouses.get(1).adjustStock("banana", -20);
+                }
+            }
+        });
+        List<Order> orders = new ArrayList<>();
+        orders.add(createOrder("orange", 5, 0));
+        orders.add(createOrder("banana", 20, 0));
+
+        try {
+            inventoryAllocator.allocateShipments(orders, warehouses, BatchOrderingPolicy.FIFO);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals(5, warehouses.get(0).getItemQuantity("orange"));
+        }
+    }
+}
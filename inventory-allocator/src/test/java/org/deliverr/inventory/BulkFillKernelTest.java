@@ -0,0 +1,136 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test utility to test BulkFillKernel class and the bulk fill of InventoryAllocator.allocateShipment into a buffer.
+ * */
+public class BulkFillKernelTest {
+
+    private static final Logger logger = Logger.getLogger(BulkFillKernelTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    /**
+     * The following test case fills dense arrays, some items short and some not stocked at all
+     * Result expected is the minimum of the ordered and available quantity shipped, and taken off both.
+     * */
+    @Test
+    public void fillsMinimumOfOrderedAndAvailable() {
+        int[] ordered = {5, 3, 0, 7, 2};
+        int[] available = {10, 1, 4, 0, 2};
+        int[] shipped = new int[5];
+
+        BulkFillKernel.fill(ordered, available, shipped, 5);
+
+        assertArrayEquals(new int[]{5, 1, 0, 0, 2}, shipped);
+        assertArrayEquals(new int[]{0, 2, 0, 7, 0}, ordered);
+        assertArrayEquals(new int[]{5, 0, 4, 0, 0}, available);
+    }
+
+    /**
+     * @param random
+     * @return warehouses, the same for the same random state
+     */
+    private List<Warehouse> createWarehouses(Random random) {
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            Warehouse warehouse = new Warehouse("Warehouse" + w);
+            for (int item = 0; item < 60; item++) {
+                if (random.nextBoolean()) {
+                    warehouse.addOrders("item" + item, 1 + random.nextInt(5));
+                }
+            }
+            warehouses.add(warehouse);
+        }
+        return warehouses;
+    }
+
+    /**
+     * The following test case allocates the same wide orders item by item and in bulk, some of them not fulfillable
+     * Result expected is the same shipments, the same stock left and the same quantities left in the orders.
+     * */
+    @Test
+    public void bulkFillAllocatesLikeItemByItem() {
+        int previousBulkFillMinItems = inventoryAllocator.getBulkFillMinItems();
+        try {
+            List<Warehouse> itemByItemWarehouses = createWarehouses(new Random(3));
+            List<Warehouse> bulkWarehouses = createWarehouses(new Random(3));
+            ShipmentBuffer itemByItemBuffer = new ShipmentBuffer();
+            ShipmentBuffer bulkBuffer = new ShipmentBuffer();
+            Random random = new Random(5);
+            for (int round = 0; round < 40; round++) {
+                Order itemByItemOrder = new Order();
+                Order bulkOrder = new Order();
+                for (int i = 0; i < 40; i++) {
+                    String itemName = "item" + random.nextInt(60);
+                    int quantity = 1 + random.nextInt(3);
+                    itemByItemOrder.addOrders(itemName, quantity);
+                    bulkOrder.addOrders(itemName, quantity);
+                }
+
+                inventoryAllocator.setBulkFillMinItems(Integer.MAX_VALUE);
+                boolean itemByItemShipped = inventoryAllocator.allocateShipment(itemByItemOrder, itemByItemWarehouses, itemByItemBuffer);
+                inventoryAllocator.setBulkFillMinItems(1);
+                boolean bulkShipped = inventoryAllocator.allocateShipment(bulkOrder, bulkWarehouses, bulkBuffer);
+
+                assertEquals(itemByItemShipped, bulkShipped);
+                assertEquals(itemByItemBuffer.toShipments(itemByItemWarehouses), bulkBuffer.toShipments(bulkWarehouses));
+                assertEquals(itemByItemOrder.getOrderItems(), bulkOrder.getOrderItems());
+            }
+            for (int w = 0; w < itemByItemWarehouses.size(); w++) {
+                assertEquals(itemByItemWarehouses.get(w).copyOrderItems(), bulkWarehouses.get(w).copyOrderItems());
+            }
+        } finally {
+            inventoryAllocator.setBulkFillMinItems(previousBulkFillMinItems);
+        }
+    }
+
+    /**
+     * The following test case allocates item by item and in bulk an order of 40 items all with quantity 0, and an
+     * order mixing items with quantity 0 and positive quantities
+     * Result expected is the same result, the same shipments including the 0 quantities, the same quantities left in
+     * the orders and the same stock left.
+     * */
+    @Test
+    public void bulkFillAllocatesZeroQuantitiesLikeItemByItem() {
+        int previousBulkFillMinItems = inventoryAllocator.getBulkFillMinItems();
+        try {
+            List<Warehouse> itemByItemWarehouses = createWarehouses(new Random(3));
+            List<Warehouse> bulkWarehouses = createWarehouses(new Random(3));
+            ShipmentBuffer itemByItemBuffer = new ShipmentBuffer();
+            ShipmentBuffer bulkBuffer = new ShipmentBuffer();
+            for (int round = 0; round < 2; round++) {
+                Order itemByItemOrder = new Order();
+                Order bulkOrder = new Order();
+                for (int item = 0; item < 40; item++) {
+                    int quantity = round == 0 || item % 2 == 0 ? 0 : 1 + item % 3;
+                    itemByItemOrder.addOrders("item" + item, quantity);
+                    bulkOrder.addOrders("item" + item, quantity);
+                }
+
+                inventoryAllocator.setBulkFillMinItems(Integer.MAX_VALUE);
+                boolean itemByItemShipped = inventoryAllocator.allocateShipment(itemByItemOrder, itemByItemWarehouses, itemByItemBuffer);
+                inventoryAllocator.setBulkFillMinItems(1);
+                boolean bulkShipped = inventoryAllocator.allocateShipment(bulkOrder, bulkWarehouses, bulkBuffer);
+
+                assertEquals(itemByItemShipped, bulkShipped);
+                assertEquals(itemByItemBuffer.size(), bulkBuffer.size());
+                assertEquals(itemByItemBuffer.toShipments(itemByItemWarehouses), bulkBuffer.toShipments(bulkWarehouses));
+                assertEquals(itemByItemOrder.getOrderItems(), bulkOrder.getOrderItems());
+            }
+            for (int w = 0; w < itemByItemWarehouses.size(); w++) {
+                assertEquals(itemByItemWarehouses.get(w).copyOrderItems(), bulkWarehouses.get(w).copyOrderItems());
+            }
+        } finally {
+            inventoryAllocator.setBulkFillMinItems(previousBulkFillMinItems);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress test utility to test ConcurrentInventoryAllocator class with many threads sharing the same warehouses.
+ * */
+public class ConcurrentInventoryAllocatorTest {
+
+    private static final Logger logger = Logger.getLogger(ConcurrentInventoryAllocatorTest.class.getName());
+    private static final String[] ITEMS = {"apple", "orange", "banana", "mango", "pineapple", "coconut"};
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 2000;
+
+    /**
+     * The following test case allocates random orders from many threads against three shared warehouses
+     * Result expected is the stock left plus the stock shipped equals the initial stock for every item,
+     * and every non empty shipment list completely ships it's order.
+     * */
+    @Test
+    public void inventoryIsConservedUnderContention() throws Exception {
+        List<Warehouse> warehouses = new ArrayList<>();
+        HashMap<String, Integer> initialStock = new HashMap<>();
+        for (int w = 0; w < 3; w++) {
+            Warehouse warehouse = new Warehouse("Warehouse" + w);
+            for (String item : ITEMS) {
+                warehouse.addOrders(item, 500 * (w + 1));
+                initialStock.merge(item, 500 * (w + 1), Integer::sum);
+            }
+            warehouses.add(warehouse);
+        }
+        final ConcurrentInventoryAllocator allocator = new ConcurrentInventoryAllocator(warehouses, new StripedItemLocks(4));
+        final ConcurrentHashMap<String, AtomicInteger> shippedStock = new ConcurrentHashMap<>();
+        final AtomicInteger incompleteShipments = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final long seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    Order order = new Order();
+                    HashMap<String, Integer> ordered = new HashMap<>();
+                    for (int n = 1 + random.nextInt(3); n > 0; n--) {
+                        String item = ITEMS[random.nextInt(ITEMS.length)];
+                        int quantity = 1 + random.nextInt(20);
+                        order.addOrders(item, quantity);
+                        ordered.put(item, quantity);
+                    }
+                    List<Shipment> shipments = allocator.allocateShipment(order);
+                    HashMap<String, Integer> shipped = new HashMap<>();
+                    for (Shipment shipment : shipments) {
+                        for (String item : shipment.getOrderItemsName()) {
+                            int quantity = shipment.getOrderItemsQuantity(item);
+                            shipped.merge(item, quantity, Integer::sum);
+                            shippedStock.computeIfAbsent(item, k -> new AtomicInteger()).addAndGet(quantity);
+                        }
+                    }
+                    if (!shipments.isEmpty() && !shipped.equals(ordered)) {
+                        incompleteShipments.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, incompleteShipments.get());
+        for (String item : ITEMS) {
+            int left = 0;
+            for (Warehouse warehouse : warehouses) {
+                left += warehouse.getItemQuantity(item);
+                assertTrue(warehouse.getItemQuantity(item) >= 0);
+            }
+            int shipped = shippedStock.containsKey(item) ? shippedStock.get(item).get() : 0;
+            assertEquals("stock of " + item, (int) initialStock.get(item), left + shipped);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test CostOptimalAllocationStrategy class against the greedy cheapest first allocation.
+ * */
+public class CostOptimalAllocationStrategyTest {
+
+    private static final Logger logger = Logger.getLogger(CostOptimalAllocationStrategyTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    /**
+     * Builds a cheap warehouse holding a single apple and a second warehouse holding all the apples
+     * */
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 1),
+                warehouse("SecondWarehouse", "apple", 10));
+    }
+
+    /**
+     * @return expected single shipment of the whole order from the second warehouse
+     * */
+    private List<Shipment> singleShipmentFromSecondWarehouse() {
+        Shipment shipment = new Shipment("SecondWarehouse");
+        shipment.addOrders("apple", 10);
+        List<Shipment> expectedShipments = new ArrayList<>();
+        expectedShipments.add(shipment);
+        return expectedShipments;
+    }
+
+    /**
+     * The following test case tests for a fixed cost per shipment
+     * Result expected is a single shipment from the warehouse holding the whole order instead of the greedy split.
+     * */
+    @Test
+    public void exactSearchAvoidsSplitShipment() {
+        Order order = new Order();
+        order.addOrders("apple", 10);
+        CostModel costModel = new CostModel(10, 1);
+        costModel.setUnitCost("FirstWarehouse", 0.5);
+
+        List<Shipment> finalShipments = inventoryAllocator.allocateShipment(order, createWarehouses(),
+                new CostOptimalAllocationStrategy(costModel));
+
+        assertEquals(singleShipmentFromSecondWarehouse(), finalShipments);
+    }
+
+    /**
+     * The following test case tests the heuristic search, forced by an exact warehouse limit of 0
+     * Result expected is the same single shipment as the exact search.
+     * */
+    @Test
+    public void heuristicSearchAvoidsSplitShipment() {
+        Order order = new Order();
+        order.addOrders("apple", 10);
+        CostOptimalAllocationStrategy strategy = new CostOptimalAllocationStrategy(new CostModel(10, 1), 0, 1, TimeUnit.SECONDS);
+
+        assertEquals(singleShipmentFromSecondWarehouse(), inventoryAllocator.allocateShipment(order, createWarehouses(), strategy));
+    }
+
+    /**
+     * The following test case tests a latency budget of 0
+     * Result expected is the greedy cheapest first split.
+     * */
+    @Test
+    public void exceededLatencyBudgetFallsBackToGreedy() {
+        Order order = new Order();
+        order.addOrders("apple", 10);
+        CostOptimalAllocationStrategy strategy = new CostOptimalAllocationStrategy(new CostModel(10, 1), 0, 0, TimeUnit.NANOSECONDS);
+
+        List<Shipment> expectedShipments = inventoryAllocator.allocateShipment(order, createWarehouses());
+        Order sameOrder = new Order();
+        sameOrder.addOrders("apple", 10);
+
+        assertEquals(expectedShipments, inventoryAllocator.allocateShipment(sameOrder, createWarehouses(), strategy));
+    }
+
+    /**
+     * The following test case compares the exact search with the heuristic and the greedy plans on random inventories
+     * Result expected is the exact plan never more expensive than the other two, and the heuristic plan never more
+     * expensive than the greedy one.
+     * */
+    @Test
+    public void exactPlanIsNeverMoreExpensive() {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            CostModel costModel = new CostModel(5, 1);
+            List<Warehouse> warehouses = new ArrayList<>();
+            for (int w = 0; w < 8; w++) {
+                Warehouse warehouse = new Warehouse("Warehouse" + w);
+                costModel.setShipmentCost(warehouse.getWarehouseName(), 1 + random.nextInt(10));
+                for (String item : new String[]{"apple", "orange", "banana"}) {
+                    if (random.nextBoolean()) {
+                        warehouse.addOrders(item, random.nextInt(10));
+                        costModel.setUnitCost(warehouse.getWarehouseName(), item, random.nextDouble() * 2);
+                    }
+                }
+                warehouses.add(warehouse);
+            }
+            Order order = new Order();
+            order.addOrders("apple", 1 + random.nextInt(12));
+            order.addOrders("orange", 1 + random.nextInt(12));
+
+            AllocationPlan greedyPlan = new GreedyAllocationStrategy().plan(order, warehouses);
+            AllocationPlan exactPlan = new CostOptimalAllocationStrategy(costModel).plan(order, warehouses);
+            AllocationPlan heuristicPlan = new CostOptimalAllocationStrategy(costModel, 0, 1, TimeUnit.SECONDS).plan(order, warehouses);
+
+            assertEquals(greedyPlan.isFulfillable(), exactPlan.isFulfillable());
+            if (greedyPlan.isFulfillable()) {
+                double exactCost = costModel.getCost(exactPlan.getLines());
+                assertTrue(exactCost <= costModel.getCost(heuristicPlan.getLines()) + 1e-9);
+                assertTrue(costModel.getCost(heuristicPlan.getLines()) <= costModel.getCost(greedyPlan.getLines()) + 1e-9);
+            }
+        }
+    }
+}
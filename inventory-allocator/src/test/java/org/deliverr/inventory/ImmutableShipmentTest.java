@@ -0,0 +1,70 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Test utility to test the equality of Shipment class and the ImmutableShipment class.
+ * */
+public class ImmutableShipmentTest {
+
+    private static final Logger logger = Logger.getLogger(ImmutableShipmentTest.class.getName());
+
+    private Shipment createShipment(String warehouseName, boolean appleFirst) {
+        Shipment shipment = new Shipment(warehouseName);
+        if (appleFirst) {
+            shipment.addOrders("apple", 5);
+        }
+        shipment.addOrders("banana", 300);
+        if (!appleFirst) {
+            shipment.addOrders("apple", 5);
+        }
+        return shipment;
+    }
+
+    /**
+     * The following test case compares shipments from warehouse names which are equal but not the same string
+     * Result expected is equal shipments with equal hash codes, deduplicated by a set.
+     * */
+    @Test
+    public void equalShipmentsWithDifferentNameInstances() {
+        String warehouseName = new StringBuilder("First").append("Warehouse").toString();
+        Shipment shipment = createShipment("FirstWarehouse", true);
+        Shipment sameShipment = createShipment(warehouseName, false);
+
+        assertEquals(shipment, sameShipment);
+        assertEquals(shipment.hashCode(), sameShipment.hashCode());
+        assertEquals(ImmutableShipment.of(shipment), ImmutableShipment.of(sameShipment));
+
+        Set<ImmutableShipment> shipments = new HashSet<>();
+        shipments.add(ImmutableShipment.of(shipment));
+        shipments.add(ImmutableShipment.of(sameShipment));
+        shipments.add(ImmutableShipment.of(createShipment("SecondWarehouse", true)));
+        assertEquals(2, shipments.size());
+    }
+
+    /**
+     * The following test case serializes a shipment and reads it back
+     * Result expected is an equal shipment, serialized in a few bytes.
+     * */
+    @Test
+    public void roundTripsThroughBytes() {
+        ImmutableShipment shipment = ImmutableShipment.of(createShipment("owd", true));
+
+        byte[] bytes = shipment.toBytes();
+        ImmutableShipment readShipment = ImmutableShipment.fromBytes(bytes);
+
+        assertEquals(shipment, readShipment);
+        assertEquals(300, readShipment.getOrderItemsQuantity("banana"));
+        assertEquals(0, readShipment.getOrderItemsQuantity("mango"));
+        assertEquals(createShipment("owd", false), readShipment.toShipment());
+        assertEquals(2 + 3 + 1 + (2 + 5 + 1) + (2 + 6 + 2), bytes.length);
+        assertNotEquals(shipment, ImmutableShipment.of(new Shipment("owd")));
+    }
+}
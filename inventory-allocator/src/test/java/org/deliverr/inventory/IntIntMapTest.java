@@ -0,0 +1,62 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test utility to test IntIntMap class against a HashMap for random puts and removes.
+ * */
+public class IntIntMapTest {
+
+    private static final Logger logger = Logger.getLogger(IntIntMapTest.class.getName());
+
+    /**
+     * The following test case applies the same random puts and removes to an IntIntMap and a HashMap
+     * Result expected is the same entries in both maps after every step.
+     * */
+    @Test
+    public void randomPutsAndRemovesMatchHashMap() {
+        Random random = new Random(7);
+        IntIntMap map = new IntIntMap();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 20000; step++) {
+            int key = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                int value = random.nextInt(1000);
+                map.put(key, value);
+                expected.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key, -1));
+        }
+        for (int key = 0; key < 300; key++) {
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key, -1));
+        }
+    }
+
+    /**
+     * The following test case tests that equality does not depend on the insertion order or the capacity
+     * */
+    @Test
+    public void equalityIgnoresInsertionOrder() {
+        IntIntMap first = new IntIntMap();
+        IntIntMap second = new IntIntMap(1000);
+        for (int key = 0; key < 50; key++) {
+            first.put(key, key * 2);
+            second.put(49 - key, (49 - key) * 2);
+        }
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        second.put(3, 0);
+        assertFalse(first.equals(second));
+    }
+}
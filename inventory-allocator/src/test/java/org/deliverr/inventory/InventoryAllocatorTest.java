@@ -1,3 +1,5 @@
+package org.deliverr.inventory;
+
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -0,0 +1,107 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test utility to test InventoryDeltaFeed class for relative, batched and versioned stock changes.
+ * */
+public class InventoryDeltaFeedTest {
+
+    private static final Logger logger = Logger.getLogger(InventoryDeltaFeedTest.class.getName());
+
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 5),
+                warehouse("SecondWarehouse", "orange", 3));
+    }
+
+    /**
+     * The following test case applies a receipt, a return and a cycle count correction in one batch
+     * Result expected is the adjusted quantities and the next version.
+     * */
+    @Test
+    public void appliesBatchOfRelativeDeltas() {
+        List<Warehouse> warehouses = createWarehouses();
+        InventoryDeltaFeed inventoryDeltaFeed = new InventoryDeltaFeed(new ConcurrentInventoryAllocator(warehouses));
+
+        long version = inventoryDeltaFeed.apply(new InventoryDeltaBatch()
+                .add(warehouses.get(0), "apple", 10)
+                .add(warehouses.get(0), "apple", -3)
+                .add(warehouses.get(1), "orange", -3)
+                .add(warehouses.get(1), "banana", 2));
+
+        assertEquals(1, version);
+        assertEquals(12, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(0, warehouses.get(1).getItemQuantity("orange"));
+        assertEquals(2, warehouses.get(1).getItemQuantity("banana"));
+        assertEquals(2, inventoryDeltaFeed.apply(warehouses.get(1), "banana", 1));
+    }
+
+    /**
+     * The following test case applies a batch taking one of it's items below 0
+     * Result expected is IllegalArgumentException and none of the deltas of the batch applied.
+     * */
+    @Test
+    public void rejectsBatchGoingBelowZero() {
+        List<Warehouse> warehouses = createWarehouses();
+        InventoryDeltaFeed inventoryDeltaFeed = new InventoryDeltaFeed(warehouses, new StripedItemLocks(4));
+
+        try {
+            inventoryDeltaFeed.apply(new InventoryDeltaBatch()
+                    .add(warehouses.get(0), "apple", 1)
+                    .add(warehouses.get(1), "orange", -4));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(5, warehouses.get(0).getItemQuantity("apple"));
+            assertEquals(3, warehouses.get(1).getItemQuantity("orange"));
+            assertEquals(0, inventoryDeltaFeed.getVersion());
+        }
+    }
+
+    /**
+     * The following test case applies a batch removing an item before receiving more of it than it removes
+     * Result expected is the batch applied as it's net change, though it's first delta alone would go below 0.
+     * */
+    @Test
+    public void appliesMixedSignDeltasOfOneItem() {
+        List<Warehouse> warehouses = createWarehouses();
+        InventoryDeltaFeed inventoryDeltaFeed = new InventoryDeltaFeed(warehouses, new StripedItemLocks(4));
+
+        long version = inventoryDeltaFeed.apply(new InventoryDeltaBatch()
+                .add(warehouses.get(1), "banana", -5)
+                .add(warehouses.get(1), "banana", 10)
+                .add(warehouses.get(0), "apple", -7)
+                .add(warehouses.get(0), "apple", 2));
+
+        assertEquals(1, version);
+        assertEquals(5, warehouses.get(1).getItemQuantity("banana"));
+        assertEquals(0, warehouses.get(0).getItemQuantity("apple"));
+    }
+
+    /**
+     * The following test case takes a snapshot and then applies a delta
+     * Result expected is the snapshot keeping the quantities of it's version.
+     * */
+    @Test
+    public void snapshotKeepsItsVersion() {
+        List<Warehouse> warehouses = createWarehouses();
+        InventoryDeltaFeed inventoryDeltaFeed = new InventoryDeltaFeed(warehouses, new StripedItemLocks(4));
+        inventoryDeltaFeed.apply(warehouses.get(0), "apple", 1);
+
+        InventorySnapshot inventorySnapshot = inventoryDeltaFeed.snapshot();
+        inventoryDeltaFeed.apply(warehouses.get(0), "apple", -6);
+
+        assertEquals(1, inventorySnapshot.getVersion());
+        assertEquals(6, inventorySnapshot.getItemQuantity(warehouses.get(0), "apple"));
+        assertEquals(3, inventorySnapshot.getItemQuantity(warehouses.get(1), "orange"));
+        assertEquals(0, warehouses.get(0).getItemQuantity("apple"));
+    }
+}
@@ -0,0 +1,127 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test InventoryIndex class and the indexed allocation of InventoryAllocator class.
+ * */
+public class InventoryIndexTest {
+
+    private static final Logger logger = Logger.getLogger(InventoryIndexTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    /**
+     * Builds the same three warehouses for every test case
+     * */
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 5, "banana", 10),
+                warehouse("SecondWarehouse", "orange", 40),
+                warehouse("ThirdWarehouse", "apple", 50, "orange", 10));
+    }
+
+    /**
+     * The following test case tests that the index lists only the warehouses holding an item, cheapest first
+     * */
+    @Test
+    public void indexListsWarehousesHoldingItemInCostOrder() {
+        List<Warehouse> warehouses = createWarehouses();
+        InventoryIndex inventoryIndex = new InventoryIndex(warehouses);
+
+        List<Warehouse> expectedWarehouses = new ArrayList<>();
+        expectedWarehouses.add(warehouses.get(0));
+        expectedWarehouses.add(warehouses.get(2));
+
+        assertEquals(expectedWarehouses, inventoryIndex.getWarehousesHolding("apple"));
+        assertTrue(inventoryIndex.getWarehousesHolding("mango").isEmpty());
+    }
+
+    /**
+     * The following test case tests that indexed allocation produces the same shipments as the list allocation
+     * Result expected is the cheapest first split across the first and third warehouse.
+     * */
+    @Test
+    public void indexedAllocationMatchesListAllocation() {
+        Order order = new Order();
+        order.addOrders("apple", 20);
+        order.addOrders("orange", 45);
+        Order sameOrder = new Order();
+        sameOrder.addOrders("apple", 20);
+        sameOrder.addOrders("orange", 45);
+
+        List<Shipment> expectedShipments = inventoryAllocator.allocateShipment(order, createWarehouses());
+        List<Shipment> finalShipments = inventoryAllocator.allocateShipment(sameOrder, new InventoryIndex(createWarehouses()));
+
+        assertEquals(3, expectedShipments.size());
+        assertEquals(expectedShipments, finalShipments);
+    }
+
+    /**
+     * The following test case tests that the index follows the stock changes of the warehouses
+     * Result expected is the second order shipped from the third warehouse once the first one ran out of apples.
+     * */
+    @Test
+    public void indexFollowsStockChanges() {
+        List<Warehouse> warehouses = createWarehouses();
+        InventoryIndex inventoryIndex = new InventoryIndex(warehouses);
+
+        Order firstOrder = new Order();
+        firstOrder.addOrders("apple", 5);
+        inventoryAllocator.allocateShipment(firstOrder, inventoryIndex);
+        warehouses.get(1).addOrders("apple", 3);
+
+        Order secondOrder = new Order();
+        secondOrder.addOrders("apple", 3);
+        List<Shipment> expectedShipments = new ArrayList<>();
+        Shipment shipment = new Shipment("SecondWarehouse");
+        shipment.addOrders("apple", 3);
+        expectedShipments.add(shipment);
+
+        assertEquals(expectedShipments, inventoryAllocator.allocateShipment(secondOrder, inventoryIndex));
+    }
+
+    /**
+     * The following test case tests for an order which can not be completely shipped using the index
+     * Result expected is empty list.
+     * */
+    @Test
+    public void incompleteShipmentWithIndex() {
+        Order order = new Order();
+        order.addOrders("apple", 100);
+
+        List<Shipment> expectedShipments = new ArrayList<>();
+        List<Shipment> finalShipments = inventoryAllocator.allocateShipment(order, new InventoryIndex(createWarehouses()));
+
+        assertEquals(expectedShipments, finalShipments);
+    }
+
+    /**
+     * The following test case tests an order short of apples across all the warehouses, after the stock changed
+     * Result expected is the order rejected without any warehouse stock taken, and the aggregate following the changes.
+     * */
+    @Test
+    public void infeasibleOrderRejectedBeforeTouchingWarehouses() {
+        List<Warehouse> warehouses = createWarehouses();
+        InventoryIndex inventoryIndex = new InventoryIndex(warehouses);
+        warehouses.get(0).adjustStock("apple", -2);
+        warehouses.get(2).takeStock("apple", 10);
+        assertEquals(43, inventoryIndex.getAvailableQuantity("apple"));
+
+        Order order = new Order();
+        order.addOrders("orange", 5);
+        order.addOrders("apple", 44);
+
+        assertTrue(inventoryAllocator.allocateShipment(order, inventoryIndex).isEmpty());
+        assertEquals(40, warehouses.get(1).getItemQuantity("orange"));
+        assertEquals(5, order.getOrderItemsQuantity("orange"));
+    }
+}
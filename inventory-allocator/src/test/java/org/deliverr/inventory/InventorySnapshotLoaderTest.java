@@ -0,0 +1,108 @@
+package org.deliverr.inventory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test utility to test InventorySnapshotLoader class for CSV and JSON lines snapshots.
+ * */
+public class InventorySnapshotLoaderTest {
+
+    private static final Logger logger = Logger.getLogger(InventorySnapshotLoaderTest.class.getName());
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File writeSnapshot(String fileName, String content) throws IOException {
+        File snapshot = temporaryFolder.newFile(fileName);
+        Files.write(snapshot.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return snapshot;
+    }
+
+    /**
+     * The following test case loads a CSV snapshot with a header through a buffer smaller than a line
+     * Result expected is the warehouses in the order they first appear with their stock, the last row winning.
+     * */
+    @Test
+    public void loadsCsvSnapshot() throws IOException {
+        File snapshot = writeSnapshot("inventory.csv", "warehouse,sku,quantity\r\n"
+                + "owd,apple,5\r\n"
+                + "dm, banana ,\"7\"\n"
+                + "\n"
+                + "owd,orange,10\n"
+                + "owd,apple,6");
+
+        InventoryLoadResult result = new InventorySnapshotLoader(4).load(snapshot.toPath());
+        List<Warehouse> warehouses = result.getWarehouses();
+
+        assertEquals(4, result.getRowCount());
+        assertEquals(2, warehouses.size());
+        assertEquals("owd", warehouses.get(0).getWarehouseName());
+        assertEquals(6, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(10, warehouses.get(0).getItemQuantity("orange"));
+        assertEquals("dm", warehouses.get(1).getWarehouseName());
+        assertEquals(7, warehouses.get(1).getItemQuantity("banana"));
+        assertEquals(snapshot.length(), result.getByteCount());
+    }
+
+    /**
+     * The following test case loads a JSON lines snapshot with keys in any order, unknown keys and escapes
+     * Result expected is the same stock as the equivalent CSV snapshot.
+     * */
+    @Test
+    public void loadsJsonLinesSnapshot() throws IOException {
+        File snapshot = writeSnapshot("inventory.jsonl",
+                "{\"warehouse\": \"owd\", \"sku\": \"apple\", \"quantity\": 5}\n"
+                + "{\"quantity\":7,\"sku\":\"ban\\u0061na\",\"zone\":\"west\",\"active\":true,\"warehouse\":\"dm\"}\n");
+
+        List<Warehouse> warehouses = new InventorySnapshotLoader(16).load(snapshot.toPath()).getWarehouses();
+
+        assertEquals(2, warehouses.size());
+        assertEquals(5, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(7, warehouses.get(1).getItemQuantity("banana"));
+    }
+
+    /**
+     * The following test case loads a CSV snapshot whose header follows a comment line
+     * Result expected is the header skipped and the rows loaded.
+     * */
+    @Test
+    public void skipsHeaderAfterComment() throws IOException {
+        File snapshot = writeSnapshot("inventory.csv", "# exported nightly\nwarehouse,sku,quantity\nowd,apple,5\n");
+
+        InventoryLoadResult result = new InventorySnapshotLoader().load(snapshot.toPath());
+
+        assertEquals(1, result.getRowCount());
+        assertEquals(5, result.getWarehouses().get(0).getItemQuantity("apple"));
+    }
+
+    /**
+     * The following test case tests a first row with a quantity which is not a number
+     * Result expected is IllegalArgumentException instead of the row being skipped as a header.
+     * */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedFirstRow() throws IOException {
+        File snapshot = writeSnapshot("inventory.csv", "owd,apple,five\nowd,orange,10\n");
+        new InventorySnapshotLoader().load(snapshot.toPath());
+    }
+
+    /**
+     * The following test case tests a row with a negative quantity
+     * Result expected is IllegalArgumentException.
+     * */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidQuantity() throws IOException {
+        File snapshot = writeSnapshot("inventory.csv", "owd,apple,5\nowd,orange,-1\n");
+        new InventorySnapshotLoader().load(snapshot.toPath());
+    }
+}
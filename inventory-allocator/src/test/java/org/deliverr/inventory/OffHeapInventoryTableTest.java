@@ -0,0 +1,138 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.order;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test utility to test OffHeapInventoryTable class against the default heap storage of the warehouses.
+ * */
+public class OffHeapInventoryTableTest {
+
+    private static final Logger logger = Logger.getLogger(OffHeapInventoryTableTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    /**
+     * @param offHeapInventoryTable (null to create warehouses with the heap storage)
+     * @return warehouses splitting the apples and holding a single banana
+     * */
+    private List<Warehouse> createWarehouses(OffHeapInventoryTable offHeapInventoryTable) {
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (String warehouseName : new String[]{"owd", "dm"}) {
+            warehouses.add(offHeapInventoryTable == null ? new Warehouse(warehouseName) : offHeapInventoryTable.newWarehouse(warehouseName));
+        }
+        warehouses.get(0).addOrders("apple", 5);
+        warehouses.get(1).addOrders("apple", 5);
+        warehouses.get(1).addOrders("banana", 1);
+        return warehouses;
+    }
+
+    private Order createOrder() {
+        return order("apple", 8, "banana", 1);
+    }
+
+    /**
+     * The following test case allocates the same order against warehouses stored on the heap and off the heap
+     * Result expected is the same shipments and the same stock left, items sold out being no longer stocked.
+     * */
+    @Test
+    public void allocatesLikeHeapStorage() {
+        OffHeapInventoryTable offHeapInventoryTable = new OffHeapInventoryTable(1 << 20);
+        List<Warehouse> heapWarehouses = createWarehouses(null);
+        List<Warehouse> offHeapWarehouses = createWarehouses(offHeapInventoryTable);
+
+        assertEquals(inventoryAllocator.allocateShipment(createOrder(), heapWarehouses),
+                inventoryAllocator.allocateShipment(createOrder(), offHeapWarehouses));
+
+        for (int w = 0; w < heapWarehouses.size(); w++) {
+            assertEquals(heapWarehouses.get(w).getItemNames(), offHeapWarehouses.get(w).getItemNames());
+            assertEquals(heapWarehouses.get(w).getItemQuantity("apple"), offHeapWarehouses.get(w).getItemQuantity("apple"));
+        }
+        assertFalse(offHeapWarehouses.get(1).getItemNames().contains("banana"));
+        assertEquals(2, offHeapInventoryTable.getRowCount());
+    }
+
+    /**
+     * The following test case allocates the same random orders, with lines of quantity 0 and items stocked with a
+     * quantity of 0, against warehouses stored on the heap and off the heap
+     * Result expected is the same shipments, including the lines of quantity 0, and the same items stocked.
+     * */
+    @Test
+    public void allocatesZeroQuantitiesLikeHeapStorage() {
+        OffHeapInventoryTable offHeapInventoryTable = new OffHeapInventoryTable(1 << 20);
+        String[] items = {"apple", "orange", "banana", "mango"};
+        Random random = new Random(5);
+        List<Warehouse> heapWarehouses = new ArrayList<>();
+        List<Warehouse> offHeapWarehouses = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            heapWarehouses.add(new Warehouse("Warehouse" + w));
+            offHeapWarehouses.add(offHeapInventoryTable.newWarehouse("Warehouse" + w));
+            for (String item : items) {
+                if (random.nextBoolean()) {
+                    int quantity = random.nextInt(4);
+                    heapWarehouses.get(w).addOrders(item, quantity);
+                    offHeapWarehouses.get(w).addOrders(item, quantity);
+                }
+            }
+        }
+
+        for (int round = 0; round < 30; round++) {
+            Order heapOrder = new Order();
+            Order offHeapOrder = new Order();
+            for (String item : items) {
+                if (random.nextBoolean()) {
+                    int quantity = random.nextInt(3);
+                    heapOrder.addOrders(item, quantity);
+                    offHeapOrder.addOrders(item, quantity);
+                }
+            }
+            assertEquals(inventoryAllocator.allocateShipment(heapOrder, heapWarehouses),
+                    inventoryAllocator.allocateShipment(offHeapOrder, offHeapWarehouses));
+            for (int w = 0; w < heapWarehouses.size(); w++) {
+                assertEquals(heapWarehouses.get(w).getItemNames(), offHeapWarehouses.get(w).getItemNames());
+                for (String item : items) {
+                    assertEquals(heapWarehouses.get(w).getItemQuantity(item), offHeapWarehouses.get(w).getItemQuantity(item));
+                }
+            }
+        }
+
+        Warehouse heapWarehouse = new Warehouse("owd");
+        Warehouse offHeapWarehouse = offHeapInventoryTable.newWarehouse("owd");
+        heapWarehouse.addOrders("kiwi", 0);
+        offHeapWarehouse.addOrders("kiwi", 0);
+        assertTrue(offHeapWarehouse.getItemNames().contains("kiwi"));
+        assertEquals(heapWarehouse.processOrder(order("kiwi", 0)), offHeapWarehouse.processOrder(order("kiwi", 0)));
+    }
+
+    /**
+     * The following test case stocks more item pages than the memory budget holds
+     * Result expected is IllegalStateException once the budget is used up, with the stock stored before kept.
+     * */
+    @Test
+    public void enforcesMemoryBudget() {
+        OffHeapInventoryTable offHeapInventoryTable = new OffHeapInventoryTable(2 * OffHeapInventoryTable.PAGE_BYTES);
+        InventoryStorage storage = offHeapInventoryTable.newStorage();
+        storage.put(0, 1);
+        storage.put(OffHeapInventoryTable.PAGE_ITEMS, 2);
+        try {
+            storage.put(2 * OffHeapInventoryTable.PAGE_ITEMS, 3);
+            fail("Memory budget exceeded");
+        } catch (IllegalStateException e) {
+            logger.fine(e.getMessage());
+        }
+
+        assertEquals(2 * OffHeapInventoryTable.PAGE_BYTES, offHeapInventoryTable.getAllocatedBytes());
+        assertEquals(2, storage.size());
+        assertEquals(2, storage.get(OffHeapInventoryTable.PAGE_ITEMS));
+        assertEquals(0, storage.get(2 * OffHeapInventoryTable.PAGE_ITEMS));
+    }
+}
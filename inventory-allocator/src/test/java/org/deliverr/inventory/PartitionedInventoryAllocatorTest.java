@@ -0,0 +1,231 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.order;
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test PartitionedInventoryAllocator class on a cluster of nodes in a single process.
+ * */
+public class PartitionedInventoryAllocatorTest {
+
+    private static final Logger logger = Logger.getLogger(PartitionedInventoryAllocatorTest.class.getName());
+    private static final List<String> NODE_IDS = Arrays.asList("node-a", "node-b", "node-c");
+    private static final String[] ITEMS = {"apple", "orange", "banana", "mango"};
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+    private ConsistentHashRing ring = new ConsistentHashRing(NODE_IDS);
+    private LoopbackTransport transport = new LoopbackTransport();
+    private Map<String, PartitionNode> nodes = new HashMap<String, PartitionNode>();
+
+    /**
+     * Builds the nodes and hands every warehouse to it's owner on the ring
+     * */
+    private PartitionedInventoryAllocator createCluster(List<Warehouse> warehouses) {
+        for (String nodeId : NODE_IDS) {
+            PartitionNode node = new PartitionNode(nodeId);
+            nodes.put(nodeId, node);
+            transport.register(node);
+        }
+        List<String> warehouseNames = new ArrayList<String>();
+        for (Warehouse warehouse : warehouses) {
+            nodes.get(ring.getOwner(warehouse.getWarehouseName())).addWarehouse(warehouse);
+            warehouseNames.add(warehouse.getWarehouseName());
+        }
+        return new PartitionedInventoryAllocator(warehouseNames, ring, transport);
+    }
+
+    private List<Warehouse> createWarehouses(Random random, int count) {
+        List<Warehouse> warehouses = new ArrayList<Warehouse>();
+        for (int w = 0; w < count; w++) {
+            Warehouse warehouse = new Warehouse("Warehouse" + w);
+            for (String item : ITEMS) {
+                if (random.nextInt(2) == 0) {
+                    warehouse.addOrders(item, 1 + random.nextInt(5));
+                }
+            }
+            warehouses.add(warehouse);
+        }
+        return warehouses;
+    }
+
+    /**
+     * Finds two warehouses of different nodes, so that an order split between them has two participants
+     * */
+    private List<Warehouse> createTwoNodeWarehouses() {
+        int w = 1;
+        while (ring.getOwner("Warehouse" + w).equals(ring.getOwner("Warehouse0"))) {
+            w++;
+        }
+        return warehouses(warehouse("Warehouse0", "apple", 5), warehouse("Warehouse" + w, "banana", 5));
+    }
+
+    private Order createOrder() {
+        return order("apple", 5, "banana", 5);
+    }
+
+    /**
+     * The following test case adds a node to the ring
+     * Result expected is every warehouse either staying on it's node or moving to the new node.
+     * */
+    @Test
+    public void addingNodeOnlyMovesKeysToIt() {
+        Map<String, String> owners = new HashMap<String, String>();
+        for (int w = 0; w < 1000; w++) {
+            owners.put("Warehouse" + w, ring.getOwner("Warehouse" + w));
+        }
+        ring.addNode("node-d");
+
+        int moved = 0;
+        for (Map.Entry<String, String> entry : owners.entrySet()) {
+            String owner = ring.getOwner(entry.getKey());
+            if (!owner.equals(entry.getValue())) {
+                assertEquals("node-d", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > 150 && moved < 350);
+
+        ring.removeNode("node-d");
+        for (Map.Entry<String, String> entry : owners.entrySet()) {
+            assertEquals(entry.getValue(), ring.getOwner(entry.getKey()));
+        }
+    }
+
+    /**
+     * The following test case allocates random orders on the cluster and on a copy of the warehouses in one process
+     * Result expected is the same shipments and the same stock left.
+     * */
+    @Test
+    public void matchesSingleProcessAllocation() {
+        Random random = new Random(11);
+        List<Warehouse> warehouses = createWarehouses(new Random(3), 12);
+        List<Warehouse> copies = createWarehouses(new Random(3), 12);
+        PartitionedInventoryAllocator partitionedAllocator = createCluster(warehouses);
+
+        for (int round = 0; round < 40; round++) {
+            Order order = new Order();
+            Order copy = new Order();
+            for (String item : ITEMS) {
+                int quantity = random.nextInt(6);
+                if (quantity > 0) {
+                    order.addOrders(item, quantity);
+                    copy.addOrders(item, quantity);
+                }
+            }
+            if (!inventoryAllocator.planShipment(copy, copies).isFulfillable()) {
+                assertTrue(partitionedAllocator.allocateShipment(order).isEmpty());
+                continue;
+            }
+            assertEquals(inventoryAllocator.allocateShipment(copy, copies), partitionedAllocator.allocateShipment(order));
+        }
+        for (int w = 0; w < warehouses.size(); w++) {
+            for (String item : ITEMS) {
+                assertEquals(copies.get(w).getItemQuantity(item), warehouses.get(w).getItemQuantity(item));
+            }
+        }
+    }
+
+    /**
+     * The following test case crashes a participant after it commits but before it answers, then brings it back
+     * Result expected is the order shipped, the commit kept pending until the node is back and the stock shipped once.
+     * */
+    @Test
+    public void nodeFailingMidCommitIsResolved() {
+        List<Warehouse> warehouses = createTwoNodeWarehouses();
+        PartitionedInventoryAllocator partitionedAllocator = createCluster(warehouses);
+        String crashingNode = ring.getOwner(warehouses.get(1).getWarehouseName());
+        transport.crashOnNext(crashingNode, PartitionRequest.Type.COMMIT);
+
+        assertEquals(2, partitionedAllocator.allocateShipment(createOrder()).size());
+        assertEquals(1, partitionedAllocator.getPendingDecisionCount());
+        assertEquals(1, partitionedAllocator.resolvePendingDecisions());
+
+        /* the crash lost the answer of the commit, the coordinator sends it again once the node is back */
+        transport.setAvailable(crashingNode, true);
+        assertEquals(0, partitionedAllocator.resolvePendingDecisions());
+        assertEquals(0, nodes.get(crashingNode).getPreparedCount());
+        assertEquals(0, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(0, warehouses.get(1).getItemQuantity("banana"));
+    }
+
+    /**
+     * The following test case crashes a participant while it prepares
+     * Result expected is an empty list, the stock of every warehouse back once the abort reaches the node.
+     * */
+    @Test
+    public void nodeFailingMidPrepareAbortsOrder() {
+        List<Warehouse> warehouses = createTwoNodeWarehouses();
+        PartitionedInventoryAllocator partitionedAllocator = createCluster(warehouses);
+        String crashingNode = ring.getOwner(warehouses.get(1).getWarehouseName());
+        transport.crashOnNext(crashingNode, PartitionRequest.Type.PREPARE);
+
+        assertTrue(partitionedAllocator.allocateShipment(createOrder()).isEmpty());
+        assertEquals(5, warehouses.get(0).getItemQuantity("apple"));
+        /* the node prepared before crashing, it holds the stock aside until the abort is delivered */
+        assertEquals(0, warehouses.get(1).getItemQuantity("banana"));
+
+        transport.setAvailable(crashingNode, true);
+        assertEquals(0, partitionedAllocator.resolvePendingDecisions());
+        assertEquals(5, warehouses.get(1).getItemQuantity("banana"));
+        assertEquals(2, partitionedAllocator.allocateShipment(createOrder()).size());
+    }
+
+    /**
+     * The following test case leaves a transaction of one coordinator prepared on a node and allocates the same order
+     * with a second coordinator sharing the nodes
+     * Result expected is the second order taking it's own stock, and the stock of the first one back once it's abort
+     * is delivered.
+     * */
+    @Test
+    public void coordinatorsSharingNodesUseDistinctTransactions() {
+        List<Warehouse> warehouses = createTwoNodeWarehouses();
+        warehouses.get(0).addOrders("apple", 10);
+        warehouses.get(1).addOrders("banana", 10);
+        PartitionedInventoryAllocator firstAllocator = createCluster(warehouses);
+        PartitionedInventoryAllocator secondAllocator = new PartitionedInventoryAllocator(
+                Arrays.asList(warehouses.get(0).getWarehouseName(), warehouses.get(1).getWarehouseName()), ring, transport);
+        String crashingNode = ring.getOwner(warehouses.get(1).getWarehouseName());
+        transport.crashOnNext(crashingNode, PartitionRequest.Type.PREPARE);
+
+        assertTrue(firstAllocator.allocateShipment(createOrder()).isEmpty());
+        transport.setAvailable(crashingNode, true);
+        assertEquals(2, secondAllocator.allocateShipment(createOrder()).size());
+        assertEquals(5, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(0, warehouses.get(1).getItemQuantity("banana"));
+
+        assertEquals(0, firstAllocator.resolvePendingDecisions());
+        assertEquals(5, warehouses.get(1).getItemQuantity("banana"));
+        assertEquals(0, nodes.get(crashingNode).getPreparedCount());
+    }
+
+    /**
+     * The following test case sends a node two PREPAREs of the same transaction id with different lines, then the
+     * first one again
+     * Result expected is a no vote for the different lines, a yes vote for the resent one, and the stock taken once.
+     * */
+    @Test
+    public void duplicatePrepareMustCarryTheSameLines() {
+        PartitionNode node = new PartitionNode("node-a");
+        node.addWarehouse(warehouse("Warehouse0", "apple", 5));
+        List<PartitionLine> lines = Arrays.asList(new PartitionLine("Warehouse0", "apple", 2));
+
+        assertTrue(node.handle(PartitionRequest.prepare("coordinator-1", lines)).isAccepted());
+        assertFalse(node.handle(PartitionRequest.prepare("coordinator-1",
+                Arrays.asList(new PartitionLine("Warehouse0", "apple", 3)))).isAccepted());
+        assertTrue(node.handle(PartitionRequest.prepare("coordinator-1", lines)).isAccepted());
+        assertEquals(3, node.getWarehouse("Warehouse0").getItemQuantity("apple"));
+    }
+}
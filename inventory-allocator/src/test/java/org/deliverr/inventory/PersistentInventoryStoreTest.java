@@ -0,0 +1,267 @@
+package org.deliverr.inventory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test PersistentInventoryStore class for restarts and crashes.
+ * */
+public class PersistentInventoryStoreTest {
+
+    private static final Logger logger = Logger.getLogger(PersistentInventoryStoreTest.class.getName());
+    private static final int INITIAL_QUANTITY = 100000;
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Opens the store and adds the two warehouses the first time
+     * */
+    private static PersistentInventoryStore openStore(Path directory, long checkpointBytes) throws IOException {
+        PersistentInventoryStore store = PersistentInventoryStore.open(directory, true, checkpointBytes);
+        if (store.getWarehouse("FirstWarehouse") == null) {
+            Warehouse warehouse1 = new Warehouse("FirstWarehouse");
+            warehouse1.addOrders("apple", INITIAL_QUANTITY);
+            Warehouse warehouse2 = new Warehouse("SecondWarehouse");
+            warehouse2.addOrders("orange", INITIAL_QUANTITY);
+            store.addWarehouse(warehouse1);
+            store.addWarehouse(warehouse2);
+        }
+        return store;
+    }
+
+    /**
+     * Order of an apple and an orange, shipped from both warehouses as one batch
+     * */
+    private static AllocationPlan planBatch(PersistentInventoryStore store) {
+        Order order = new Order();
+        order.addOrders("apple", 1);
+        order.addOrders("orange", 1);
+        return InventoryAllocator.getInventoryAllocatorInstance().planShipment(order, store.getWarehouses());
+    }
+
+    /**
+     * The following test case commits allocations and single stock changes, tears the journal tail and reopens
+     * Result expected is the same stock as before the restart, the torn record dropped.
+     * */
+    @Test
+    public void recoversStockAfterRestart() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        PersistentInventoryStore store = openStore(directory, 1 << 20);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(store.commit(planBatch(store)));
+        }
+        store.getWarehouse("SecondWarehouse").adjustStock("banana", 7);
+        store.getWarehouse("FirstWarehouse").takeStock("apple", 5);
+        try (FileChannel journal = FileChannel.open(directory.resolve("allocation.journal"), StandardOpenOption.APPEND)) {
+            journal.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2, 3}));
+        }
+
+        PersistentInventoryStore recoveredStore = openStore(directory, 1 << 20);
+
+        assertEquals(2, recoveredStore.getWarehouses().size());
+        assertEquals(INITIAL_QUANTITY - 15, recoveredStore.getWarehouse("FirstWarehouse").getItemQuantity("apple"));
+        assertEquals(INITIAL_QUANTITY - 10, recoveredStore.getWarehouse("SecondWarehouse").getItemQuantity("orange"));
+        assertEquals(7, recoveredStore.getWarehouse("SecondWarehouse").getItemQuantity("banana"));
+        recoveredStore.close();
+    }
+
+    /**
+     * The following test case adds a warehouse stocked only after the next one, and an empty warehouse, then reopens
+     * once without a checkpoint and once after a checkpoint
+     * Result expected is every warehouse recovered in the order it was added, including the empty one.
+     * */
+    @Test
+    public void recoversWarehousesInOrderIncludingEmptyOnes() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        PersistentInventoryStore store = PersistentInventoryStore.open(directory, true, 1 << 20);
+        Warehouse cheapWarehouse = new Warehouse("CheapWarehouse");
+        store.addWarehouse(cheapWarehouse);
+        store.addWarehouse(TestInventory.warehouse("DearWarehouse", "apple", 5));
+        store.addWarehouse(new Warehouse("EmptyWarehouse"));
+        cheapWarehouse.addOrders("apple", 3);
+
+        PersistentInventoryStore recoveredStore = PersistentInventoryStore.open(directory, true, 1 << 20);
+        assertWarehouseNames(recoveredStore, "CheapWarehouse", "DearWarehouse", "EmptyWarehouse");
+        assertEquals(3, recoveredStore.getWarehouse("CheapWarehouse").getItemQuantity("apple"));
+        recoveredStore.close();
+
+        PersistentInventoryStore reopenedStore = PersistentInventoryStore.open(directory, true, 1 << 20);
+        assertWarehouseNames(reopenedStore, "CheapWarehouse", "DearWarehouse", "EmptyWarehouse");
+        reopenedStore.close();
+    }
+
+    private static void assertWarehouseNames(PersistentInventoryStore store, String... warehouseNames) {
+        List<Warehouse> warehouses = store.getWarehouses();
+        assertEquals(warehouseNames.length, warehouses.size());
+        for (int i = 0; i < warehouseNames.length; i++) {
+            assertEquals(warehouseNames[i], warehouses.get(i).getWarehouseName());
+        }
+    }
+
+    /**
+     * The following test case takes an apple in a transaction, lets another thread take an apple on it's own while the
+     * transaction is pending, copies the files of the store as a crash would leave them and then takes an orange in
+     * the transaction
+     * Result expected is the other thread waiting for the transaction, nothing of the transaction in the crash copy,
+     * and all three changes recovered once both are written.
+     * */
+    @Test(timeout = 10000)
+    public void changesOfOtherThreadsWaitForPendingTransaction() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final Path crashDirectory = temporaryFolder.newFolder().toPath();
+        final PersistentInventoryStore store = openStore(directory, 1 << 20);
+        final Warehouse warehouse1 = store.getWarehouse("FirstWarehouse");
+        final Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                warehouse1.takeStock("apple", 1);
+            }
+        });
+        final boolean[] otherWaited = new boolean[1];
+        store.runInTransaction(new Runnable() {
+            @Override
+            public void run() {
+                warehouse1.takeStock("apple", 1);
+                other.start();
+                while (other.isAlive() && other.getState() != Thread.State.BLOCKED) {
+                    Thread.yield();
+                }
+                otherWaited[0] = other.isAlive();
+                try {
+                    Files.copy(directory.resolve("stock.dat"), crashDirectory.resolve("stock.dat"));
+                    Files.copy(directory.resolve("allocation.journal"), crashDirectory.resolve("allocation.journal"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                store.getWarehouse("SecondWarehouse").takeStock("orange", 1);
+            }
+        });
+        other.join();
+
+        assertTrue(otherWaited[0]);
+        PersistentInventoryStore crashedStore = PersistentInventoryStore.open(crashDirectory);
+        assertEquals(INITIAL_QUANTITY, crashedStore.getWarehouse("FirstWarehouse").getItemQuantity("apple"));
+        assertEquals(INITIAL_QUANTITY, crashedStore.getWarehouse("SecondWarehouse").getItemQuantity("orange"));
+        crashedStore.close();
+        PersistentInventoryStore recoveredStore = openStore(directory, 1 << 20);
+        assertEquals(INITIAL_QUANTITY - 2, recoveredStore.getWarehouse("FirstWarehouse").getItemQuantity("apple"));
+        assertEquals(INITIAL_QUANTITY - 1, recoveredStore.getWarehouse("SecondWarehouse").getItemQuantity("orange"));
+        recoveredStore.close();
+    }
+
+    /**
+     * The following test case commits batches from several threads at once and reopens without a checkpoint
+     * Result expected is the stock of the live warehouses recovered exactly.
+     * */
+    @Test(timeout = 60000)
+    public void recoversConcurrentCommits() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        final PersistentInventoryStore store = openStore(directory, 1 << 20);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 200; i++) {
+                        assertTrue(store.commit(planBatch(store)));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        PersistentInventoryStore recoveredStore = openStore(directory, 1 << 20);
+
+        assertEquals(INITIAL_QUANTITY - 800, store.getWarehouse("FirstWarehouse").getItemQuantity("apple"));
+        assertEquals(INITIAL_QUANTITY - 800, recoveredStore.getWarehouse("FirstWarehouse").getItemQuantity("apple"));
+        assertEquals(INITIAL_QUANTITY - 800, recoveredStore.getWarehouse("SecondWarehouse").getItemQuantity("orange"));
+        recoveredStore.close();
+    }
+
+    /**
+     * The following test case kills a process committing batches, at some point in the middle of a batch
+     * Result expected is every batch the process reported as committed recovered, at most the one batch it was
+     * committing recovered as well, and never half of a batch.
+     * */
+    @Test(timeout = 120000)
+    public void recoversCommittedBatchesAfterKill() throws Exception {
+        File directory = temporaryFolder.newFolder("store");
+        File output = temporaryFolder.newFile("committed.txt");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                CommittingProcess.class.getName(), directory.getAbsolutePath()).redirectOutput(output).start();
+
+        while (acknowledged(output) < 300) {
+            assertTrue(process.isAlive());
+            Thread.sleep(10);
+        }
+        process.destroyForcibly().waitFor();
+        int acknowledged = acknowledged(output);
+
+        PersistentInventoryStore store = openStore(directory.toPath(), 1 << 20);
+        Warehouse warehouse1 = store.getWarehouse("FirstWarehouse");
+        assertNotNull(warehouse1);
+        int applesTaken = INITIAL_QUANTITY - warehouse1.getItemQuantity("apple");
+        int orangesTaken = INITIAL_QUANTITY - store.getWarehouse("SecondWarehouse").getItemQuantity("orange");
+
+        assertEquals(applesTaken, orangesTaken);
+        assertTrue(applesTaken >= acknowledged && applesTaken <= acknowledged + 1);
+        store.close();
+    }
+
+    /**
+     * @return number of batches the process reported as committed, i.e. the last complete line of it's output
+     * */
+    private static int acknowledged(File output) throws IOException {
+        String content = new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n');
+        if (end < 0) {
+            return 0;
+        }
+        return Integer.parseInt(content.substring(content.lastIndexOf('\n', end - 1) + 1, end).trim());
+    }
+
+    /**
+     * Process committing one batch after the other, printing the number of batches committed after each of them,
+     * with a small checkpoint size so that it checkpoints many times before it is killed
+     * */
+    public static class CommittingProcess {
+        public static void main(String[] args) throws IOException {
+            PersistentInventoryStore store = openStore(new File(args[0]).toPath(), 4096);
+            for (int committed = 1; ; committed++) {
+                if (!store.commit(planBatch(store))) {
+                    throw new IllegalStateException("Batch was not committed");
+                }
+                System.out.println(committed);
+                System.out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.deliverr.inventory;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test RecordingAllocationMetrics class and the LatencyHistogram it records into.
+ * */
+public class RecordingAllocationMetricsTest {
+
+    private static final Logger logger = Logger.getLogger(RecordingAllocationMetricsTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    @After
+    public void disableMetrics() {
+        inventoryAllocator.setMetrics(AllocationMetrics.NOOP);
+    }
+
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 5),
+                warehouse("SecondWarehouse", "apple", 5));
+    }
+
+    /**
+     * The following test case allocates an order split across two warehouses and an order which can not be shipped
+     * Result expected is one fill and one rejection with the warehouses scanned and shipments of both, read through JMX.
+     * */
+    @Test
+    public void recordsFillsAndRejections() throws Exception {
+        RecordingAllocationMetrics metrics = new RecordingAllocationMetrics();
+        ObjectName objectName = metrics.register("org.deliverr.inventory:type=AllocationMetrics,name=test");
+        inventoryAllocator.setMetrics(metrics);
+
+        Order order = new Order();
+        order.addOrders("apple", 8);
+        inventoryAllocator.allocateShipment(order, createWarehouses());
+        Order rejectedOrder = new Order();
+        rejectedOrder.addOrders("apple", 11);
+        inventoryAllocator.allocateShipment(rejectedOrder, createWarehouses());
+
+        assertEquals(2, metrics.getAllocationCount());
+        assertEquals(1, metrics.getFillCount());
+        assertEquals(1, metrics.getRejectionCount());
+        assertEquals(4, metrics.getWarehousesScannedCount());
+        assertEquals(2, metrics.getShipmentCount());
+        assertEquals(2, metrics.getLatencyHistogram().getCount());
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(1L, mBeanServer.getAttribute(objectName, "RejectionCount"));
+        assertEquals(2L, mBeanServer.getAttribute(objectName, "ShipmentsPerOrderP99"));
+        mBeanServer.unregisterMBean(objectName);
+    }
+
+    /**
+     * The following test case allocates an order with a strategy which ships it from the last of three warehouses
+     * Result expected is one warehouse scanned, the warehouse of the plan, not the three warehouses of the list.
+     * */
+    @Test
+    public void recordsPlanWarehousesOfStrategy() {
+        RecordingAllocationMetrics metrics = new RecordingAllocationMetrics();
+        inventoryAllocator.setMetrics(metrics);
+        List<Warehouse> warehouses = createWarehouses();
+        warehouses.get(1).addOrders("orange", 5);
+        Warehouse warehouse3 = new Warehouse("ThirdWarehouse");
+        warehouse3.addOrders("apple", 5);
+        warehouse3.addOrders("orange", 5);
+        warehouses.add(warehouse3);
+
+        Order order = new Order();
+        order.addOrders("apple", 5);
+        order.addOrders("orange", 5);
+        inventoryAllocator.allocateShipment(order, warehouses, new ShipmentLimitStrategy(1));
+
+        assertEquals(1, metrics.getFillCount());
+        assertEquals(1, metrics.getWarehousesScannedCount());
+    }
+
+    /**
+     * The following test case records the values 1 to 100000 in the histogram
+     * Result expected is every percentile within 1/32 of the real value.
+     * */
+    @Test
+    public void histogramPercentilesAreAccurate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100000; value++) {
+            histogram.record(value);
+        }
+
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long expected = (long) (percentile * 1000);
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected + expected / 32);
+        }
+        assertEquals(100000, histogram.getValueAtPercentile(100));
+        assertEquals(50000.5, histogram.getMean(), 1e-9);
+    }
+}
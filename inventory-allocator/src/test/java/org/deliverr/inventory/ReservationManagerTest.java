@@ -0,0 +1,130 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.order;
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test ReservationManager class with a manual clock.
+ * */
+public class ReservationManagerTest {
+
+    private static final Logger logger = Logger.getLogger(ReservationManagerTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+    private long now = 1000000;
+    private LongSupplier clock = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return now;
+        }
+    };
+
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("owd", "apple", 5),
+                warehouse("dm", "apple", 5));
+    }
+
+    private Order createOrder(int quantity) {
+        return order("apple", quantity);
+    }
+
+    /**
+     * The following test case holds stock, allocates another order and converts the hold
+     * Result expected is the held stock invisible to the other order and shipped by the hold.
+     * */
+    @Test
+    public void heldStockIsInvisibleAndConvertsToShipments() {
+        List<Warehouse> warehouses = createWarehouses();
+        ReservationManager reservationManager = new ReservationManager(warehouses, new GreedyAllocationStrategy(), 100, clock);
+
+        InventoryHold hold = reservationManager.placeHold(createOrder(8), 5, TimeUnit.MINUTES);
+        assertNotNull(hold);
+        assertFalse(inventoryAllocator.planShipment(createOrder(3), warehouses).isFulfillable());
+        assertNull(reservationManager.placeHold(createOrder(3), 5, TimeUnit.MINUTES));
+
+        Shipment shipment1 = new Shipment("owd");
+        shipment1.addOrders("apple", 5);
+        Shipment shipment2 = new Shipment("dm");
+        shipment2.addOrders("apple", 3);
+        List<Shipment> expectedShipments = new ArrayList<>();
+        expectedShipments.add(shipment1);
+        expectedShipments.add(shipment2);
+
+        assertEquals(expectedShipments, reservationManager.convertHold(hold));
+        assertFalse(hold.isActive());
+        assertTrue(reservationManager.convertHold(hold).isEmpty());
+        assertFalse(reservationManager.releaseHold(hold));
+        assertEquals(0, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(2, warehouses.get(1).getItemQuantity("apple"));
+    }
+
+    /**
+     * The following test case lets a hold reach it's time to live
+     * Result expected is the hold active until then, and then the stock back in the warehouses.
+     * */
+    @Test
+    public void expiredHoldReturnsStock() {
+        List<Warehouse> warehouses = createWarehouses();
+        ReservationManager reservationManager = new ReservationManager(warehouses, new GreedyAllocationStrategy(), 100, clock);
+        InventoryHold hold = reservationManager.placeHold(createOrder(6), 1, TimeUnit.SECONDS);
+
+        now += 999;
+        assertEquals(0, reservationManager.expireHolds());
+        assertTrue(hold.isActive());
+
+        now += 1;
+        assertEquals(1, reservationManager.expireHolds());
+        assertFalse(hold.isActive());
+        assertTrue(reservationManager.convertHold(hold).isEmpty());
+        assertEquals(5, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(5, warehouses.get(1).getItemQuantity("apple"));
+    }
+
+    /**
+     * The following test case places holds expiring in every level of the timing wheel and beyond it, releasing one
+     * of them, with a tick of 1 millisecond
+     * Result expected is every other hold expiring at it's time to live, never before.
+     * */
+    @Test
+    public void holdsExpireAtEveryLevelOfTheWheel() {
+        Warehouse warehouse = new Warehouse("owd");
+        warehouse.addOrders("apple", 100);
+        List<Warehouse> warehouses = new ArrayList<>();
+        warehouses.add(warehouse);
+        ReservationManager reservationManager = new ReservationManager(warehouses, new GreedyAllocationStrategy(), 1, clock);
+
+        long[] timesToLive = {1, 63, 64, 4095, 4097, 262143, 300000, 16777300, 20000000};
+        List<InventoryHold> holds = new ArrayList<>();
+        for (long timeToLive : timesToLive) {
+            holds.add(reservationManager.placeHold(createOrder(1), timeToLive, TimeUnit.MILLISECONDS));
+        }
+        InventoryHold releasedHold = reservationManager.placeHold(createOrder(1), 5000, TimeUnit.MILLISECONDS);
+        assertTrue(reservationManager.releaseHold(releasedHold));
+
+        long start = now;
+        for (int h = 0; h < holds.size(); h++) {
+            now = start + timesToLive[h] - 1;
+            assertEquals(0, reservationManager.expireHolds());
+            assertTrue(holds.get(h).isActive());
+            now = start + timesToLive[h];
+            assertEquals(1, reservationManager.expireHolds());
+            assertFalse(holds.get(h).isActive());
+        }
+        assertEquals(0, reservationManager.getActiveHoldCount());
+        assertEquals(100, warehouse.getItemQuantity("apple"));
+    }
+}
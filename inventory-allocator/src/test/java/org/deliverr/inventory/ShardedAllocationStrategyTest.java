@@ -0,0 +1,86 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test utility to test ShardedAllocationStrategy class against the sequential cheapest first allocation.
+ * */
+public class ShardedAllocationStrategyTest {
+
+    private static final Logger logger = Logger.getLogger(ShardedAllocationStrategyTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    private List<Warehouse> createWarehouses(Random random, int warehouseCount) {
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int w = 0; w < warehouseCount; w++) {
+            Warehouse warehouse = new Warehouse("Warehouse" + w);
+            for (String item : new String[]{"apple", "orange", "banana"}) {
+                if (random.nextInt(3) == 0) {
+                    warehouse.addOrders(item, random.nextInt(10));
+                }
+            }
+            warehouses.add(warehouse);
+        }
+        return warehouses;
+    }
+
+    /**
+     * The following test case compares the sharded plan with the greedy plan on random inventories and shard sizes
+     * Result expected is the same lines, warehouse by warehouse, in the same cheapest first order.
+     * */
+    @Test
+    public void shardedPlanMatchesGreedyPlan() {
+        Random random = new Random(17);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 100; round++) {
+                List<Warehouse> warehouses = createWarehouses(random, 1 + random.nextInt(40));
+                Order order = new Order();
+                order.addOrders("apple", 1 + random.nextInt(40));
+                order.addOrders("orange", 1 + random.nextInt(40));
+
+                AllocationPlan greedyPlan = new GreedyAllocationStrategy().plan(order, warehouses);
+                AllocationPlan shardedPlan = new ShardedAllocationStrategy(forkJoinPool, 1 + random.nextInt(8)).plan(order, warehouses);
+
+                assertEquals(greedyPlan.isFulfillable(), shardedPlan.isFulfillable());
+                assertEquals(greedyPlan.getLines().size(), shardedPlan.getLines().size());
+                for (int i = 0; i < greedyPlan.getLines().size(); i++) {
+                    AllocationLine greedyLine = greedyPlan.getLines().get(i);
+                    AllocationLine shardedLine = shardedPlan.getLines().get(i);
+                    assertSame(greedyLine.getWarehouse(), shardedLine.getWarehouse());
+                    assertEquals(greedyLine.getItemName(), shardedLine.getItemName());
+                    assertEquals(greedyLine.getQuantity(), shardedLine.getQuantity());
+                }
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * The following test case allocates an order split across shards
+     * Result expected is the same shipments as the sequential allocation.
+     * */
+    @Test
+    public void shardedAllocationMatchesSequentialAllocation() {
+        List<Warehouse> warehouses = createWarehouses(new Random(5), 30);
+        Order order = new Order();
+        order.addOrders("apple", 20);
+        Order sameOrder = new Order();
+        sameOrder.addOrders("apple", 20);
+
+        List<Shipment> shardedShipments = inventoryAllocator.allocateShipment(order, warehouses, new ShardedAllocationStrategy(4));
+        List<Shipment> expectedShipments = inventoryAllocator.allocateShipment(sameOrder, createWarehouses(new Random(5), 30));
+
+        assertEquals(expectedShipments, shardedShipments);
+    }
+}
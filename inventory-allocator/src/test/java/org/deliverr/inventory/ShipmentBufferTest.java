@@ -0,0 +1,92 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test the allocation of InventoryAllocator class into a reusable ShipmentBuffer.
+ * */
+public class ShipmentBufferTest {
+
+    private static final Logger logger = Logger.getLogger(ShipmentBufferTest.class.getName());
+    private static final String[] ITEMS = {"apple", "orange", "banana"};
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    private List<Warehouse> createWarehouses(long seed) {
+        Random random = new Random(seed);
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int w = 0; w < 5; w++) {
+            Warehouse warehouse = new Warehouse("Warehouse" + w);
+            for (String item : ITEMS) {
+                if (random.nextBoolean()) {
+                    warehouse.addOrders(item, random.nextInt(6));
+                }
+            }
+            warehouses.add(warehouse);
+        }
+        return warehouses;
+    }
+
+    /**
+     * The following test case allocates random orders into the same buffer and the same order object
+     * Result expected is the same shipments and the same stock left as allocateShipment.
+     * */
+    @Test
+    public void bufferMatchesShipments() {
+        Random random = new Random(3);
+        ShipmentBuffer shipmentBuffer = new ShipmentBuffer(1);
+        Order order = new Order();
+        for (int round = 0; round < 200; round++) {
+            List<Warehouse> warehouses = createWarehouses(round);
+            List<Warehouse> sameWarehouses = createWarehouses(round);
+            order.clear();
+            Order sameOrder = new Order();
+            for (String item : ITEMS) {
+                int quantity = random.nextInt(8);
+                order.addOrders(item, quantity);
+                sameOrder.addOrders(item, quantity);
+            }
+
+            List<Shipment> expectedShipments = inventoryAllocator.allocateShipment(sameOrder, sameWarehouses);
+            boolean shipped = inventoryAllocator.allocateShipment(order, warehouses, shipmentBuffer);
+
+            assertEquals(!expectedShipments.isEmpty(), shipped);
+            assertEquals(expectedShipments, shipmentBuffer.toShipments(warehouses));
+            for (int w = 0; w < warehouses.size(); w++) {
+                for (String item : ITEMS) {
+                    assertEquals(sameWarehouses.get(w).getItemQuantity(item), warehouses.get(w).getItemQuantity(item));
+                }
+            }
+        }
+    }
+
+    /**
+     * The following test case tests an order which can not be completely shipped
+     * Result expected is false and an empty buffer.
+     * */
+    @Test
+    public void incompleteShipmentLeavesBufferEmpty() {
+        List<Warehouse> warehouses = new ArrayList<>();
+        Warehouse warehouse = new Warehouse("FirstWarehouse");
+        warehouse.addOrders("apple", 1);
+        warehouses.add(warehouse);
+        ShipmentBuffer shipmentBuffer = new ShipmentBuffer();
+        Order order = new Order();
+        order.addOrders("apple", 1);
+        assertTrue(inventoryAllocator.allocateShipment(order, warehouses, shipmentBuffer));
+        assertEquals(1, shipmentBuffer.size());
+
+        order.addOrders("apple", 1);
+
+        assertFalse(inventoryAllocator.allocateShipment(order, warehouses, shipmentBuffer));
+        assertEquals(0, shipmentBuffer.size());
+    }
+}
@@ -0,0 +1,119 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.deliverr.inventory.TestInventory.order;
+import static org.deliverr.inventory.TestInventory.shipment;
+import static org.deliverr.inventory.TestInventory.warehouse;
+import static org.deliverr.inventory.TestInventory.warehouses;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test utility to test ShipmentLimitStrategy class against the greedy cheapest first allocation.
+ * */
+public class ShipmentLimitStrategyTest {
+
+    private static final Logger logger = Logger.getLogger(ShipmentLimitStrategyTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    /**
+     * Builds two cheap warehouses holding part of the order each and a third warehouse holding all of it
+     * */
+    private List<Warehouse> createWarehouses() {
+        return warehouses(
+                warehouse("FirstWarehouse", "apple", 5),
+                warehouse("SecondWarehouse", "banana", 5),
+                warehouse("ThirdWarehouse", "apple", 5, "banana", 5));
+    }
+
+    private Order createOrder() {
+        return order("apple", 5, "banana", 5);
+    }
+
+    /**
+     * The following test case tests a limit of a single shipment for an order the greedy allocation splits in two
+     * Result expected is a single shipment from the warehouse holding the whole order.
+     * */
+    @Test
+    public void singleShipmentInsteadOfSplit() {
+        List<Shipment> expectedShipments = Arrays.asList(shipment("ThirdWarehouse", "apple", 5, "banana", 5));
+
+        List<Shipment> finalShipments = inventoryAllocator.allocateShipment(createOrder(), createWarehouses(),
+                new ShipmentLimitStrategy(1));
+
+        assertEquals(expectedShipments, finalShipments);
+    }
+
+    /**
+     * The following test case tests a limit of a single shipment when no warehouse holds the whole order
+     * Result expected is an empty list and the warehouses left unchanged.
+     * */
+    @Test
+    public void rejectsOrderWhenNoPlanFits() {
+        List<Warehouse> warehouses = createWarehouses();
+        warehouses.remove(2);
+
+        assertTrue(inventoryAllocator.allocateShipment(createOrder(), warehouses, new ShipmentLimitStrategy(1)).isEmpty());
+        assertFalse(new ShipmentLimitStrategy(1).plan(createOrder(), warehouses).isFulfillable());
+        assertEquals(5, warehouses.get(0).getItemQuantity("apple"));
+        assertEquals(5, warehouses.get(1).getItemQuantity("banana"));
+    }
+
+    /**
+     * The following test case compares the search with every set of warehouses on random inventories
+     * Result expected is a plan within the limit exactly when some set of at most limit warehouses ships the order,
+     * using the fewest shipments possible.
+     * */
+    @Test
+    public void findsSmallestSetOfWarehouses() {
+        Random random = new Random(7);
+        String[] items = {"apple", "orange", "banana", "mango", "kiwi"};
+        for (int round = 0; round < 50; round++) {
+            List<Warehouse> warehouses = new ArrayList<>();
+            for (int w = 0; w < 8; w++) {
+                Warehouse warehouse = new Warehouse("Warehouse" + w);
+                for (String item : items) {
+                    if (random.nextInt(3) == 0) {
+                        warehouse.addOrders(item, 1 + random.nextInt(6));
+                    }
+                }
+                warehouses.add(warehouse);
+            }
+            Order order = new Order();
+            for (String item : items) {
+                order.addOrders(item, 1 + random.nextInt(6));
+            }
+            int limit = 1 + random.nextInt(4);
+
+            int fewestShipments = Integer.MAX_VALUE;
+            for (int set = 1; set < (1 << warehouses.size()); set++) {
+                boolean ships = true;
+                for (String item : items) {
+                    int available = 0;
+                    for (int w = 0; w < warehouses.size(); w++) {
+                        available += (set & (1 << w)) != 0 ? warehouses.get(w).getItemQuantity(item) : 0;
+                    }
+                    ships &= available >= order.getOrderItemsQuantity(item);
+                }
+                if (ships) {
+                    fewestShipments = Math.min(fewestShipments, Integer.bitCount(set));
+                }
+            }
+
+            AllocationPlan plan = new ShipmentLimitStrategy(limit).plan(order, warehouses);
+
+            assertEquals(fewestShipments <= limit, plan.isFulfillable());
+            if (plan.isFulfillable()) {
+                assertEquals(fewestShipments, plan.getShipments().size());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.deliverr.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test utility which builds the warehouses, orders and shipments of the test cases from their item names and
+ * quantities, so that every test class states it's fixture in a single expression.
+ * */
+final class TestInventory {
+
+    private TestInventory() {}
+
+    /**
+     * @param warehouseName
+     * @param stock (item name and quantity pairs)
+     * @return warehouse stocking the items
+     */
+    static Warehouse warehouse(String warehouseName, Object... stock) {
+        Warehouse warehouse = new Warehouse(warehouseName);
+        for (int i = 0; i < stock.length; i += 2) {
+            warehouse.addOrders((String) stock[i], (Integer) stock[i + 1]);
+        }
+        return warehouse;
+    }
+
+    /**
+     * @param warehouses (cheapest first)
+     * @return modifiable list of the warehouses
+     */
+    static List<Warehouse> warehouses(Warehouse... warehouses) {
+        return new ArrayList<Warehouse>(Arrays.asList(warehouses));
+    }
+
+    /**
+     * @param items (item name and quantity pairs)
+     * @return order of the items
+     */
+    static Order order(Object... items) {
+        Order order = new Order();
+        for (int i = 0; i < items.length; i += 2) {
+            order.addOrders((String) items[i], (Integer) items[i + 1]);
+        }
+        return order;
+    }
+
+    /**
+     * @param warehouseName
+     * @param items (item name and quantity pairs)
+     * @return shipment of the items from the warehouse
+     */
+    static Shipment shipment(String warehouseName, Object... items) {
+        Shipment shipment = new Shipment(warehouseName);
+        for (int i = 0; i < items.length; i += 2) {
+            shipment.addOrders((String) items[i], (Integer) items[i + 1]);
+        }
+        return shipment;
+    }
+}
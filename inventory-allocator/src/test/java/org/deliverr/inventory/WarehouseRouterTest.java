@@ -0,0 +1,78 @@
+package org.deliverr.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test utility to test WarehouseRouter class and the routed allocation of InventoryAllocator class.
+ * */
+public class WarehouseRouterTest {
+
+    private static final Logger logger = Logger.getLogger(WarehouseRouterTest.class.getName());
+    private InventoryAllocator inventoryAllocator = InventoryAllocator.getInventoryAllocatorInstance();
+
+    private List<Warehouse> createWarehouses(int warehouseCount) {
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (int w = 0; w < warehouseCount; w++) {
+            Warehouse warehouse = new Warehouse("Warehouse" + w);
+            warehouse.addOrders("apple", 5);
+            warehouses.add(warehouse);
+        }
+        return warehouses;
+    }
+
+    /**
+     * The following test case allocates the same order to two zones
+     * Result expected is the order shipped from the warehouses cheapest for it's zone.
+     * */
+    @Test
+    public void allocatesFromCheapestWarehousesOfZone() {
+        List<Warehouse> warehouses = createWarehouses(3);
+        WarehouseRouter warehouseRouter = new WarehouseRouter(warehouses);
+        warehouseRouter.setCost("west", warehouses.get(0), 9);
+        warehouseRouter.setCost("west", warehouses.get(1), 3);
+        warehouseRouter.setCost("west", warehouses.get(2), 1);
+        warehouseRouter.setCost("east", warehouses.get(0), 1);
+
+        Order westOrder = new Order();
+        westOrder.addOrders("apple", 7);
+        westOrder.setDestinationZone("west");
+        List<Shipment> westShipments = inventoryAllocator.allocateShipment(westOrder, warehouseRouter);
+
+        assertEquals(2, westShipments.size());
+        assertEquals("Warehouse2", westShipments.get(0).getWarehouseName());
+        assertEquals("Warehouse1", westShipments.get(1).getWarehouseName());
+        assertEquals(2, westShipments.get(1).getOrderItemsQuantity("apple"));
+
+        Order eastOrder = new Order();
+        eastOrder.addOrders("apple", 4);
+        eastOrder.setDestinationZone("east");
+        assertEquals("Warehouse0", inventoryAllocator.allocateShipment(eastOrder, warehouseRouter).get(0).getWarehouseName());
+    }
+
+    /**
+     * The following test case changes random costs one at a time
+     * Result expected is the ranking always equal to the warehouses sorted by cost, then by their list order.
+     * */
+    @Test
+    public void incrementalRankingMatchesSortedRanking() {
+        final List<Warehouse> warehouses = createWarehouses(20);
+        final WarehouseRouter warehouseRouter = new WarehouseRouter(warehouses);
+        Random random = new Random(23);
+        for (int update = 0; update < 500; update++) {
+            warehouseRouter.setCost("zone", warehouses.get(random.nextInt(20)), random.nextInt(10));
+
+            List<Warehouse> expectedRanking = new ArrayList<>(warehouses);
+            expectedRanking.sort(Comparator.comparingDouble(warehouse -> warehouseRouter.getCost("zone", warehouse)));
+            assertEquals(expectedRanking, warehouseRouter.getRanking("zone"));
+        }
+        assertEquals(warehouses, warehouseRouter.getRanking("unknown"));
+    }
+}